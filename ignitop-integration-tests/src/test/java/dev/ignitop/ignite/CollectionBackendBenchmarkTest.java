@@ -0,0 +1,168 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ignite;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import org.apache.ignite.configuration.ClientConnectorConfiguration;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.configuration.ThinClientConfiguration;
+import org.apache.ignite.testframework.junits.common.GridCommonAbstractTest;
+import org.junit.Test;
+
+import static org.apache.ignite.events.EventType.EVT_JOB_STARTED;
+
+/**
+ * Compares latency and cluster load of the compute-task and the SQL collection backends. Cluster load is measured
+ * as an amount of jobs executed by server nodes.
+ */
+@SuppressWarnings("resource")
+public class CollectionBackendBenchmarkTest extends GridCommonAbstractTest {
+    /** Servers count. */
+    public static final int SERVERS_COUNT = 4;
+
+    /** Clients count. */
+    public static final int CLIENTS_COUNT = 4;
+
+    /** Warmup iterations count. */
+    public static final int WARMUP_ITERS = 5;
+
+    /** Measured iterations count. */
+    public static final int ITERS = 20;
+
+    /** Addresses. */
+    public static final String[] ADDRESSES = IntStream.range(0, SERVERS_COUNT)
+        .mapToObj(i -> "127.0.0.1:" + (10800 + i))
+        .toArray(String[]::new);
+
+    /** Total amount of jobs executed by server nodes. */
+    private static final AtomicLong EXECUTED_JOBS = new AtomicLong();
+
+    /** {@inheritDoc} */
+    @Override protected IgniteConfiguration getConfiguration(String igniteInstanceName) throws Exception {
+        return super.getConfiguration(igniteInstanceName)
+            .setConsistentId(igniteInstanceName)
+            .setIncludeEventTypes(EVT_JOB_STARTED)
+            .setClientConnectorConfiguration(new ClientConnectorConfiguration()
+                .setThinClientConfiguration(new ThinClientConfiguration()
+                    .setMaxActiveComputeTasksPerConnection(CollectionEngine.DEFAULT_PARALLELISM)));
+    }
+
+    /** {@inheritDoc} */
+    @Override protected void beforeTestsStarted() throws Exception {
+        super.beforeTestsStarted();
+
+        startGrids(SERVERS_COUNT);
+
+        // Jobs are counted by events, as node metrics are updated only once per metrics update frequency.
+        for (int i = 0; i < SERVERS_COUNT; i++) {
+            grid(i).events().localListen(evt -> {
+                EXECUTED_JOBS.incrementAndGet();
+
+                return true;
+            }, EVT_JOB_STARTED);
+        }
+
+        startClientGridsMultiThreaded(SERVERS_COUNT, CLIENTS_COUNT);
+
+        awaitPartitionMapExchange();
+    }
+
+    /** {@inheritDoc} */
+    @Override protected void afterTestsStopped() throws Exception {
+        stopAllGrids();
+
+        super.afterTestsStopped();
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testTopologyInformation() {
+        try (IgniteHelper computeHelper = new IgniteHelper(ADDRESSES);
+             IgniteHelper sqlHelper = new SqlIgniteHelper(ADDRESSES)) {
+            Result compute = measure("Compute topology", computeHelper::topologyInformation);
+            Result sql = measure("SQL topology", sqlHelper::topologyInformation);
+
+            assertTrue("SQL backend should execute less jobs", sql.jobs < compute.jobs);
+        }
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testSystemMetrics() {
+        try (IgniteHelper computeHelper = new IgniteHelper(ADDRESSES);
+             IgniteHelper sqlHelper = new SqlIgniteHelper(ADDRESSES)) {
+            Result compute = measure("Compute system metrics", computeHelper::systemMetrics);
+            Result sql = measure("SQL system metrics", sqlHelper::systemMetrics);
+
+            assertTrue("SQL backend should execute less jobs", sql.jobs < compute.jobs);
+        }
+    }
+
+    /**
+     * @param name Benchmark name.
+     * @param collector Collector.
+     */
+    private Result measure(String name, Supplier<?> collector) {
+        for (int i = 0; i < WARMUP_ITERS; i++)
+            collector.get();
+
+        long jobsBefore = executedJobs();
+        long start = System.nanoTime();
+
+        for (int i = 0; i < ITERS; i++)
+            collector.get();
+
+        Result res = new Result((System.nanoTime() - start) / ITERS / 1000, (executedJobs() - jobsBefore) / ITERS);
+
+        log.info(">>> " + name + ": avgLatencyMicros=" + res.latencyMicros + ", jobsPerRefresh=" + res.jobs);
+
+        return res;
+    }
+
+    /**
+     * @return Total amount of jobs executed by server nodes.
+     */
+    private long executedJobs() {
+        return EXECUTED_JOBS.get();
+    }
+
+    /**
+     * Benchmark result.
+     */
+    private static class Result {
+        /** Average latency in microseconds. */
+        private final long latencyMicros;
+
+        /** Average amount of executed jobs per refresh. */
+        private final long jobs;
+
+        /**
+         * @param latencyMicros Average latency in microseconds.
+         * @param jobs Average amount of executed jobs per refresh.
+         */
+        private Result(long latencyMicros, long jobs) {
+            this.latencyMicros = latencyMicros;
+            this.jobs = jobs;
+        }
+    }
+}
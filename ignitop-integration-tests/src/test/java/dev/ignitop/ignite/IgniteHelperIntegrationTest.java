@@ -24,6 +24,7 @@ import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import dev.ignitop.ignite.system.SystemMetricsInformation;
@@ -40,7 +41,9 @@ import org.apache.ignite.configuration.DataRegionConfiguration;
 import org.apache.ignite.configuration.DataStorageConfiguration;
 import org.apache.ignite.configuration.IgniteConfiguration;
 import org.apache.ignite.configuration.ThinClientConfiguration;
+import org.apache.ignite.internal.GridJobExecuteRequest;
 import org.apache.ignite.internal.IgniteEx;
+import org.apache.ignite.internal.TestRecordingCommunicationSpi;
 import org.apache.ignite.internal.processors.metric.MetricRegistry;
 import org.apache.ignite.spi.metric.LongMetric;
 import org.apache.ignite.testframework.junits.common.GridCommonAbstractTest;
@@ -74,6 +77,9 @@ public class IgniteHelperIntegrationTest extends GridCommonAbstractTest {
         .mapToObj(i -> "127.0.0.1:" + (10800 + i))
         .toArray(String[]::new);
 
+    /** Limit of active compute tasks per thin client connection. */
+    public static final int MAX_ACTIVE_COMPUTE_TASKS = 1;
+
     /** Default region max size. */
     public static final long DEFAULT_REGION_MAX_SIZE = 128 * MB;
 
@@ -114,9 +120,10 @@ public class IgniteHelperIntegrationTest extends GridCommonAbstractTest {
     @Override protected IgniteConfiguration getConfiguration(String igniteInstanceName) throws Exception {
         return super.getConfiguration(igniteInstanceName)
             .setConsistentId(igniteInstanceName)
+            .setCommunicationSpi(new TestRecordingCommunicationSpi())
             .setClientConnectorConfiguration(new ClientConnectorConfiguration()
                 .setThinClientConfiguration(new ThinClientConfiguration()
-                    .setMaxActiveComputeTasksPerConnection(1)))
+                    .setMaxActiveComputeTasksPerConnection(MAX_ACTIVE_COMPUTE_TASKS)))
             .setDataStorageConfiguration(new DataStorageConfiguration()
                 .setDefaultDataRegionConfiguration(
                     new DataRegionConfiguration()
@@ -188,6 +195,63 @@ public class IgniteHelperIntegrationTest extends GridCommonAbstractTest {
         }
     }
 
+    /**
+     * Concurrent collections of all screens with the default parallelism do not exceed the limit of active compute
+     * tasks per connection.
+     */
+    @Test
+    public void testDefaultParallelism_withSingleComputeTaskLimit() {
+        assertEquals(MAX_ACTIVE_COMPUTE_TASKS, CollectionEngine.DEFAULT_PARALLELISM);
+
+        try (IgniteHelper igniteHelper = new IgniteHelper(ADDRESSES)) {
+            for (int i = 0; i < 5; i++) {
+                CompletableFuture<TopologyInformation> topFut = igniteHelper.topologyInformationAsync();
+                CompletableFuture<Collection<SystemMetricsInformation>> sysMetricsFut =
+                    igniteHelper.systemMetricsAsync();
+
+                assertEquals(SERVERS_COUNT, topFut.join().onlineBaselineNodes().size() +
+                    topFut.join().nonBaselineNodes().size());
+                assertEquals(SERVERS_COUNT, sysMetricsFut.join().size());
+
+                for (SystemMetricsInformation info : sysMetricsFut.join())
+                    assertFalse("Node missed a deadline: " + info.consistentId(), info.stale());
+            }
+        }
+    }
+
+    /**
+     * Requests to a hung node miss their deadlines, while the server still counts cancelled compute tasks against
+     * the limit of active compute tasks per connection. Rejected tasks are reported like missed deadlines, so
+     * collections do not fail.
+     */
+    @Test
+    public void testHungNode_withSingleComputeTaskLimit() {
+        ClusterNode hung = grid(SERVERS_COUNT - 1).localNode();
+
+        for (int i = 0; i < SERVERS_COUNT; i++) {
+            TestRecordingCommunicationSpi.spi(grid(i)).blockMessages((node, msg) ->
+                msg instanceof GridJobExecuteRequest && node.id().equals(hung.id()));
+        }
+
+        // Thin client is connected to a node, which is not hung.
+        try (IgniteHelper igniteHelper = new IgniteHelper(CollectionEngine.DEFAULT_PARALLELISM, 500, ADDRESSES[0])) {
+            for (int i = 0; i < 5; i++) {
+                Collection<SystemMetricsInformation> sysMetrics = igniteHelper.systemMetricsAsync().join();
+
+                assertEquals(SERVERS_COUNT, sysMetrics.size());
+
+                for (SystemMetricsInformation info : sysMetrics) {
+                    if (info.consistentId().equals(hung.consistentId()))
+                        assertTrue("Hung node should be stale", info.stale());
+                }
+            }
+        }
+        finally {
+            for (int i = 0; i < SERVERS_COUNT; i++)
+                TestRecordingCommunicationSpi.spi(grid(i)).stopBlock();
+        }
+    }
+
     /**
      *
      */
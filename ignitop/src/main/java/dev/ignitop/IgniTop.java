@@ -16,20 +16,40 @@
 
 package dev.ignitop;
 
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InterruptedIOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import dev.ignitop.batch.BatchPrinter;
 import dev.ignitop.ignite.IgniteHelper;
+import dev.ignitop.ignite.SqlIgniteHelper;
+import dev.ignitop.ignite.history.MetricHistory;
+import dev.ignitop.session.RecordingIgniteHelper;
+import dev.ignitop.session.ReplayIgniteHelper;
+import dev.ignitop.session.SessionPlayer;
+import dev.ignitop.session.SessionWriter;
+import dev.ignitop.ui.AdaptiveScheduler;
+import dev.ignitop.ui.EventLoop;
+import dev.ignitop.ui.Prefetcher;
 import dev.ignitop.ui.TerminalProvider;
 import dev.ignitop.ui.TerminalUi;
 import dev.ignitop.ui.keyhandler.KeyPressHandler;
+import dev.ignitop.ui.updater.ScreenUpdater;
 import dev.ignitop.ui.updater.impl.SystemMetricsUpdater;
 import dev.ignitop.ui.updater.impl.TopologyInformationUpdater;
 
@@ -40,27 +60,57 @@ public class IgniTop {
     /** Default update interval in seconds. */
     public static final int DEFAULT_UPDATE_INTERVAL = 5;
 
+    /** Render interval in milliseconds, i.e. how often the latest snapshot and its age are redrawn. */
+    public static final int RENDER_INTERVAL = 1000;
+
+    /** Maximum age of a cached snapshot, which is shown on screen switch, in update intervals. */
+    public static final int MAX_SNAPSHOT_AGE_INTERVALS = 3;
+
+    /** Replay speeds, which are selected by keys {@code 1}, {@code 2} and so on. */
+    public static final int[] REPLAY_SPEEDS = {1, 10, 100};
+
+    /** Replay skip by {@code ,} and {@code .} keys in milliseconds. */
+    public static final long REPLAY_SKIP = TimeUnit.MINUTES.toMillis(1);
+
+    /** Replay skip by {@code <} and {@code >} keys in milliseconds. */
+    public static final long REPLAY_LONG_SKIP = TimeUnit.MINUTES.toMillis(10);
+
     /** Default addresses. */
     public static final String[] DEFAULT_ADDRESSES = {"127.0.0.1:10800"};
 
     /** Terminal provider. */
     private final TerminalProvider termProv;
 
+    /** Event loop, which handles key presses, render ticks, collection completions and resizes. */
+    private final EventLoop eventLoop;
+
     /** Terminal UI. */
     private final TerminalUi terminalUi;
 
     /** Ignite helper. */
     private IgniteHelper igniteHelper;
 
-    /** Screen updater executor. */
+    /** Executor of render ticks. */
     private final ScheduledExecutorService screenUpdaterExec;
 
-    /** Key press handler executor. */
+    /** Collector executor. */
+    private final ScheduledExecutorService collectorExec;
+
+    /** Executor of blocking key reads. */
     private final ExecutorService keyPressExec;
 
+    /** Low-priority executor of background prefetch. */
+    private final ScheduledExecutorService prefetchExec;
+
     /** Screen updater future. */
     private ScheduledFuture<?> screenUpdaterFut;
 
+    /** Collection scheduler. */
+    private AdaptiveScheduler collectionScheduler;
+
+    /** Prefetcher of inactive screens. */
+    private Prefetcher prefetcher;
+
     /** Key press future. */
     private Future<?> keyPressFut;
 
@@ -68,10 +118,18 @@ public class IgniTop {
      * @param args Command line arguments.
      */
     public static void main(String[] args) {
+        IgniTopArguments arguments = processArguments(args);
+
+        if (arguments.batchFormat() != null) {
+            batch(arguments);
+
+            return;
+        }
+
         IgniTop igniTop = new IgniTop();
 
         try {
-            igniTop.start(args);
+            igniTop.start(arguments);
         }
         catch (CancellationException ignore) {
             // No-op.
@@ -89,7 +147,9 @@ public class IgniTop {
     public IgniTop() {
         termProv = new TerminalProvider();
 
-        terminalUi = new TerminalUi(termProv);
+        eventLoop = new EventLoop();
+
+        terminalUi = new TerminalUi(termProv, eventLoop);
 
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             shutdown();
@@ -99,36 +159,167 @@ public class IgniTop {
 
         screenUpdaterExec = Executors.newScheduledThreadPool(1);
 
+        collectorExec = Executors.newSingleThreadScheduledExecutor();
+
         keyPressExec = Executors.newFixedThreadPool(1);
+
+        prefetchExec = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ignitop-prefetch");
+
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+
+            return t;
+        });
     }
 
     /**
-     * @param args Command line arguments.
+     * Stream snapshots to stdout without a terminal UI until the process is terminated or a collection fails.
+     *
+     * @param arguments Arguments.
      */
-    private void start(String[] args) throws Exception {
-        String[] addrs = processArguments(args);
+    private static void batch(IgniTopArguments arguments) {
+        IgniteHelper igniteHelper;
 
-        igniteHelper = new IgniteHelper(addrs);
+        try {
+            igniteHelper = igniteHelper(arguments);
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e);
+        }
 
-        terminalUi.updater(new TopologyInformationUpdater(igniteHelper));
+        ScheduledExecutorService exec = Executors.newSingleThreadScheduledExecutor();
 
-        screenUpdaterFut = screenUpdaterExec.scheduleAtFixedRate(terminalUi::refresh, 0, DEFAULT_UPDATE_INTERVAL,
-            TimeUnit.SECONDS);
+        // Output is flushed once per snapshot.
+        PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)), false,
+            StandardCharsets.UTF_8);
 
-        KeyPressHandler keyPressHnd = new KeyPressHandler();
+        BatchPrinter printer = new BatchPrinter(igniteHelper, arguments.batchFormat().writer(out),
+            arguments.rates());
+
+        AdaptiveScheduler scheduler = new AdaptiveScheduler(exec, printer::collect,
+            TimeUnit.SECONDS.toMillis(arguments.interval()));
+
+        AtomicBoolean stopped = new AtomicBoolean();
+
+        // Shutdown is run by both the shutdown hook and the main thread, whichever comes first.
+        Runnable shutdown = () -> {
+            if (!stopped.compareAndSet(false, true))
+                return;
 
-        keyPressHnd.addKeyHandler('t', () -> terminalUi.updater(new TopologyInformationUpdater(igniteHelper)));
-        keyPressHnd.addKeyHandler('s', () -> terminalUi.updater(new SystemMetricsUpdater(igniteHelper)));
+            scheduler.stop();
+
+            exec.shutdownNow();
+
+            igniteHelper.close();
+        };
+
+        Runtime.getRuntime().addShutdownHook(new Thread(shutdown));
+
+        scheduler.trigger();
+
+        try {
+            scheduler.termination().get();
+        }
+        catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new RuntimeException(e);
+        }
+        finally {
+            shutdown.run();
+        }
+    }
+
+    /**
+     * @param arguments Arguments.
+     * @return Ignite helper, which collects data from a cluster or from a replayed session.
+     */
+    private static IgniteHelper igniteHelper(IgniTopArguments arguments) throws IOException {
+        IgniteHelper igniteHelper;
+
+        if (arguments.replayFile() != null)
+            igniteHelper = new ReplayIgniteHelper(new SessionPlayer(Path.of(arguments.replayFile())));
+        else if (arguments.sql()) {
+            igniteHelper = new SqlIgniteHelper(arguments.parallelism(), arguments.requestTimeout(),
+                arguments.addresses());
+        }
+        else
+            igniteHelper = new IgniteHelper(arguments.parallelism(), arguments.requestTimeout(), arguments.addresses());
+
+        if (arguments.recordFile() != null)
+            igniteHelper = new RecordingIgniteHelper(igniteHelper, new SessionWriter(Path.of(arguments.recordFile())));
+
+        return igniteHelper;
+    }
 
+    /**
+     * @param arguments Arguments.
+     */
+    private void start(IgniTopArguments arguments) throws Exception {
+        igniteHelper = igniteHelper(arguments);
+
+        SessionPlayer player = igniteHelper instanceof ReplayIgniteHelper ?
+            ((ReplayIgniteHelper)igniteHelper).player() : null;
+
+        MetricHistory history = new MetricHistory(arguments.historyBudget() * 1024L * 1024L,
+            MetricHistory.DEFAULT_SAMPLES);
+
+        // Screens are reused, so that their snapshots are cached between switches.
+        ScreenUpdater topologyScreen = new TopologyInformationUpdater(igniteHelper, history);
+        ScreenUpdater sysMetricsScreen = new SystemMetricsUpdater(igniteHelper, history,
+            arguments.trends() ? SystemMetricsUpdater.DEFAULT_TREND_LENGTH : 0);
+
+        // Main thread renders the initial screen before it becomes the event loop thread.
+        terminalUi.updater(topologyScreen);
+
+        // Collection never overlaps, rendering shows the latest snapshot without waiting for the cluster.
+        collectionScheduler = new AdaptiveScheduler(collectorExec, terminalUi::collect,
+            TimeUnit.SECONDS.toMillis(arguments.interval()));
+
+        terminalUi.maxSnapshotAge(collectionScheduler.interval() * MAX_SNAPSHOT_AGE_INTERVALS);
+
+        collectionScheduler.trigger();
+
+        prefetcher = new Prefetcher(prefetchExec, terminalUi, List.of(topologyScreen, sysMetricsScreen),
+            arguments.prefetchBudget(), collectionScheduler::interval);
+
+        prefetcher.start();
+
+        screenUpdaterFut = screenUpdaterExec.scheduleAtFixedRate(terminalUi::requestRefresh, RENDER_INTERVAL,
+            RENDER_INTERVAL, TimeUnit.MILLISECONDS);
+
+        // Resized screen is redrawn immediately from the latest snapshot, not on the next collection.
+        termProv.onResize(() -> eventLoop.execute(terminalUi::resize));
+
+        KeyPressHandler keyPressHnd = new KeyPressHandler();
+
+        keyPressHnd.addKeyHandler('t', () -> switchScreen(topologyScreen));
+        keyPressHnd.addKeyHandler('s', () -> switchScreen(sysMetricsScreen));
+        keyPressHnd.addKeyHandler('+', () -> changeInterval(collectionScheduler::increaseInterval));
+        keyPressHnd.addKeyHandler('-', () -> changeInterval(collectionScheduler::decreaseInterval));
+        keyPressHnd.addKeyHandler(KeyPressHandler.PAGE_UP, () -> terminalUi.scrollPages(-1));
+        keyPressHnd.addKeyHandler(KeyPressHandler.PAGE_DOWN, () -> terminalUi.scrollPages(1));
+        keyPressHnd.addKeyHandler(KeyPressHandler.HOME, () -> terminalUi.scrollTo(0));
+        keyPressHnd.addKeyHandler(KeyPressHandler.END, () -> terminalUi.scrollTo(Integer.MAX_VALUE));
+
+        if (player != null)
+            addReplayKeyHandlers(keyPressHnd, player);
+        else if (igniteHelper instanceof RecordingIgniteHelper)
+            terminalUi.status(((RecordingIgniteHelper)igniteHelper)::status);
+
+        // Keys are read by a blocking read and are handled by the event loop.
         keyPressFut = keyPressExec.submit(() -> {
             try {
-                while (!Thread.interrupted()) {
-                    int ch = termProv.reader().read();
+                int ch;
 
-                    if (ch == -1)
-                        return;
-                    else if (ch != -2) // Read timeout.
-                        keyPressHnd.handle((char)ch);
+                while ((ch = termProv.reader().read()) >= 0) {
+                    char key = (char)ch;
+
+                    eventLoop.execute(() -> keyPressHnd.handle(key));
                 }
             }
             catch (IOException e) {
@@ -138,18 +329,86 @@ public class IgniTop {
 
                 e.printStackTrace();
 
-                screenUpdaterFut.cancel(true);
+                collectionScheduler.stop();
             }
         });
 
-        screenUpdaterFut.get();
+        collectionScheduler.termination().whenComplete((res, err) -> eventLoop.stop());
+
+        eventLoop.run();
+
+        collectionScheduler.termination().get();
+        screenUpdaterFut.cancel(true);
         keyPressFut.cancel(true);
     }
 
+    /**
+     * Add handlers of playback keys and show playback status.
+     *
+     * @param keyPressHnd Key press handler.
+     * @param player Session player.
+     */
+    private void addReplayKeyHandlers(KeyPressHandler keyPressHnd, SessionPlayer player) {
+        terminalUi.status(player::status);
+
+        keyPressHnd.addKeyHandler(' ', () -> replay(player::togglePause));
+        keyPressHnd.addKeyHandler(',', () -> replay(() -> player.skip(-REPLAY_SKIP)));
+        keyPressHnd.addKeyHandler('.', () -> replay(() -> player.skip(REPLAY_SKIP)));
+        keyPressHnd.addKeyHandler('<', () -> replay(() -> player.skip(-REPLAY_LONG_SKIP)));
+        keyPressHnd.addKeyHandler('>', () -> replay(() -> player.skip(REPLAY_LONG_SKIP)));
+
+        for (int i = 0; i < REPLAY_SPEEDS.length; i++) {
+            int speed = REPLAY_SPEEDS[i];
+
+            keyPressHnd.addKeyHandler((char)('1' + i), () -> replay(() -> player.speed(speed)));
+        }
+    }
+
+    /**
+     * Change playback and collect the current screen out of schedule, so that the change is shown immediately.
+     *
+     * @param change Playback change.
+     */
+    private void replay(Runnable change) {
+        change.run();
+
+        terminalUi.requestRefresh();
+
+        collectionScheduler.trigger();
+    }
+
+    /**
+     * Change update interval, freshness of cached snapshots follows the interval.
+     *
+     * @param change Interval change.
+     */
+    private void changeInterval(Runnable change) {
+        change.run();
+
+        terminalUi.maxSnapshotAge(collectionScheduler.interval() * MAX_SNAPSHOT_AGE_INTERVALS);
+    }
+
+    /**
+     * Switch current screen and collect it out of schedule.
+     *
+     * @param updater Screen updater.
+     */
+    private void switchScreen(ScreenUpdater updater) {
+        terminalUi.updater(updater);
+
+        collectionScheduler.trigger();
+    }
+
     /**
      *
      */
     public void shutdown() {
+        if (collectionScheduler != null)
+            collectionScheduler.stop();
+
+        if (prefetcher != null)
+            prefetcher.stop();
+
         if (screenUpdaterFut != null)
             screenUpdaterFut.cancel(true);
 
@@ -162,24 +421,25 @@ public class IgniTop {
         if (termProv != null)
             termProv.close();
 
+        collectorExec.shutdown();
         screenUpdaterExec.shutdown();
         keyPressExec.shutdown();
+        prefetchExec.shutdownNow();
     }
 
     /**
-     * Get addresses from arguments.
+     * Parse arguments.
      *
      * @param args Args.
      */
-    private String[] processArguments(String[] args) {
-        if (args.length == 0) {
+    private static IgniTopArguments processArguments(String[] args) {
+        IgniTopArguments arguments = IgniTopArguments.parse(args);
+
+        if (arguments.defaultAddresses()) {
             System.err.println("No addresses was specified. Using default addresses: " +
                 Arrays.toString(DEFAULT_ADDRESSES));
         }
 
-        return Arrays.stream(args)
-            .map(s -> s.split(","))
-            .findFirst()
-            .orElse(DEFAULT_ADDRESSES);
+        return arguments;
     }
 }
@@ -0,0 +1,338 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop;
+
+import java.util.Arrays;
+import java.util.List;
+import dev.ignitop.batch.BatchFormat;
+import dev.ignitop.ignite.CollectionEngine;
+import dev.ignitop.ignite.history.MetricHistory;
+import dev.ignitop.ui.Prefetcher;
+import org.jetbrains.annotations.Nullable;
+
+import static dev.ignitop.IgniTop.DEFAULT_ADDRESSES;
+import static dev.ignitop.IgniTop.DEFAULT_UPDATE_INTERVAL;
+
+/**
+ * Command line arguments. The first non-option argument is a comma-separated list of addresses.
+ */
+public class IgniTopArguments {
+    /** Option, which enables SQL collection backend. */
+    public static final String SQL_OPTION = "--sql";
+
+    /** Option of update interval in seconds. */
+    public static final String INTERVAL_OPTION = "--interval";
+
+    /** Option of cluster load budget of background prefetch of inactive screens in percents. */
+    public static final String PREFETCH_BUDGET_OPTION = "--prefetch-budget";
+
+    /** Option of memory budget of metric history in megabytes. */
+    public static final String HISTORY_BUDGET_OPTION = "--history-budget";
+
+    /** Option, which enables trend columns of system metrics. */
+    public static final String TRENDS_OPTION = "--trends";
+
+    /** Option of a file, which collected snapshots are recorded to. */
+    public static final String RECORD_OPTION = "--record";
+
+    /** Option of maximum amount of concurrent requests to the cluster. */
+    public static final String PARALLELISM_OPTION = "--parallelism";
+
+    /** Option of request timeout in milliseconds. */
+    public static final String REQUEST_TIMEOUT_OPTION = "--request-timeout";
+
+    /** Option of a recorded session file, which is replayed instead of collection from a cluster. */
+    public static final String REPLAY_OPTION = "--replay";
+
+    /** Option of an output format of a batch mode, which streams snapshots to stdout instead of a terminal UI. */
+    public static final String BATCH_OPTION = "--batch";
+
+    /** Option of comma-separated full names of counter metrics, rates of which are streamed in a batch mode. */
+    public static final String RATES_OPTION = "--rates";
+
+    /** Addresses. */
+    private String[] addresses;
+
+    /** Flag of default addresses, which are used if no addresses were specified. */
+    private boolean defaultAddresses;
+
+    /** SQL collection backend flag. */
+    private boolean sql;
+
+    /** Update interval in seconds. */
+    private int interval = DEFAULT_UPDATE_INTERVAL;
+
+    /** Prefetch load budget in percents. */
+    private int prefetchBudget = Prefetcher.DEFAULT_BUDGET;
+
+    /** Metric history memory budget in megabytes. */
+    private int historyBudget = MetricHistory.DEFAULT_BUDGET_MB;
+
+    /** Trends flag. */
+    private boolean trends;
+
+    /** Session recording file. */
+    private String recordFile;
+
+    /** Maximum amount of concurrent requests to the cluster. */
+    private int parallelism = CollectionEngine.DEFAULT_PARALLELISM;
+
+    /** Request timeout in milliseconds. */
+    private long reqTimeout = CollectionEngine.DEFAULT_REQUEST_TIMEOUT;
+
+    /** Replayed session file. */
+    private String replayFile;
+
+    /** Output format of a batch mode. */
+    private BatchFormat batchFormat;
+
+    /** Full names of counter metrics, rates of which are streamed in a batch mode. */
+    private List<String> rates = List.of();
+
+    /**
+     * @param args Command line arguments.
+     */
+    public static IgniTopArguments parse(String... args) {
+        IgniTopArguments res = new IgniTopArguments();
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+
+            if (SQL_OPTION.equals(arg))
+                res.sql = true;
+            else if (INTERVAL_OPTION.equals(arg))
+                res.interval = positiveInt(arg, ++i < args.length ? args[i] : null);
+            else if (PREFETCH_BUDGET_OPTION.equals(arg))
+                res.prefetchBudget = percent(arg, ++i < args.length ? args[i] : null);
+            else if (HISTORY_BUDGET_OPTION.equals(arg))
+                res.historyBudget = positiveInt(arg, ++i < args.length ? args[i] : null);
+            else if (TRENDS_OPTION.equals(arg))
+                res.trends = true;
+            else if (RECORD_OPTION.equals(arg))
+                res.recordFile = file(arg, ++i < args.length ? args[i] : null);
+            else if (PARALLELISM_OPTION.equals(arg))
+                res.parallelism = positiveInt(arg, ++i < args.length ? args[i] : null);
+            else if (REQUEST_TIMEOUT_OPTION.equals(arg))
+                res.reqTimeout = nonNegativeLong(arg, ++i < args.length ? args[i] : null);
+            else if (REPLAY_OPTION.equals(arg))
+                res.replayFile = file(arg, ++i < args.length ? args[i] : null);
+            else if (BATCH_OPTION.equals(arg))
+                res.batchFormat = batchFormat(arg, ++i < args.length ? args[i] : null);
+            else if (RATES_OPTION.equals(arg))
+                res.rates = metricNames(arg, ++i < args.length ? args[i] : null);
+            else if (arg.startsWith("--"))
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            else if (res.addresses == null)
+                res.addresses = arg.split(",");
+        }
+
+        if (res.addresses == null) {
+            res.addresses = DEFAULT_ADDRESSES;
+            res.defaultAddresses = true;
+        }
+
+        if (res.recordFile != null && res.replayFile != null)
+            throw new IllegalArgumentException(RECORD_OPTION + " and " + REPLAY_OPTION + " can not be used together");
+
+        return res;
+    }
+
+    /**
+     * @param opt Option.
+     * @param val Value.
+     */
+    private static int positiveInt(String opt, String val) {
+        try {
+            int res = Integer.parseInt(val);
+
+            if (res > 0)
+                return res;
+        }
+        catch (NumberFormatException ignored) {
+            // No-op.
+        }
+
+        throw new IllegalArgumentException("Positive integer value is expected for option " + opt + ": " + val);
+    }
+
+    /**
+     * @param opt Option.
+     * @param val Value.
+     */
+    private static long nonNegativeLong(String opt, String val) {
+        try {
+            long res = Long.parseLong(val);
+
+            if (res >= 0)
+                return res;
+        }
+        catch (NumberFormatException ignored) {
+            // No-op.
+        }
+
+        throw new IllegalArgumentException("Non-negative integer value is expected for option " + opt + ": " + val);
+    }
+
+    /**
+     * @param opt Option.
+     * @param val Value.
+     */
+    private static int percent(String opt, String val) {
+        try {
+            int res = Integer.parseInt(val);
+
+            if (res >= 0 && res <= 100)
+                return res;
+        }
+        catch (NumberFormatException ignored) {
+            // No-op.
+        }
+
+        throw new IllegalArgumentException("Integer value in range [0, 100] is expected for option " + opt + ": " +
+            val);
+    }
+
+    /**
+     * @param opt Option.
+     * @param val Value.
+     */
+    private static String file(String opt, String val) {
+        if (val == null || val.isEmpty() || val.startsWith("--"))
+            throw new IllegalArgumentException("File is expected for option " + opt + ": " + val);
+
+        return val;
+    }
+
+    /**
+     * @param opt Option.
+     * @param val Value.
+     */
+    private static BatchFormat batchFormat(String opt, String val) {
+        for (BatchFormat fmt : BatchFormat.values()) {
+            if (fmt.name().equalsIgnoreCase(val))
+                return fmt;
+        }
+
+        throw new IllegalArgumentException("One of " + Arrays.toString(BatchFormat.values()) +
+            " is expected for option " + opt + ": " + val);
+    }
+
+    /**
+     * @param opt Option.
+     * @param val Value.
+     */
+    private static List<String> metricNames(String opt, String val) {
+        if (val == null || val.startsWith("--") || Arrays.stream(val.split(",", -1)).anyMatch(String::isEmpty))
+            throw new IllegalArgumentException("Comma-separated metric names are expected for option " + opt + ": " +
+                val);
+
+        return List.of(val.split(","));
+    }
+
+    /**
+     * @return Addresses.
+     */
+    public String[] addresses() {
+        return addresses.clone();
+    }
+
+    /**
+     * @return {@code True} if no addresses were specified, so that default addresses are used.
+     */
+    public boolean defaultAddresses() {
+        return defaultAddresses;
+    }
+
+    /**
+     * @return {@code True} if SQL collection backend should be used.
+     */
+    public boolean sql() {
+        return sql;
+    }
+
+    /**
+     * @return Update interval in seconds.
+     */
+    public int interval() {
+        return interval;
+    }
+
+    /**
+     * @return Prefetch load budget in percents, {@code 0} means that prefetch is disabled.
+     */
+    public int prefetchBudget() {
+        return prefetchBudget;
+    }
+
+    /**
+     * @return Metric history memory budget in megabytes.
+     */
+    public int historyBudget() {
+        return historyBudget;
+    }
+
+    /**
+     * @return {@code True} if trend columns of system metrics should be shown.
+     */
+    public boolean trends() {
+        return trends;
+    }
+
+    /**
+     * @return File, which collected snapshots are recorded to, or {@code null} if recording is disabled.
+     */
+    @Nullable public String recordFile() {
+        return recordFile;
+    }
+
+    /**
+     * @return Maximum amount of concurrent requests to the cluster.
+     */
+    public int parallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @return Request timeout in milliseconds, {@code 0} means no timeout.
+     */
+    public long requestTimeout() {
+        return reqTimeout;
+    }
+
+    /**
+     * @return Recorded session file, which is replayed instead of collection from a cluster, or {@code null} if
+     * replay is disabled.
+     */
+    @Nullable public String replayFile() {
+        return replayFile;
+    }
+
+    /**
+     * @return Output format of a batch mode or {@code null} if terminal UI should be used.
+     */
+    @Nullable public BatchFormat batchFormat() {
+        return batchFormat;
+    }
+
+    /**
+     * @return Full names of counter metrics, rates of which are streamed in a batch mode, empty if rates are not
+     * collected.
+     */
+    public List<String> rates() {
+        return rates;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.batch;
+
+import java.io.PrintStream;
+import dev.ignitop.batch.impl.CsvRecordWriter;
+import dev.ignitop.batch.impl.NdjsonRecordWriter;
+
+/**
+ * Output format of a batch mode.
+ */
+public enum BatchFormat {
+    /** JSON object per record and line. */
+    NDJSON,
+
+    /** CSV line per field of a record: timestamp, type, consistent ID, field and value. */
+    CSV;
+
+    /**
+     * @param out Output stream.
+     * @return Record writer of the format.
+     */
+    public RecordWriter writer(PrintStream out) {
+        return this == NDJSON ? new NdjsonRecordWriter(out) : new CsvRecordWriter(out);
+    }
+}
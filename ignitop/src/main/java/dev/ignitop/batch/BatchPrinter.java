@@ -0,0 +1,242 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.batch;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import dev.ignitop.ignite.CollectionEngine;
+import dev.ignitop.ignite.IgniteHelper;
+import dev.ignitop.ignite.metric.NodeMetrics;
+import dev.ignitop.ignite.system.SystemMetricsInformation;
+import dev.ignitop.ignite.topology.OfflineNodeInfo;
+import dev.ignitop.ignite.topology.OnlineNodeInfo;
+import dev.ignitop.ignite.topology.TopologyInformation;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Collects topology and system metrics and streams them as records, like {@code top -b}: a {@link #CLUSTER} record
+ * and a {@link #NODE} record per node of a topology, a {@link #SYSTEM} record per node with system metrics and, if
+ * counters are requested, a {@link #RATES} record per server node with per-second rates of counters.
+ * Records are written directly from collected data, so that nothing except of the latest collection is kept in heap.
+ */
+public class BatchPrinter {
+    /** Type of a record of cluster-wide topology information. */
+    public static final String CLUSTER = "cluster";
+
+    /** Type of a record of a node of a topology. */
+    public static final String NODE = "node";
+
+    /** Type of a record of system metrics of a node. */
+    public static final String SYSTEM = "system";
+
+    /** Type of a record of per-second rates of counters of a node. */
+    public static final String RATES = "rates";
+
+    /** Prefix of a field of a data region usage. */
+    public static final String DATA_REGION_PREFIX = "dataRegionPercent:";
+
+    /** Ignite helper. */
+    private final IgniteHelper igniteHelper;
+
+    /** Record writer. */
+    private final RecordWriter writer;
+
+    /** Full names of counter metrics, rates of which are collected. */
+    private final Collection<String> counters;
+
+    /**
+     * @param igniteHelper Ignite helper.
+     * @param writer Record writer.
+     */
+    public BatchPrinter(IgniteHelper igniteHelper, RecordWriter writer) {
+        this(igniteHelper, writer, List.of());
+    }
+
+    /**
+     * @param igniteHelper Ignite helper.
+     * @param writer Record writer.
+     * @param counters Full names of counter metrics, rates of which are collected, empty if rates are not collected.
+     */
+    public BatchPrinter(IgniteHelper igniteHelper, RecordWriter writer, Collection<String> counters) {
+        this.igniteHelper = igniteHelper;
+        this.writer = writer;
+        this.counters = List.copyOf(counters);
+    }
+
+    /**
+     * Collect and write a snapshot. Topology, system metrics and rates of counters are collected concurrently, data,
+     * which missed a deadline, is skipped till the next collection.
+     */
+    public void collect() {
+        CompletableFuture<TopologyInformation> topFut = igniteHelper.topologyInformationAsync();
+        CompletableFuture<Collection<SystemMetricsInformation>> sysMetricsFut = igniteHelper.systemMetricsAsync();
+        CompletableFuture<Collection<NodeMetrics>> ratesFut = counters.isEmpty() ?
+            CompletableFuture.completedFuture(List.of()) : igniteHelper.counterRatesAsync(counters);
+
+        TopologyInformation topInfo;
+
+        try {
+            topInfo = joinInTime(topFut);
+        }
+        catch (RuntimeException e) {
+            // Other collections are not awaited after a failure, so their requests are cancelled.
+            sysMetricsFut.cancel(true);
+
+            ratesFut.cancel(true);
+
+            throw e;
+        }
+
+        if (topInfo != null)
+            writeTopology(topInfo, System.currentTimeMillis());
+
+        Collection<SystemMetricsInformation> sysMetrics;
+
+        try {
+            sysMetrics = joinInTime(sysMetricsFut);
+        }
+        catch (RuntimeException e) {
+            ratesFut.cancel(true);
+
+            throw e;
+        }
+
+        if (sysMetrics != null)
+            writeSystemMetrics(sysMetrics, System.currentTimeMillis());
+
+        Collection<NodeMetrics> rates = joinInTime(ratesFut);
+
+        if (rates != null)
+            writeRates(rates, System.currentTimeMillis());
+
+        writer.flush();
+    }
+
+    /**
+     * @param fut Future of a collection.
+     * @return Collected data or {@code null} if collection missed its deadline.
+     */
+    @Nullable private static <T> T joinInTime(CompletableFuture<T> fut) {
+        try {
+            return fut.join();
+        }
+        catch (CompletionException e) {
+            if (!CollectionEngine.timedOut(e))
+                throw e;
+
+            return null;
+        }
+    }
+
+    /**
+     * @param topInfo Topology information.
+     * @param ts Timestamp of collection.
+     */
+    private void writeTopology(TopologyInformation topInfo, long ts) {
+        OnlineNodeInfo crd = topInfo.coordinator();
+
+        writer.begin(CLUSTER, ts, null);
+        writer.field("topologyVersion", topInfo.topologyVersion());
+        writer.field("state", topInfo.clusterState());
+        writer.field("rebalanced", topInfo.rebalanced());
+        writer.field("coordinator", crd.consistentId());
+        writer.field("igniteVersion", crd.igniteVersion());
+        writer.field("onlineBaselineNodes", topInfo.onlineBaselineNodes().size());
+        writer.field("offlineBaselineNodes", topInfo.offlineBaselineNodes().size());
+        writer.field("nonBaselineNodes", topInfo.nonBaselineNodes().size());
+        writer.field("clientNodes", topInfo.clientNodes().size());
+        writer.end();
+
+        writeNodes(topInfo.onlineBaselineNodes(), "baseline", crd, ts);
+
+        for (OfflineNodeInfo node : topInfo.offlineBaselineNodes()) {
+            writer.begin(NODE, ts, node.consistentId());
+            writer.field("group", "offline");
+            writer.field("hostNames", node.hostNames());
+            writer.field("addresses", node.addresses());
+            writer.end();
+        }
+
+        writeNodes(topInfo.nonBaselineNodes(), "nonBaseline", crd, ts);
+        writeNodes(topInfo.clientNodes(), "client", crd, ts);
+    }
+
+    /**
+     * @param nodes Online nodes.
+     * @param grp Group of nodes.
+     * @param crd Coordinator.
+     * @param ts Timestamp of collection.
+     */
+    private void writeNodes(Collection<OnlineNodeInfo> nodes, String grp, OnlineNodeInfo crd, long ts) {
+        for (OnlineNodeInfo node : nodes) {
+            writer.begin(NODE, ts, node.consistentId());
+            writer.field("group", grp);
+            writer.field("coordinator", node.nodeId().equals(crd.nodeId()));
+            writer.field("nodeId", node.nodeId());
+            writer.field("order", node.order());
+            writer.field("hostNames", node.hostNames());
+            writer.field("addresses", node.addresses());
+            writer.field("upTime", node.upTime());
+            writer.end();
+        }
+    }
+
+    /**
+     * @param sysMetrics System metrics of nodes.
+     * @param ts Timestamp of collection.
+     */
+    private void writeSystemMetrics(Collection<SystemMetricsInformation> sysMetrics, long ts) {
+        for (SystemMetricsInformation info : sysMetrics) {
+            writer.begin(SYSTEM, ts, info.consistentId());
+            writer.field("hostNames", info.hostNames());
+            writer.field("stale", info.stale());
+            writer.field("cpuPercent", info.cpuLoadPercent());
+            writer.field("loadAverage", info.loadAverage());
+            writer.field("gcCpuPercent", info.gcCpuLoadPercent());
+            writer.field("heapPercent", info.heapUsagePercent());
+
+            for (Map.Entry<String, Double> e : info.dataRegionUsagesPercents().entrySet())
+                writer.field(DATA_REGION_PREFIX + e.getKey(), e.getValue().doubleValue());
+
+            writer.field("dataStorageGb", info.dataStorageSizeGigabytes());
+            writer.end();
+        }
+    }
+
+    /**
+     * @param rates Rates of counters of nodes.
+     * @param ts Timestamp of collection.
+     */
+    private void writeRates(Collection<NodeMetrics> rates, long ts) {
+        for (NodeMetrics nodeRates : rates) {
+            // Rates are not known till the second sample of a node.
+            if (nodeRates.values().isEmpty())
+                continue;
+
+            writer.begin(RATES, ts, null);
+            writer.field("nodeId", nodeRates.nodeId());
+
+            for (String counter : counters)
+                writer.field(counter, nodeRates.doubleValue(counter, Double.NaN));
+
+            writer.end();
+        }
+    }
+}
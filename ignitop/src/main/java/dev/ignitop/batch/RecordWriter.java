@@ -0,0 +1,75 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.batch;
+
+import java.util.Collection;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Streaming writer of flat records, e.g. of a node in a snapshot. Record is written field by field as soon as values
+ * are known, nothing is accumulated between records.
+ */
+public interface RecordWriter {
+    /**
+     * Start a record.
+     *
+     * @param type Type of a record.
+     * @param ts Timestamp of collection in milliseconds.
+     * @param consId Consistent ID of a node or {@code null} if record is cluster-wide.
+     */
+    void begin(String type, long ts, @Nullable Object consId);
+
+    /**
+     * @param name Field name.
+     * @param val Value, which is written as a string, or {@code null}.
+     */
+    void field(String name, @Nullable Object val);
+
+    /**
+     * @param name Field name.
+     * @param val Value.
+     */
+    void field(String name, long val);
+
+    /**
+     * @param name Field name.
+     * @param val Value, {@link Double#NaN} means that value is unknown.
+     */
+    void field(String name, double val);
+
+    /**
+     * @param name Field name.
+     * @param val Value.
+     */
+    void field(String name, boolean val);
+
+    /**
+     * @param name Field name.
+     * @param vals Values or {@code null}.
+     */
+    void field(String name, @Nullable Collection<String> vals);
+
+    /**
+     * Finish a record.
+     */
+    void end();
+
+    /**
+     * Flush written records, e.g. after a snapshot.
+     */
+    void flush();
+}
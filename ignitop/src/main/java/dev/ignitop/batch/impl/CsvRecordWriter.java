@@ -0,0 +1,168 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.batch.impl;
+
+import java.io.PrintStream;
+import java.util.Collection;
+import dev.ignitop.batch.RecordWriter;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Writes a record in a long form: a CSV line per field with a timestamp, a type and a consistent ID of a record. Thus
+ * records of all types and nodes with any data regions share the same {@link #HEADER}. Unknown values are empty.
+ */
+public class CsvRecordWriter implements RecordWriter {
+    /** Header, which is written before the first record. */
+    public static final String HEADER = "timestamp,type,consistentId,field,value";
+
+    /** Output stream. */
+    private final PrintStream out;
+
+    /** Flag of a written header. */
+    private boolean hdrWritten;
+
+    /** Timestamp of the current record. */
+    private long ts;
+
+    /** Type of the current record. */
+    private String type;
+
+    /** Consistent ID of the current record. */
+    @Nullable private String consId;
+
+    /**
+     * @param out Output stream.
+     */
+    public CsvRecordWriter(PrintStream out) {
+        this.out = out;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void begin(String type, long ts, @Nullable Object consId) {
+        if (!hdrWritten) {
+            out.println(HEADER);
+
+            hdrWritten = true;
+        }
+
+        this.ts = ts;
+        this.type = type;
+        this.consId = consId == null ? null : String.valueOf(consId);
+    }
+
+    /** {@inheritDoc} */
+    @Override public void field(String name, @Nullable Object val) {
+        prefix(name);
+
+        if (val != null)
+            value(String.valueOf(val));
+
+        out.println();
+    }
+
+    /** {@inheritDoc} */
+    @Override public void field(String name, long val) {
+        prefix(name);
+
+        out.println(val);
+    }
+
+    /** {@inheritDoc} */
+    @Override public void field(String name, double val) {
+        prefix(name);
+
+        if (Double.isFinite(val))
+            out.print(val);
+
+        out.println();
+    }
+
+    /** {@inheritDoc} */
+    @Override public void field(String name, boolean val) {
+        prefix(name);
+
+        out.println(val);
+    }
+
+    /** {@inheritDoc} */
+    @Override public void field(String name, @Nullable Collection<String> vals) {
+        field(name, vals == null ? null : String.join(" ", vals));
+    }
+
+    /** {@inheritDoc} */
+    @Override public void end() {
+        // No-op.
+    }
+
+    /** {@inheritDoc} */
+    @Override public void flush() {
+        out.flush();
+    }
+
+    /**
+     * Write columns of a field line, which precede a value.
+     *
+     * @param name Field name.
+     */
+    private void prefix(String name) {
+        out.print(ts);
+        out.print(',');
+        value(type);
+        out.print(',');
+
+        if (consId != null)
+            value(consId);
+
+        out.print(',');
+        value(name);
+        out.print(',');
+    }
+
+    /**
+     * Write a value, which is quoted if it contains separators or quotes.
+     *
+     * @param val Value.
+     */
+    private void value(String val) {
+        boolean quote = false;
+
+        for (int i = 0; i < val.length() && !quote; i++) {
+            char c = val.charAt(i);
+
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+
+        if (!quote) {
+            out.print(val);
+
+            return;
+        }
+
+        out.print('"');
+
+        for (int i = 0; i < val.length(); i++) {
+            char c = val.charAt(i);
+
+            if (c == '"')
+                out.print('"');
+
+            out.print(c);
+        }
+
+        out.print('"');
+    }
+}
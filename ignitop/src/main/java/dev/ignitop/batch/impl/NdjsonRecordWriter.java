@@ -0,0 +1,157 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.batch.impl;
+
+import java.io.PrintStream;
+import java.util.Collection;
+import dev.ignitop.batch.RecordWriter;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Writes a record as a JSON object on a single line, unknown values are written as {@code null}.
+ */
+public class NdjsonRecordWriter implements RecordWriter {
+    /** Output stream. */
+    private final PrintStream out;
+
+    /**
+     * @param out Output stream.
+     */
+    public NdjsonRecordWriter(PrintStream out) {
+        this.out = out;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void begin(String type, long ts, @Nullable Object consId) {
+        out.print("{\"timestamp\":");
+        out.print(ts);
+
+        field("type", type);
+
+        if (consId != null)
+            field("consistentId", consId);
+    }
+
+    /** {@inheritDoc} */
+    @Override public void field(String name, @Nullable Object val) {
+        name(name);
+
+        if (val == null)
+            out.print("null");
+        else
+            string(String.valueOf(val));
+    }
+
+    /** {@inheritDoc} */
+    @Override public void field(String name, long val) {
+        name(name);
+
+        out.print(val);
+    }
+
+    /** {@inheritDoc} */
+    @Override public void field(String name, double val) {
+        name(name);
+
+        if (Double.isFinite(val))
+            out.print(val);
+        else
+            out.print("null");
+    }
+
+    /** {@inheritDoc} */
+    @Override public void field(String name, boolean val) {
+        name(name);
+
+        out.print(val);
+    }
+
+    /** {@inheritDoc} */
+    @Override public void field(String name, @Nullable Collection<String> vals) {
+        name(name);
+
+        if (vals == null) {
+            out.print("null");
+
+            return;
+        }
+
+        out.print('[');
+
+        boolean first = true;
+
+        for (String val : vals) {
+            if (!first)
+                out.print(',');
+
+            string(val);
+
+            first = false;
+        }
+
+        out.print(']');
+    }
+
+    /** {@inheritDoc} */
+    @Override public void end() {
+        out.print('}');
+        out.println();
+    }
+
+    /** {@inheritDoc} */
+    @Override public void flush() {
+        out.flush();
+    }
+
+    /**
+     * @param name Field name.
+     */
+    private void name(String name) {
+        out.print(',');
+
+        string(name);
+
+        out.print(':');
+    }
+
+    /**
+     * Write an escaped JSON string.
+     *
+     * @param str String.
+     */
+    private void string(String str) {
+        out.print('"');
+
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+
+            if (c == '"' || c == '\\') {
+                out.print('\\');
+                out.print(c);
+            }
+            else if (c < 0x20) {
+                out.print("\\u00");
+                out.print(Character.forDigit(c >> 4, 16));
+                out.print(Character.forDigit(c & 0xF, 16));
+            }
+            else
+                out.print(c);
+        }
+
+        out.print('"');
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package dev.ignitop.ignite;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Executor of blocking thin client calls, which have no asynchronous counterparts. Timed out call is not interrupted,
+ * so both threads and pending calls are bounded to keep a hung cluster from piling up stuck threads and calls, which
+ * would still run long after the cluster recovers. Call, which is rejected as all threads and queue slots are busy,
+ * is reported as a missed deadline.
+ */
+class BlockingCallExecutor implements AutoCloseable {
+    /** Keep-alive time of idle threads in milliseconds. */
+    private static final long THREAD_KEEP_ALIVE = 60_000;
+
+    /** Executor. */
+    private final ThreadPoolExecutor exec;
+
+    /**
+     * @param threads Maximum amount of threads, which is also the maximum amount of pending calls.
+     */
+    BlockingCallExecutor(int threads) {
+        exec = new ThreadPoolExecutor(threads, threads, THREAD_KEEP_ALIVE, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(threads));
+
+        exec.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Start a blocking call. Call is skipped if it is taken by a thread after the returned future is completed
+     * (e.g. cancelled on timeout), or is cancelled if its operation is already completed.
+     *
+     * @param op Operation future.
+     * @param call Blocking call.
+     * @return Future of a call.
+     */
+    <T> CompletableFuture<T> call(CompletableFuture<?> op, Supplier<T> call) {
+        CompletableFuture<T> fut = new CompletableFuture<>();
+
+        Runnable task = () -> {
+            if (op.isDone())
+                fut.cancel(false);
+
+            if (fut.isDone())
+                return;
+
+            try {
+                fut.complete(call.get());
+            }
+            catch (Throwable e) {
+                fut.completeExceptionally(e);
+            }
+        };
+
+        try {
+            exec.execute(task);
+
+            // Pending call, which is cancelled (e.g. on timeout), frees its queue slot.
+            fut.whenComplete((res, err) -> exec.remove(task));
+        }
+        catch (RejectedExecutionException e) {
+            TimeoutException err = new TimeoutException("Blocking call rejected, previous calls are not completed");
+
+            err.initCause(e);
+
+            fut.completeExceptionally(err);
+        }
+
+        return fut;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void close() {
+        exec.shutdownNow();
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ignite;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Executes asynchronous cluster requests with a bounded concurrency: no more than {@code parallelism} requests are
+ * in flight at the same time, other requests wait in a queue and are started as soon as running ones complete.
+ * Running request, which misses its deadline, is cancelled and completed with a {@link TimeoutException}. Its slot
+ * is kept till the cancelled request actually completes, but no longer than one more request timeout, since servers
+ * may count the request against their limits till the cancellation reaches them.
+ */
+public class CollectionEngine {
+    /**
+     * Default amount of concurrently running requests. It is safe for servers, which allow a single active compute
+     * task per thin client connection, higher parallelism requires a higher limit on servers.
+     */
+    public static final int DEFAULT_PARALLELISM = 1;
+
+    /** Default request timeout in milliseconds. */
+    public static final long DEFAULT_REQUEST_TIMEOUT = 3000;
+
+    /** Maximum amount of concurrently running requests. */
+    private final int parallelism;
+
+    /** Request timeout in milliseconds, {@code 0} means no timeout. */
+    private final long reqTimeout;
+
+    /** Requests waiting for a free slot. */
+    private final Queue<Runnable> pending = new ArrayDeque<>();
+
+    /** Amount of running requests. */
+    private int active;
+
+    /** Requests, which are to be started by the outermost {@link #release()} of a thread. */
+    private final ThreadLocal<Queue<Runnable>> startsOfThread = new ThreadLocal<>();
+
+    /**
+     * @param parallelism Maximum amount of concurrently running requests.
+     */
+    public CollectionEngine(int parallelism) {
+        this(parallelism, 0);
+    }
+
+    /**
+     * @param parallelism Maximum amount of concurrently running requests.
+     * @param reqTimeout Request timeout in milliseconds, which is counted from the start of a request, {@code 0}
+     * means no timeout.
+     */
+    public CollectionEngine(int parallelism, long reqTimeout) {
+        if (parallelism <= 0)
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+
+        if (reqTimeout < 0)
+            throw new IllegalArgumentException("Request timeout must not be negative: " + reqTimeout);
+
+        this.parallelism = parallelism;
+        this.reqTimeout = reqTimeout;
+    }
+
+    /**
+     * Submit a request. Request is started immediately if concurrency limit is not reached, otherwise it is started
+     * after completion of one of running requests.
+     *
+     * @param req Request, which starts an asynchronous operation.
+     * @return Future, which is completed with a result of the request.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<? extends CompletionStage<T>> req) {
+        return submit(new CompletableFuture<>(), req);
+    }
+
+    /**
+     * Submit a request, which is a part of a cancellable operation. Pending request is not started if operation is
+     * already completed (e.g. cancelled), and running request is cancelled if operation is cancelled.
+     *
+     * @param op Future of an operation, which the request belongs to.
+     * @param req Request, which starts an asynchronous operation.
+     * @return Future, which is completed with a result of the request.
+     */
+    public <T> CompletableFuture<T> submit(CompletableFuture<?> op, Supplier<? extends CompletionStage<T>> req) {
+        CompletableFuture<T> res = new CompletableFuture<>();
+
+        Runnable start = () -> {
+            if (op.isDone()) {
+                release();
+
+                res.cancel(false);
+
+                return;
+            }
+
+            CompletionStage<T> stage;
+
+            try {
+                stage = req.get();
+            }
+            catch (Throwable e) {
+                stage = CompletableFuture.failedFuture(e);
+            }
+
+            CompletionStage<T> stage0 = stage;
+
+            // Slot is released either on completion of the request or on expiration of a grace period after the
+            // timeout, whichever happens first.
+            AtomicBoolean released = new AtomicBoolean();
+
+            Runnable finish = () -> {
+                if (released.compareAndSet(false, true))
+                    release();
+            };
+
+            op.whenComplete((val, err) -> {
+                if (op.isCancelled())
+                    cancel(stage0);
+            });
+
+            stage.whenComplete((val, err) -> {
+                finish.run();
+
+                if (err != null)
+                    res.completeExceptionally(err);
+                else
+                    res.complete(val);
+            });
+
+            if (reqTimeout > 0) {
+                CompletableFuture.delayedExecutor(reqTimeout, TimeUnit.MILLISECONDS).execute(() -> {
+                    if (res.completeExceptionally(new TimeoutException("Request timed out: " + reqTimeout + " ms"))) {
+                        cancel(stage0);
+
+                        CompletableFuture.delayedExecutor(reqTimeout, TimeUnit.MILLISECONDS).execute(finish);
+                    }
+                });
+            }
+        };
+
+        boolean startNow;
+
+        synchronized (this) {
+            startNow = active < parallelism;
+
+            if (startNow)
+                active++;
+            else
+                pending.add(start);
+        }
+
+        if (startNow)
+            start.run();
+
+        return res;
+    }
+
+    /**
+     * @param stage Stage of a running request.
+     */
+    private static void cancel(CompletionStage<?> stage) {
+        if (stage instanceof Future)
+            ((Future<?>)stage).cancel(true);
+    }
+
+    /**
+     * Release a slot of a completed request and start a next pending one, if any. Requests, which complete
+     * synchronously on start, release their slots recursively, so pending requests are started by a loop of the
+     * outermost release of a thread instead of a recursion, which depth would grow with the queue.
+     */
+    private void release() {
+        Runnable next;
+
+        synchronized (this) {
+            next = pending.poll();
+
+            if (next == null)
+                active--;
+        }
+
+        if (next == null)
+            return;
+
+        Queue<Runnable> starts = startsOfThread.get();
+
+        if (starts != null) {
+            starts.add(next);
+
+            return;
+        }
+
+        starts = new ArrayDeque<>();
+
+        startsOfThread.set(starts);
+
+        try {
+            for (; next != null; next = starts.poll())
+                next.run();
+        }
+        finally {
+            startsOfThread.remove();
+        }
+    }
+
+    /**
+     * @return Amount of running requests.
+     */
+    public synchronized int active() {
+        return active;
+    }
+
+    /**
+     * @return Amount of requests waiting for a free slot.
+     */
+    public synchronized int pending() {
+        return pending.size();
+    }
+
+    /**
+     * @param err Error of a request, possibly wrapped into a {@link CompletionException}.
+     * @return {@code True} if request missed its deadline.
+     */
+    public static boolean timedOut(Throwable err) {
+        while (err instanceof CompletionException && err.getCause() != null)
+            err = err.getCause();
+
+        return err instanceof TimeoutException;
+    }
+
+    /**
+     * Start a request for each of elements and join results in the order of elements.
+     *
+     * @param elements Elements, e.g. nodes.
+     * @param req Request for a single element.
+     * @return Future, which is completed when all requests are completed.
+     */
+    public static <K, V> CompletableFuture<List<V>> fanOut(Collection<K> elements,
+        Function<? super K, CompletableFuture<V>> req) {
+        List<CompletableFuture<V>> futs = elements.stream()
+            .map(req)
+            .collect(Collectors.toList());
+
+        return CompletableFuture.allOf(futs.toArray(new CompletableFuture[0]))
+            .thenApply(ignore -> futs.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList()));
+    }
+}
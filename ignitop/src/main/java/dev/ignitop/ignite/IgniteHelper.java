@@ -16,18 +16,32 @@
 
 package dev.ignitop.ignite;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import dev.ignitop.ignite.metric.CounterRates;
+import dev.ignitop.ignite.metric.MetricsRequest;
+import dev.ignitop.ignite.metric.NodeMetrics;
+import dev.ignitop.ignite.metric.NodeUpTimes;
 import dev.ignitop.ignite.system.SystemMetricsInformation;
+import dev.ignitop.ignite.topology.BaselineGroups;
 import dev.ignitop.ignite.topology.OfflineNodeInfo;
 import dev.ignitop.ignite.topology.OnlineNodeInfo;
 import dev.ignitop.ignite.topology.TopologyInformation;
@@ -43,7 +57,9 @@ import org.apache.ignite.internal.management.SystemViewTask;
 import org.apache.ignite.internal.management.SystemViewCommandArg;
 import org.apache.ignite.internal.management.SystemViewTaskResult;
 import org.apache.ignite.internal.visor.VisorTaskArgument;
+import org.jetbrains.annotations.Nullable;
 
+import static dev.ignitop.ignite.metric.NodeUpTimes.NODE_METRICS_VIEW;
 import static dev.ignitop.util.IgniTopUtils.append;
 import static org.apache.ignite.internal.IgniteKernal.CFG_VIEW;
 import static org.apache.ignite.internal.processors.cache.persistence.DataRegionMetricsImpl.DATAREGION_METRICS_PREFIX;
@@ -69,6 +85,21 @@ public class IgniteHelper implements AutoCloseable {
     /** Rebalanced metric. */
     public static final String REBALANCED_METRIC = "cluster.Rebalanced";
 
+    /** Data storage size metric. */
+    public static final String DATA_STORAGE_SIZE_METRIC = metricName(DATASTORAGE_METRIC_PREFIX, "StorageSize");
+
+    /** Baseline nodes metadata key. */
+    private static final String BASELINE_NODES_KEY = "baselineNodes";
+
+    /** Offline baseline nodes metadata key. */
+    private static final String OFFLINE_BASELINE_NODES_KEY = "offlineBaselineNodes";
+
+    /** Data region names metadata key prefix. */
+    private static final String DATA_REGION_NAMES_KEY_PREFIX = "dataRegionNames-";
+
+    /** Part of an error message of a compute task, which is rejected by a limit of active tasks per connection. */
+    private static final String COMPUTE_TASKS_LIMIT_MSG = "compute tasks per connection limit";
+
     /** Data region metric regex. */
     public static final Pattern DATA_REGION_METRIC_REGEX =
         Pattern.compile("DataStorageConfiguration\\.DefaultDataRegionConfiguration\\.Name|" +
@@ -77,101 +108,386 @@ public class IgniteHelper implements AutoCloseable {
     /** Client. */
     private final IgniteClient client;
 
+    /** Collection engine, which limits amount of concurrent requests to the cluster. */
+    private final CollectionEngine engine;
+
+    /** Static cluster metadata cache, invalidated on topology version or cluster state change. */
+    private final MetadataCache metadata = new MetadataCache();
+
+    /** Last collected topology information. */
+    private volatile TopologyInformation lastTopInfo;
+
+    /** Last known system metrics of server nodes, which are shown as stale if a node misses a deadline. */
+    private final Map<UUID, SystemMetricsInformation> lastSysMetrics = new ConcurrentHashMap<>();
+
+    /** Previous samples of counters of server nodes, which rates are derived from. */
+    private final CounterRates counterRates = new CounterRates();
+
+    /** Executor of blocking thin client calls, which is bounded by parallelism. */
+    private final BlockingCallExecutor blockingCallsExec;
+
     /**
      * @param addresses Addresses.
      */
     public IgniteHelper(String... addresses) {
+        this(CollectionEngine.DEFAULT_PARALLELISM, addresses);
+    }
+
+    /**
+     * @param parallelism Maximum amount of concurrent requests to the cluster.
+     * @param addresses Addresses.
+     */
+    public IgniteHelper(int parallelism, String... addresses) {
+        this(parallelism, CollectionEngine.DEFAULT_REQUEST_TIMEOUT, addresses);
+    }
+
+    /**
+     * @param parallelism Maximum amount of concurrent requests to the cluster, it must not exceed the limit of active
+     * compute tasks per thin client connection of servers.
+     * @param reqTimeout Request timeout in milliseconds, {@code 0} means no timeout.
+     * @param addresses Addresses.
+     */
+    public IgniteHelper(int parallelism, long reqTimeout, String... addresses) {
+        engine = new CollectionEngine(parallelism, reqTimeout);
+
+        blockingCallsExec = new BlockingCallExecutor(parallelism);
+
         client = Ignition.startClient(new ClientConfiguration().setAddresses(addresses));
     }
 
+    /**
+     * Creates helper without a cluster connection for subclasses, which provide data from another source, e.g.
+     * decorate other helper or read a recorded session. Subclass must override all public collection methods.
+     */
+    protected IgniteHelper() {
+        client = null;
+        engine = null;
+        blockingCallsExec = null;
+    }
+
     /**
      *
      */
     public TopologyInformation topologyInformation() {
+        return topologyInformationAsync().join();
+    }
+
+    /**
+     * Asynchronously collect topology information. Cancellation of the returned future cancels all running and
+     * pending requests of the collection.
+     */
+    public CompletableFuture<TopologyInformation> topologyInformationAsync() {
+        return operation(op -> coordinatorNode(op).thenCompose(crdNode -> {
+            // Cheap probe of topology version and cluster state.
+            CompletableFuture<NodeMetrics> crdMetricsFut = metricsAsync(op, new MetricsRequest(crdNode.id())
+                .metric(TOPOLOGY_VERSION_METRIC, REBALANCED_METRIC));
+
+            CompletableFuture<ClusterState> clusterStateFut = clusterState(op);
+
+            return crdMetricsFut.thenCompose(crdMetrics -> clusterStateFut.thenCompose(clusterState ->
+                topologyInformation(op, crdNode, crdMetrics, clusterState)));
+        }));
+    }
+
+    /**
+     * Collect topology information after probing of topology version and cluster state.
+     *
+     * @param op Operation future.
+     * @param crdNode Coordinator node.
+     * @param crdMetrics Coordinator metrics, i.e. topology version and rebalanced flag.
+     * @param clusterState Cluster state.
+     */
+    private CompletableFuture<TopologyInformation> topologyInformation(CompletableFuture<?> op, ClusterNode crdNode,
+        NodeMetrics crdMetrics, ClusterState clusterState) {
+        long topVer = crdMetrics.longValue(TOPOLOGY_VERSION_METRIC, -1L);
+        boolean rebalanced = crdMetrics.booleanValue(REBALANCED_METRIC, false);
+
+        metadata.validate(topVer, clusterState);
+
+        TopologyInformation prevTopInfo = lastTopInfo;
+
+        CompletableFuture<TopologyInformation> topInfoFut;
+
+        if (prevTopInfo != null && prevTopInfo.topologyVersion() == topVer &&
+            prevTopInfo.clusterState() == clusterState) {
+            // Topology has not changed, only volatile fields are refreshed.
+            topInfoFut = upTimes(op, onlineNodeIds(prevTopInfo))
+                .thenApply(upTimes -> prevTopInfo.withVolatileFields(upTimes, rebalanced));
+        }
+        else
+            topInfoFut = collectTopologyInformation(op, crdNode, topVer, clusterState, rebalanced);
+
+        return topInfoFut.thenApply(topInfo -> {
+            lastTopInfo = topInfo;
+
+            return topInfo;
+        });
+    }
+
+    /**
+     * Collect whole topology information from scratch.
+     *
+     * @param op Operation future.
+     * @param crdNode Coordinator node.
+     * @param topVer Topology version.
+     * @param clusterState Cluster state.
+     * @param rebalanced Rebalanced.
+     */
+    private CompletableFuture<TopologyInformation> collectTopologyInformation(CompletableFuture<?> op,
+        ClusterNode crdNode, long topVer, ClusterState clusterState, boolean rebalanced) {
+        // Client nodes are collected concurrently with the server nodes.
+        CompletableFuture<Set<OnlineNodeInfo>> clientNodesFut = clientNodes(op);
+
         Set<OnlineNodeInfo> onlineBaselineNodes = new HashSet<>();
         Set<OfflineNodeInfo> offlineBaselineNodes = new HashSet<>();
         Set<OnlineNodeInfo> nonBaselineNodes = new HashSet<>();
 
-        groupServerNodesByState(onlineBaselineNodes, offlineBaselineNodes, nonBaselineNodes);
+        return groupServerNodesByState(op, onlineBaselineNodes, offlineBaselineNodes, nonBaselineNodes)
+            .thenCompose(ignore -> coordinator(op, crdNode, onlineBaselineNodes, nonBaselineNodes))
+            .thenCombine(clientNodesFut, (crd, clientNodes) -> new TopologyInformation(
+                onlineBaselineNodes,
+                offlineBaselineNodes,
+                nonBaselineNodes,
+                clientNodes,
+                crd,
+                topVer,
+                clusterState,
+                rebalanced));
+    }
 
-        OnlineNodeInfo crd = coordinator();
+    /**
+     * @param topInfo Topology information.
+     * @return Ids of all online nodes.
+     */
+    private static Set<UUID> onlineNodeIds(TopologyInformation topInfo) {
+        return Stream.of(
+                topInfo.onlineBaselineNodes(),
+                topInfo.nonBaselineNodes(),
+                topInfo.clientNodes(),
+                List.of(topInfo.coordinator()))
+            .flatMap(Collection::stream)
+            .map(OnlineNodeInfo::nodeId)
+            .collect(Collectors.toSet());
+    }
 
-        long topVer = singleMetric(TOPOLOGY_VERSION_METRIC, crd.nodeId(), -1L);
-        boolean rebalanced = singleMetric(REBALANCED_METRIC, crd.nodeId(), false);
+    /**
+     *
+     */
+    public Collection<SystemMetricsInformation> systemMetrics() {
+        return systemMetricsAsync().join();
+    }
 
-        return new TopologyInformation(
-            onlineBaselineNodes,
-            offlineBaselineNodes,
-            nonBaselineNodes,
-            clientNodes(),
-            crd,
-            topVer,
-            clusterState(),
-            rebalanced);
+    /**
+     * Asynchronously collect system metrics of server nodes. Cancellation of the returned future cancels all running
+     * and pending requests of the collection. Node, which misses a request deadline, is reported with its last known
+     * metrics marked as {@link SystemMetricsInformation#stale() stale}.
+     */
+    public CompletableFuture<Collection<SystemMetricsInformation>> systemMetricsAsync() {
+        return operation(op -> validateMetadata(op)
+            .thenCompose(ignore -> blockingCall(op, () -> client.cluster().forServers().nodes()))
+            .thenCompose(nodes -> {
+                // Configuration views of all nodes are fetched once per refresh, if they are not cached yet.
+                // Views are loaded into the metadata cache only, so they are fetched by metadata loads.
+                SystemViewCache views = new SystemViewCache(nodeIds(nodes),
+                    (sysViewName, nodeIds) -> metadataLoad(load -> viewAsync(load, sysViewName, nodeIds)));
+
+                // Departed nodes are forgotten.
+                lastSysMetrics.keySet().retainAll(nodeIds(nodes));
+
+                return CollectionEngine.fanOut(nodes, node -> staleOnTimeout(node, systemMetrics(op, node, views)));
+            })
+            .thenApply(Collections::unmodifiableCollection));
     }
 
     /**
+     * Collect system metrics of a single node.
      *
+     * @param op Operation future.
+     * @param node Node.
+     * @param views Refresh-scoped system views cache.
      */
-    public Collection<SystemMetricsInformation> systemMetrics() {
-        Collection<ClusterNode> nodes = client.cluster().forServers().nodes();
+    private CompletableFuture<SystemMetricsInformation> systemMetrics(CompletableFuture<?> op, ClusterNode node,
+        SystemViewCache views) {
+        UUID nodeId = node.id();
 
-        List<SystemMetricsInformation> metricsInfo = new ArrayList<>(nodes.size());
+        CompletableFuture<Set<String>> drNamesFut = metadata.get(DATA_REGION_NAMES_KEY_PREFIX + nodeId,
+            () -> dataRegionNames(nodeId, views));
 
-        for (ClusterNode node : nodes) {
-            UUID nodeId = node.id();
+        return drNamesFut.thenCompose(drNames -> {
+            MetricsRequest req = new MetricsRequest(nodeId)
+                .registry(SYS_METRICS)
+                .metric(DATA_STORAGE_SIZE_METRIC);
 
-            Map<String, ?> sysMetrics = metric(SYS_METRICS, nodeId);
+            drNames.forEach(drName -> req.registry(metricName(DATAREGION_METRICS_PREFIX, drName)));
 
-            double cpuLoad = (double)sysMetrics.get(metricName(SYS_METRICS, CPU_LOAD));
+            return metricsAsync(op, req)
+                .thenApply(nodeMetrics -> systemMetricsInformation(node, drNames, nodeMetrics));
+        });
+    }
 
-            double loadAverage = Double.parseDouble(String.valueOf(sysMetrics.get(metricName(SYS_METRICS,
-                "SystemLoadAverage"))));
+    /**
+     * Remember collected system metrics of a node or substitute them with the last known ones if node missed a
+     * deadline.
+     *
+     * @param node Node.
+     * @param fut Future of system metrics collection.
+     */
+    private CompletableFuture<SystemMetricsInformation> staleOnTimeout(ClusterNode node,
+        CompletableFuture<SystemMetricsInformation> fut) {
+        return fut.handle((info, err) -> {
+            if (err == null) {
+                lastSysMetrics.put(node.id(), info);
 
-            double gcCpuLoad = (double)sysMetrics.get(metricName(SYS_METRICS, GC_CPU_LOAD));
+                return info;
+            }
 
-            long heapUsed = (long)sysMetrics.get(metricName(SYS_METRICS, "memory", "heap", "used"));
-            long heapMax = (long)sysMetrics.get(metricName(SYS_METRICS, "memory", "heap", "max"));
+            if (!CollectionEngine.timedOut(err))
+                throw err instanceof CompletionException ? (CompletionException)err : new CompletionException(err);
 
-            long dataStorageSize = singleMetric(metricName(DATASTORAGE_METRIC_PREFIX, "StorageSize"), nodeId, 0L);
+            SystemMetricsInformation last = lastSysMetrics.get(node.id());
 
-            SystemMetricsInformation sysMetricsInfo = new SystemMetricsInformation(
-                node.consistentId(),
-                node.hostNames(),
-                cpuLoad * 100,
-                // Strange double metric to string conversion in Ignite
-                loadAverage,
-                gcCpuLoad,
-                (double)heapUsed / heapMax * 100,
-                dataRegionUsagePercents(nodeId),
-                (double)dataStorageSize / 1024 / 1024 / 1024);
+            return last != null ? last.asStale() : SystemMetricsInformation.unknown(node.consistentId(),
+                node.hostNames());
+        });
+    }
 
-            metricsInfo.add(sysMetricsInfo);
-        }
+    /**
+     * @param node Node.
+     * @param drNames Data region names.
+     * @param nodeMetrics Node metrics.
+     */
+    private SystemMetricsInformation systemMetricsInformation(ClusterNode node, Set<String> drNames,
+        NodeMetrics nodeMetrics) {
+        long heapUsed = nodeMetrics.longValue(metricName(SYS_METRICS, "memory", "heap", "used"), 0L);
+        long heapMax = nodeMetrics.longValue(metricName(SYS_METRICS, "memory", "heap", "max"), 0L);
+
+        return new SystemMetricsInformation(
+            node.consistentId(),
+            node.hostNames(),
+            nodeMetrics.doubleValue(metricName(SYS_METRICS, CPU_LOAD), 0d) * 100,
+            // Strange double metric to string conversion in Ignite, string value is parsed by NodeMetrics.
+            nodeMetrics.doubleValue(metricName(SYS_METRICS, "SystemLoadAverage"), 0d),
+            nodeMetrics.doubleValue(metricName(SYS_METRICS, GC_CPU_LOAD), 0d),
+            (double)heapUsed / heapMax * 100,
+            dataRegionUsagePercents(drNames, nodeMetrics),
+            (double)nodeMetrics.longValue(DATA_STORAGE_SIZE_METRIC, 0L) / 1024 / 1024 / 1024);
+    }
 
-        return metricsInfo;
+    /**
+     * Asynchronously collect per-second rates of counter metrics of server nodes, e.g. cache gets or WAL bytes. Rates
+     * are derived from values of the previous collection, so rates of the first collection are unknown, i.e.
+     * {@link Double#NaN}. Node, which misses a request deadline, is reported without rates.
+     *
+     * @param counters Full names of counter metrics.
+     * @return Rates of counters of server nodes.
+     */
+    public CompletableFuture<Collection<NodeMetrics>> counterRatesAsync(Collection<String> counters) {
+        return operation(op -> blockingCall(op, () -> client.cluster().forServers().nodes())
+            .thenCompose(nodes -> {
+                // Counters of departed nodes are forgotten.
+                counterRates.retainNodes(nodes.stream()
+                    .map(ClusterNode::consistentId)
+                    .collect(Collectors.toSet()));
+
+                return CollectionEngine.fanOut(nodes, node -> counterRates(op, node, counters));
+            })
+            .thenApply(Collections::unmodifiableCollection));
     }
 
     /**
-     * Get data regions utilization int percents on a specified node.
+     * Collect counters and uptime of a single node and derive rates of counters.
      *
-     * @param nodeId Node id.
+     * @param op Operation future.
+     * @param node Node.
+     * @param counters Full names of counter metrics.
      */
-    private Map<String, Double> dataRegionUsagePercents(UUID nodeId) {
-        List<List<?>> cfg = view(CFG_VIEW, nodeId);
+    private CompletableFuture<NodeMetrics> counterRates(CompletableFuture<?> op, ClusterNode node,
+        Collection<String> counters) {
+        MetricsRequest req = new MetricsRequest(node.id())
+            .metric(CounterRates.UP_TIME_METRIC)
+            .metric(counters.toArray(new String[0]));
+
+        // Samples are timestamped when the first task of the node is sent, so that time, which the request spent in
+        // the queue of the collection engine, does not skew rates.
+        AtomicLong sentTs = new AtomicLong();
+
+        return metricsAsync(op, req, sentTs)
+            .thenApply(nodeMetrics -> new NodeMetrics(node.id(),
+                counterRates.rates(node.consistentId(), nodeMetrics, counters, sentTs.get())))
+            .exceptionally(err -> {
+                if (CollectionEngine.timedOut(err))
+                    return new NodeMetrics(node.id(), Map.of());
+
+                throw err instanceof CompletionException ? (CompletionException)err : new CompletionException(err);
+            });
+    }
+
+    /**
+     * Resolve a batched metrics request with a minimal amount of {@link MetricTask} executions: one execution per
+     * requested registry and per single metric, which is not covered by requested registries.
+     *
+     * @param req Metrics request.
+     */
+    public NodeMetrics metrics(MetricsRequest req) {
+        return operation(op -> metricsAsync(op, req)).join();
+    }
+
+    /**
+     * Asynchronously resolve a batched metrics request, metric task executions are performed concurrently.
+     *
+     * @param op Operation future.
+     * @param req Metrics request.
+     */
+    private CompletableFuture<NodeMetrics> metricsAsync(CompletableFuture<?> op, MetricsRequest req) {
+        return metricsAsync(op, req, null);
+    }
 
-        Set<String> drNames = cfg.stream()
+    /**
+     * Asynchronously resolve a batched metrics request, metric task executions are performed concurrently.
+     *
+     * @param op Operation future.
+     * @param req Metrics request.
+     * @param sentTs Timestamp of sending of the first metric task, which is set if it is not set yet.
+     */
+    private CompletableFuture<NodeMetrics> metricsAsync(CompletableFuture<?> op, MetricsRequest req,
+        @Nullable AtomicLong sentTs) {
+        return CollectionEngine.fanOut(req.names(), name -> metric(op, name, req.nodeId(), sentTs))
+            .thenApply(results -> {
+                Map<String, Object> values = new HashMap<>();
+
+                results.forEach(values::putAll);
+
+                return new NodeMetrics(req.nodeId(), values);
+            });
+    }
+
+    /**
+     * Get names of data regions configured on a specified node.
+     *
+     * @param nodeId Node id.
+     * @param views Refresh-scoped system views cache.
+     */
+    private CompletableFuture<Set<String>> dataRegionNames(UUID nodeId, SystemViewCache views) {
+        return views.view(CFG_VIEW, nodeId).thenApply(rows -> rows.stream()
             .filter(l -> DATA_REGION_METRIC_REGEX.matcher(String.valueOf(l.get(0))).find())
             .map(l -> String.valueOf(l.get(1)))
-            .collect(Collectors.toSet());
+            .collect(Collectors.toSet()));
+    }
 
+    /**
+     * Get data regions utilization int percents from already fetched data region metrics of a node.
+     *
+     * @param drNames Data region names.
+     * @param nodeMetrics Node metrics, including data region registries.
+     */
+    private Map<String, Double> dataRegionUsagePercents(Set<String> drNames, NodeMetrics nodeMetrics) {
         Map<String, Double> dataRegionUsagesPercents = new HashMap<>();
 
         for (String drName : drNames) {
-            long offheapUsedSize = singleMetric(metricName(DATAREGION_METRICS_PREFIX, drName, "OffheapUsedSize"),
-                nodeId, 0L);
+            long offheapUsedSize = nodeMetrics.longValue(
+                metricName(DATAREGION_METRICS_PREFIX, drName, "OffheapUsedSize"), 0L);
 
-            long maxSize = singleMetric(metricName(DATAREGION_METRICS_PREFIX, drName, "MaxSize"), nodeId, 0L);
+            long maxSize = nodeMetrics.longValue(metricName(DATAREGION_METRICS_PREFIX, drName, "MaxSize"), 0L);
 
             dataRegionUsagesPercents.put(drName, (double)offheapUsedSize / maxSize * 100);
         }
@@ -183,116 +499,259 @@ public class IgniteHelper implements AutoCloseable {
      * Return result of {@link SystemViewTask} execution for a node with a specified id.
      * Expected, that ID is a value, which corresponds to a value returned by a {@link ClusterNode#id()}.
      *
+     * @param op Operation future.
      * @param sysViewName System view name.
      * @param nodeId      Node Id.
      */
-    private List<List<?>> view(String sysViewName, UUID nodeId) {
-        return view(sysViewName, Set.of(nodeId))
-            .getOrDefault(nodeId, List.of());
+    private CompletableFuture<List<List<?>>> viewAsync(CompletableFuture<?> op, String sysViewName, UUID nodeId) {
+        return viewAsync(op, sysViewName, Set.of(nodeId))
+            .thenApply(rows -> rows.getOrDefault(nodeId, List.of()));
     }
 
     /**
-     * Get full result of multi-node {@link SystemViewTask} execution groupped by node identifiers.
+     * Get full result of multi-node {@link SystemViewTask} execution groupped by node identifiers. System view is
+     * requested from all specified nodes by a single task execution.
      *
+     * @param op Operation future.
      * @param sysViewName System view name.
      * @param nodeIds     Node ids.
      */
-    private Map<UUID, List<List<?>>> view(String sysViewName, Set<UUID> nodeIds) {
-        Optional<UUID> randomNodeOpt = nodeIds.stream().findFirst();
-
-        if (randomNodeOpt.isEmpty())
-            return Map.of();
+    private CompletableFuture<Map<UUID, List<List<?>>>> viewAsync(CompletableFuture<?> op, String sysViewName,
+        Set<UUID> nodeIds) {
+        if (nodeIds.isEmpty())
+            return CompletableFuture.completedFuture(Map.of());
 
         SystemViewCommandArg sysViewCmdArg = new SystemViewCommandArg();
         sysViewCmdArg.systemViewName(sysViewName);
 
-        SystemViewTaskResult res = (SystemViewTaskResult)executeTask(
-            SystemViewTask.class.getName(),
-            sysViewCmdArg,
-            randomNodeOpt.get());
+        return executeTask(op, SystemViewTask.class.getName(), sysViewCmdArg, nodeIds)
+            .thenApply(res -> {
+                HashMap<UUID, List<List<?>>> map = new HashMap<>(((SystemViewTaskResult)res).rows());
+                map.keySet().retainAll(nodeIds);
 
-        HashMap<UUID, List<List<?>>> map = new HashMap<>(res.rows());
-        map.keySet().retainAll(nodeIds);
-
-        return map;
+                return map;
+            });
     }
 
     /**
      * Return result of single-node {@link MetricCommandArg} execution for a node with a specified id.
      * Expected, that ID is a value, which corresponds to a value returned by a {@link ClusterNode#id()}.
      *
+     * @param op Operation future.
+     * @param metricName Metric name.
+     * @param nodeId Node id.
+     */
+    private CompletableFuture<Map<String, ?>> metric(CompletableFuture<?> op, String metricName, UUID nodeId) {
+        return metric(op, metricName, nodeId, null);
+    }
+
+    /**
+     * @param op Operation future.
      * @param metricName Metric name.
      * @param nodeId Node id.
+     * @param sentTs Timestamp of sending of a task, which is set if it is not set yet.
      */
-    private Map<String, ?> metric(String metricName, UUID nodeId) {
+    private CompletableFuture<Map<String, ?>> metric(CompletableFuture<?> op, String metricName, UUID nodeId,
+        @Nullable AtomicLong sentTs) {
         MetricCommandArg metricCmdArg = new MetricCommandArg();
 
         metricCmdArg.name(metricName);
 
-        Map<String, ?> res = (Map<String, ?>)executeTask(
-            MetricTask.class.getName(),
-            metricCmdArg,
-            nodeId);
-
-        return res != null ? res : Map.of();
+        return executeTask(op, MetricTask.class.getName(), metricCmdArg, nodeId, sentTs)
+            .thenApply(res -> res != null ? (Map<String, ?>)res : Map.of());
     }
 
     /**
-     * Return first found entry for a specified metric name. Because {@link MetricCommandArg} can return multiple
-     * values, it is expected, that this method is called for a single-value metric (not whole metric registry).
+     * Asynchronously execute task on a single node. Execution is started by the collection engine, as soon as
+     * concurrency limit allows it.
      *
-     * @param metricName Metric name.
+     * @param op Operation future.
+     * @param taskCls Task class.
+     * @param arg Argument.
      * @param nodeId Node id.
-     * @param dflt Default value.
      */
-    private  <T> T singleMetric(String metricName, UUID nodeId, T dflt) {
-        return metric(metricName, nodeId)
-            .values()
-            .stream()
-            .map(obj -> (T)obj)
-            .findFirst()
-            .orElse(dflt);
+    private CompletableFuture<Object> executeTask(CompletableFuture<?> op, String taskCls, Object arg, UUID nodeId) {
+        return executeTask(op, taskCls, arg, nodeId, null);
     }
 
     /**
-     * Execute task on a single node.
+     * Asynchronously execute task on a single node. Execution is started by the collection engine, as soon as
+     * concurrency limit allows it.
      *
+     * @param op Operation future.
      * @param taskCls Task class.
      * @param arg Argument.
      * @param nodeId Node id.
+     * @param sentTs Timestamp of sending of a task, which is set if it is not set yet.
      */
-    private Object executeTask(String taskCls, Object arg, UUID nodeId) {
-        try {
+    private CompletableFuture<Object> executeTask(CompletableFuture<?> op, String taskCls, Object arg, UUID nodeId,
+        @Nullable AtomicLong sentTs) {
+        return rejectedAsTimedOut(engine.submit(op, () -> {
+            if (sentTs != null)
+                sentTs.compareAndSet(0, System.currentTimeMillis());
+
             ClientClusterGroup clusterGrp = client.cluster().forNodeId(nodeId);
 
-            return client.compute(clusterGrp).execute(taskCls, new VisorTaskArgument<>(nodeId, arg, false));
+            return client.compute(clusterGrp).executeAsync2(taskCls, new VisorTaskArgument<>(nodeId, arg, false));
+        }));
+    }
+
+    /**
+     * Asynchronously execute multi-node task on specified nodes.
+     *
+     * @param op Operation future.
+     * @param taskCls Task class.
+     * @param arg Argument.
+     * @param nodeIds Node ids.
+     */
+    private CompletableFuture<Object> executeTask(CompletableFuture<?> op, String taskCls, Object arg,
+        Collection<UUID> nodeIds) {
+        return rejectedAsTimedOut(engine.submit(op, () -> {
+            ClientClusterGroup clusterGrp = client.cluster().forNodeIds(nodeIds);
+
+            return client.compute(clusterGrp).executeAsync2(taskCls, new VisorTaskArgument<>(nodeIds, arg, false));
+        }));
+    }
+
+    /**
+     * Compute task, which is rejected by a server due to a limit of active tasks per connection (e.g. while a server
+     * still counts a cancelled task, which missed its deadline), is reported as a request, which missed its deadline,
+     * so nodes are shown as stale instead of failing the whole collection.
+     *
+     * @param fut Future of a compute task.
+     * @return Future, which is completed with a {@link TimeoutException} if the task is rejected.
+     */
+    static <T> CompletableFuture<T> rejectedAsTimedOut(CompletableFuture<T> fut) {
+        CompletableFuture<T> res = new CompletableFuture<>();
+
+        fut.whenComplete((val, err) -> {
+            if (err == null)
+                res.complete(val);
+            else if (rejected(err)) {
+                TimeoutException e = new TimeoutException("Compute task rejected by the server");
+
+                e.initCause(err);
+
+                res.completeExceptionally(e);
+            }
+            else
+                res.completeExceptionally(err);
+        });
+
+        return res;
+    }
+
+    /**
+     * @param err Error of a compute task.
+     * @return {@code True} if task is rejected due to a limit of active tasks per connection.
+     */
+    private static boolean rejected(Throwable err) {
+        for (; err != null; err = err.getCause()) {
+            String msg = err.getMessage();
+
+            if (msg != null && msg.toLowerCase(Locale.ROOT).contains(COMPUTE_TASKS_LIMIT_MSG))
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Asynchronously perform a blocking thin client call, which has no asynchronous counterpart. Call is started by
+     * the collection engine, as soon as concurrency limit allows it.
+     *
+     * @param op Operation future.
+     * @param call Blocking call.
+     */
+    protected <T> CompletableFuture<T> blockingCall(CompletableFuture<?> op, Supplier<T> call) {
+        return engine.submit(op, () -> blockingCallsExec.call(op, call));
+    }
+
+    /**
+     * Start a cancellable operation. Operation future is passed to all requests of the operation, so they are
+     * not started or cancelled when operation future is cancelled.
+     *
+     * @param body Operation body, which starts requests of the operation.
+     * @return Operation future.
+     */
+    protected <T> CompletableFuture<T> operation(Function<CompletableFuture<?>, CompletableFuture<T>> body) {
+        CompletableFuture<T> op = new CompletableFuture<>();
+
+        try {
+            body.apply(op).whenComplete((res, err) -> {
+                if (err != null)
+                    op.completeExceptionally(err);
+                else
+                    op.complete(res);
+            });
         }
-        catch (InterruptedException e) {
-            throw new RuntimeException(e);
+        catch (Throwable e) {
+            op.completeExceptionally(e);
         }
+
+        return op;
+    }
+
+    /**
+     * Start a load of a metadata cache entry. Entries are shared by operations, so a load is a separate operation,
+     * which is not cancelled along with an operation, which started it, and is completed along with the load.
+     *
+     * @param body Load body, which starts requests of the load.
+     * @return Load future.
+     */
+    private <T> CompletableFuture<T> metadataLoad(Function<CompletableFuture<?>, CompletableFuture<T>> body) {
+        return operation(body);
+    }
+
+    /**
+     * @param nodes Nodes.
+     */
+    private static Set<UUID> nodeIds(Collection<ClusterNode> nodes) {
+        return nodes.stream()
+            .map(ClusterNode::id)
+            .collect(Collectors.toSet());
     }
 
     /**
      * Get baseline nodes attributes.
      *
+     * @param op Operation future.
      * @param consistentIds Consistent ids.
      * @param attrs Attributes.
      */
-    private Map<String, Map<String, Object>> baselineNodesAttributes(Collection<?> consistentIds, String... attrs) {
-        List<List<?>> allNodesAttrs = view(BASELINE_NODE_ATTRIBUTES_VIEW, client.cluster().node().id());
+    private CompletableFuture<Map<String, Map<String, Object>>> baselineNodesAttributes(CompletableFuture<?> op,
+        Collection<?> consistentIds, String... attrs) {
+        return blockingCall(op, () -> client.cluster().node().id())
+            .thenCompose(nodeId -> viewAsync(op, BASELINE_NODE_ATTRIBUTES_VIEW, nodeId))
+            .thenApply(allNodesAttrs -> baselineNodesAttributes(allNodesAttrs, consistentIds, attrs));
+    }
 
-        List<String> attrsList = List.of(attrs);
+    /**
+     * Filter baseline nodes attributes. Consistent ids and attribute names are indexed by hash sets, so filtering is
+     * linear in amount of rows.
+     *
+     * @param allNodesAttrs Rows of baseline node attributes view.
+     * @param consistentIds Consistent ids.
+     * @param attrs Attributes.
+     */
+    static Map<String, Map<String, Object>> baselineNodesAttributes(List<List<?>> allNodesAttrs,
+        Collection<?> consistentIds, String... attrs) {
+        Set<String> attrsSet = new HashSet<>(Arrays.asList(attrs));
+
+        Set<String> consistentIdsSet = consistentIds.stream()
+            .map(String::valueOf)
+            .collect(Collectors.toSet());
 
         Map<String, Map<String, Object>> attrsMap = new HashMap<>();
 
         for (List<?> nodeAttr : allNodesAttrs) {
             String consistentId = String.valueOf(nodeAttr.get(0));
 
-            if (consistentIds.contains(consistentId)) {
+            if (consistentIdsSet.contains(consistentId)) {
                 String attrName = String.valueOf(nodeAttr.get(1));
                 String attrVal = String.valueOf(nodeAttr.get(2));
 
-                if (attrsList.contains(attrName))
+                if (attrsSet.contains(attrName))
                     attrsMap.compute(consistentId, (c, m) -> append(m, attrName, attrVal));
             }
         }
@@ -303,97 +762,177 @@ public class IgniteHelper implements AutoCloseable {
     /**
      * Partition nodes by state: online, offline, or outside of baseline.
      *
+     * @param op Operation future.
      * @param onlineBaselineNodes Online baseline nodes.
      * @param offlineBaselineNodes Offline baseline nodes.
      * @param nonBaselineNodes Server nodes outside of baseline.
+     * @return Future, which is completed when all nodes are partitioned.
      */
-    private void groupServerNodesByState(Collection<OnlineNodeInfo> onlineBaselineNodes,
-        Collection<OfflineNodeInfo> offlineBaselineNodes, Set<OnlineNodeInfo> nonBaselineNodes) {
-        ClientClusterGroup servers = client.cluster().forServers();
+    private CompletableFuture<Void> groupServerNodesByState(CompletableFuture<?> op,
+        Collection<OnlineNodeInfo> onlineBaselineNodes, Collection<OfflineNodeInfo> offlineBaselineNodes,
+        Set<OnlineNodeInfo> nonBaselineNodes) {
+        return blockingCall(op, () -> client.cluster().forServers().nodes()).thenCompose(srvNodes -> {
+            UUID srvId = srvNodes.iterator().next().id();
+
+            return metadata.<List<List<?>>>get(BASELINE_NODES_KEY,
+                () -> metadataLoad(load -> viewAsync(load, BASELINE_NODES_VIEW, srvId)))
+                .thenCompose(baselineNodesView -> {
+                    BaselineGroups<ClusterNode> groups = new BaselineGroups<>(srvNodes, ClusterNode::consistentId,
+                        baselineNodesView);
+
+                    // Uptimes of all server nodes are requested concurrently.
+                    CompletableFuture<Set<OnlineNodeInfo>> onlineFut = toNodeInfos(op, groups.online());
+                    CompletableFuture<Set<OnlineNodeInfo>> nonBaselineFut = toNodeInfos(op, groups.nonBaseline());
+
+                    // Offline nodes can change only with a topology version.
+                    CompletableFuture<Set<OfflineNodeInfo>> offlineFut = metadata.get(OFFLINE_BASELINE_NODES_KEY,
+                        () -> metadataLoad(load -> offlineByConsistentIds(load, groups.offlineConsistentIds())));
+
+                    return CompletableFuture.allOf(onlineFut, nonBaselineFut, offlineFut).thenRun(() -> {
+                        onlineBaselineNodes.addAll(onlineFut.join());
+                        offlineBaselineNodes.addAll(offlineFut.join());
+                        nonBaselineNodes.addAll(nonBaselineFut.join());
+                    });
+                });
+        });
+    }
 
-        List<List<?>> baselineNodesView = view(BASELINE_NODES_VIEW, servers.node().id());
+    /**
+     * @param op Operation future.
+     * @param nodes Nodes.
+     */
+    private CompletableFuture<Set<OnlineNodeInfo>> toNodeInfos(CompletableFuture<?> op, Collection<ClusterNode> nodes) {
+        return upTimes(op, nodeIds(nodes)).thenApply(upTimes -> nodes.stream()
+            .map(n -> new OnlineNodeInfo(n, upTimes.getOrDefault(n.id(), -1L)))
+            .collect(Collectors.toSet()));
+    }
+
+    /**
+     * Get uptimes of specified nodes. Uptimes of all nodes are taken from a single
+     * {@link NodeUpTimes#NODE_METRICS_VIEW} system view of the coordinator, so amount of requests does not depend on
+     * a cluster size.
+     *
+     * @param op Operation future.
+     * @param nodeIds Node ids.
+     * @return Uptimes by node ids.
+     */
+    private CompletableFuture<Map<UUID, Long>> upTimes(CompletableFuture<?> op, Collection<UUID> nodeIds) {
+        if (nodeIds.isEmpty())
+            return CompletableFuture.completedFuture(Map.of());
 
-        Set<ClusterNode> nonHandledNodes = new HashSet<>(servers.nodes());
+        SystemViewCommandArg sysViewCmdArg = new SystemViewCommandArg();
+        sysViewCmdArg.systemViewName(NODE_METRICS_VIEW);
 
-        Set<Object> offlineConsistentIds = new HashSet<>();
+        return coordinatorNode(op).thenCompose(crdNode -> {
+            UUID crdId = crdNode.id();
 
-        for (List<?> nodeInfo : baselineNodesView) {
-            String consistentId = String.valueOf(nodeInfo.get(0));
-            boolean online = (boolean)nodeInfo.get(1);
+            return executeTask(op, SystemViewTask.class.getName(), sysViewCmdArg, crdId).thenApply(res -> {
+                SystemViewTaskResult viewRes = (SystemViewTaskResult)res;
 
-            Optional<ClusterNode> nodeOpt = nonHandledNodes.stream()
-                .filter(n -> consistentId.equals(String.valueOf(n.consistentId())))
-                .findFirst();
+                Map<UUID, Long> upTimes = new HashMap<>(NodeUpTimes.parse(
+                    viewRes.attributes(),
+                    viewRes.rows().getOrDefault(crdId, List.of()),
+                    System.currentTimeMillis()));
 
-            if (nodeOpt.isPresent() && online) {
-                onlineBaselineNodes.add(toNodeInfo(nodeOpt.get()));
+                upTimes.keySet().retainAll(nodeIds);
 
-                nonHandledNodes.remove(nodeOpt.get());
-            }
-            else
-                offlineConsistentIds.add(consistentId);
-        }
+                return upTimes;
+            });
+        }).exceptionally(err -> {
+            // Topology is shown on time with unknown uptimes, if coordinator missed a deadline.
+            if (CollectionEngine.timedOut(err))
+                return Map.of();
 
-        offlineBaselineNodes.addAll(offlineByConsistentIds(offlineConsistentIds));
+            throw err instanceof CompletionException ? (CompletionException)err : new CompletionException(err);
+        });
+    }
 
-        nonBaselineNodes.addAll(nonHandledNodes.stream()
-            .map(this::toNodeInfo)
-            .collect(Collectors.toSet()));
+    /**
+     * Get offline nodes attributes by consistent ids.
+     *
+     * @param op Operation future.
+     * @param offlineConsistentIds Offline nodes consistent ids.
+     */
+    private CompletableFuture<Set<OfflineNodeInfo>> offlineByConsistentIds(CompletableFuture<?> op,
+        Collection<?> offlineConsistentIds) {
+        return baselineNodesAttributes(op, offlineConsistentIds,
+            "TcpCommunicationSpi.comm.tcp.host.names", "TcpCommunicationSpi.comm.tcp.addrs")
+            .thenApply(attrsMap -> attrsMap.entrySet()
+                .stream()
+                .map(e -> new OfflineNodeInfo(e.getKey(), e.getValue().get("TcpCommunicationSpi.comm.tcp.host.names"),
+                    e.getValue().get("TcpCommunicationSpi.comm.tcp.addrs")))
+                .collect(Collectors.toSet()));
     }
 
     /**
-     * @param node Node.
+     * @param op Operation future.
      */
-    private OnlineNodeInfo toNodeInfo(ClusterNode node) {
-        return new OnlineNodeInfo(
-            node,
-            singleMetric("sys.UpTime", node.id(), -1L));
+    // TODO: Is an oldest always a coordinator? With Zookeper SPI?
+    private CompletableFuture<ClusterNode> coordinatorNode(CompletableFuture<?> op) {
+        return blockingCall(op, () -> client.cluster().forOldest().node());
     }
 
     /**
-     * Get offline nodes attributes by consistent ids.
+     * Probe topology version and cluster state, and invalidate metadata cache if any of them has changed.
      *
-     * @param offlineConsistentIds Offline nodes consistent ids.
+     * @param op Operation future.
+     * @return Future, which is completed with {@code true} if metadata cache was invalidated.
      */
-    private Set<OfflineNodeInfo> offlineByConsistentIds(Collection<?> offlineConsistentIds) {
-        Map<String, Map<String, Object>> attrsMap = baselineNodesAttributes(offlineConsistentIds,
-            "TcpCommunicationSpi.comm.tcp.host.names", "TcpCommunicationSpi.comm.tcp.addrs");
+    private CompletableFuture<Boolean> validateMetadata(CompletableFuture<?> op) {
+        CompletableFuture<ClusterState> clusterStateFut = clusterState(op);
 
-        return attrsMap.entrySet()
-            .stream()
-            .map(e -> new OfflineNodeInfo(e.getKey(), e.getValue().get("TcpCommunicationSpi.comm.tcp.host.names"),
-                e.getValue().get("TcpCommunicationSpi.comm.tcp.addrs")))
-            .collect(Collectors.toSet());
+        return coordinatorNode(op)
+            .thenCompose(crdNode -> metricsAsync(op, new MetricsRequest(crdNode.id()).metric(TOPOLOGY_VERSION_METRIC)))
+            .thenCombine(clusterStateFut, (topVerMetrics, clusterState) ->
+                metadata.validate(topVerMetrics.longValue(TOPOLOGY_VERSION_METRIC, -1L), clusterState));
     }
 
     /**
+     * Get coordinator information, already collected server nodes information is reused if possible.
      *
+     * @param op Operation future.
+     * @param crdNode Coordinator node.
+     * @param srvNodes Already collected server nodes.
      */
-    // TODO: Is an oldest always a coordinator? With Zookeper SPI?
-    private OnlineNodeInfo coordinator() {
-        return toNodeInfo(client.cluster().forOldest().node());
+    @SafeVarargs
+    private CompletableFuture<OnlineNodeInfo> coordinator(CompletableFuture<?> op, ClusterNode crdNode,
+        Collection<OnlineNodeInfo>... srvNodes) {
+        return Arrays.stream(srvNodes)
+            .flatMap(Collection::stream)
+            .filter(n -> n.nodeId().equals(crdNode.id()))
+            .findFirst()
+            .map(CompletableFuture::completedFuture)
+            .orElseGet(() -> toNodeInfos(op, List.of(crdNode)).thenApply(infos -> infos.iterator().next()));
     }
 
     /**
-     *
+     * @param op Operation future.
      */
-    private Set<OnlineNodeInfo> clientNodes() {
-        return client.cluster().forClients()
-            .nodes()
-            .stream()
-            .map(this::toNodeInfo)
-            .collect(Collectors.toSet());
+    private CompletableFuture<Set<OnlineNodeInfo>> clientNodes(CompletableFuture<?> op) {
+        return blockingCall(op, () -> client.cluster().forClients().nodes())
+            .thenCompose(nodes -> toNodeInfos(op, nodes));
     }
 
     /**
-     *
+     * @return Thin client.
+     */
+    protected IgniteClient client() {
+        return client;
+    }
+
+    /**
+     * @param op Operation future.
      */
-    private ClusterState clusterState() {
-        return client.cluster().state();
+    private CompletableFuture<ClusterState> clusterState(CompletableFuture<?> op) {
+        return blockingCall(op, () -> client.cluster().state());
     }
 
     /** {@inheritDoc} */
     @Override public void close() {
-        client.close();
+        if (blockingCallsExec != null)
+            blockingCallsExec.close();
+
+        if (client != null)
+            client.close();
     }
 }
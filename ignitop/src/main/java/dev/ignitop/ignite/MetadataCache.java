@@ -0,0 +1,92 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ignite;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.apache.ignite.cluster.ClusterState;
+
+/**
+ * Cache of static cluster metadata (data region names, baseline nodes and their attributes, etc.), which almost
+ * never changes between refreshes. Whole cache is invalidated when topology version or cluster state changes.
+ */
+public class MetadataCache {
+    /** Topology version of cached entries. */
+    private long topVer = -1;
+
+    /** Cluster state of cached entries. */
+    private ClusterState clusterState;
+
+    /** Cached entries. */
+    private final ConcurrentMap<String, CompletableFuture<?>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Invalidate cache if topology version or cluster state differs from the ones of cached entries.
+     *
+     * @param topVer Current topology version.
+     * @param clusterState Current cluster state.
+     * @return {@code True} if cache was invalidated.
+     */
+    public synchronized boolean validate(long topVer, ClusterState clusterState) {
+        if (this.topVer == topVer && this.clusterState == clusterState)
+            return false;
+
+        entries.clear();
+
+        this.topVer = topVer;
+        this.clusterState = clusterState;
+
+        return true;
+    }
+
+    /**
+     * Get cached entry or load it. Failed loads are not cached. Entry is shared by all callers, so each of them gets
+     * a dependent future, which cancellation does not complete the cached one. Loader is expected to be independent
+     * of a cancellable operation of a caller for the same reason.
+     *
+     * @param key Entry key.
+     * @param loader Entry loader.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> get(String key, Supplier<CompletableFuture<T>> loader) {
+        CompletableFuture<T> fut = (CompletableFuture<T>)entries.computeIfAbsent(key, k -> loader.get());
+
+        fut.whenComplete((val, err) -> {
+            if (err != null)
+                entries.remove(key, fut);
+        });
+
+        return fut.thenApply(Function.identity());
+    }
+
+    /**
+     * @return Topology version of cached entries.
+     */
+    public synchronized long topologyVersion() {
+        return topVer;
+    }
+
+    /**
+     * @return Cluster state of cached entries.
+     */
+    public synchronized ClusterState clusterState() {
+        return clusterState;
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ignite;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import dev.ignitop.ignite.metric.NodeUpTimes;
+import dev.ignitop.ignite.system.SystemMetricsInformation;
+import dev.ignitop.ignite.topology.OfflineNodeInfo;
+import dev.ignitop.ignite.topology.OnlineNodeInfo;
+import dev.ignitop.ignite.topology.TopologyInformation;
+import dev.ignitop.ignite.util.QueryResult;
+import dev.ignitop.ignite.util.SqlUtils;
+import org.apache.ignite.client.IgniteClient;
+import org.apache.ignite.cluster.ClusterState;
+import org.apache.ignite.lang.IgniteProductVersion;
+
+/**
+ * Collection backend, which answers with a few {@code SYS.*} SQL queries over the thin client instead of compute
+ * tasks. Node-local metrics (load average, data regions usage and data storage size) are not available via
+ * cluster-wide system views, so they are reported as {@link Double#NaN} and an empty data regions map.
+ */
+public class SqlIgniteHelper extends IgniteHelper {
+    /**
+     * @param addresses Addresses.
+     */
+    public SqlIgniteHelper(String... addresses) {
+        super(addresses);
+    }
+
+    /**
+     * @param parallelism Maximum amount of concurrent requests to the cluster.
+     * @param reqTimeout Request timeout in milliseconds, {@code 0} means no timeout.
+     * @param addresses Addresses.
+     */
+    public SqlIgniteHelper(int parallelism, long reqTimeout, String... addresses) {
+        super(parallelism, reqTimeout, addresses);
+    }
+
+    /** {@inheritDoc} */
+    @Override public CompletableFuture<TopologyInformation> topologyInformationAsync() {
+        return operation(op -> blockingCall(op, this::queryTopologyInformation));
+    }
+
+    /** {@inheritDoc} */
+    @Override public CompletableFuture<Collection<SystemMetricsInformation>> systemMetricsAsync() {
+        return operation(op -> blockingCall(op, this::querySystemMetrics));
+    }
+
+    /**
+     * Query topology information.
+     */
+    private TopologyInformation queryTopologyInformation() {
+        IgniteClient client = client();
+
+        long topVer = Long.parseLong(String.valueOf(singleValue(SqlUtils.topologyVersion(client), -1L)));
+        boolean rebalanced = Boolean.parseBoolean(
+            String.valueOf(singleValue(SqlUtils.clusterRebalanced(client), false)));
+        ClusterState clusterState = client.cluster().state();
+
+        QueryResult upTimesRes = SqlUtils.nodeUpTimes(client);
+
+        Map<UUID, Long> upTimes = NodeUpTimes.parse(upTimesRes.columns(), upTimesRes.rows(),
+            System.currentTimeMillis());
+
+        // Online flags of baseline nodes by consistent ids.
+        Map<String, Boolean> baseline = new HashMap<>();
+
+        for (List<?> row : SqlUtils.baselineNodes(client).rows())
+            baseline.put(String.valueOf(row.get(0)), Boolean.parseBoolean(String.valueOf(row.get(1))));
+
+        List<OnlineNodeInfo> onlineBaselineNodes = new ArrayList<>();
+        List<OnlineNodeInfo> nonBaselineNodes = new ArrayList<>();
+        List<OnlineNodeInfo> clientNodes = new ArrayList<>();
+
+        OnlineNodeInfo crd = null;
+
+        // Nodes are sorted by order, so the first server node is the oldest one, i.e. coordinator.
+        for (List<?> row : SqlUtils.nodes(client).rows()) {
+            OnlineNodeInfo info = toNodeInfo(row, upTimes);
+
+            if (Boolean.parseBoolean(String.valueOf(row.get(3)))) {
+                clientNodes.add(info);
+
+                continue;
+            }
+
+            if (crd == null)
+                crd = info;
+
+            if (baseline.containsKey(String.valueOf(info.consistentId())))
+                onlineBaselineNodes.add(info);
+            else
+                nonBaselineNodes.add(info);
+        }
+
+        Collection<OfflineNodeInfo> offlineBaselineNodes = baseline.containsValue(false) ?
+            SqlUtils.offlineNodes(client).rows().stream()
+                .map(row -> new OfflineNodeInfo(row.get(0), row.get(1), row.get(2)))
+                .collect(Collectors.toList()) :
+            List.of();
+
+        return new TopologyInformation(
+            onlineBaselineNodes,
+            offlineBaselineNodes,
+            nonBaselineNodes,
+            clientNodes,
+            crd,
+            topVer,
+            clusterState,
+            rebalanced);
+    }
+
+    /**
+     * Query system metrics of server nodes.
+     */
+    private Collection<SystemMetricsInformation> querySystemMetrics() {
+        return SqlUtils.serverNodeMetrics(client()).rows().stream()
+            .map(row -> new SystemMetricsInformation(
+                row.get(0),
+                toList(row.get(1)),
+                doubleValue(row.get(2)) * 100,
+                Double.NaN,
+                doubleValue(row.get(3)),
+                doubleValue(row.get(4)) / doubleValue(row.get(5)) * 100,
+                Map.of(),
+                Double.NaN))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Convert a row of {@link SqlUtils#NODES} query to a node information.
+     *
+     * @param row Row.
+     * @param upTimes Uptimes by node ids.
+     */
+    private static OnlineNodeInfo toNodeInfo(List<?> row, Map<UUID, Long> upTimes) {
+        UUID nodeId = row.get(0) instanceof UUID ? (UUID)row.get(0) : UUID.fromString(String.valueOf(row.get(0)));
+
+        return new OnlineNodeInfo(
+            nodeId,
+            row.get(1),
+            ((Number)row.get(4)).longValue(),
+            IgniteProductVersion.fromString(String.valueOf(row.get(2))),
+            toList(row.get(5)),
+            toList(row.get(6)),
+            upTimes.getOrDefault(nodeId, -1L));
+    }
+
+    /**
+     * @param qryRes Query result.
+     * @param dflt Default value.
+     * @return Value of the first column of the first row.
+     */
+    private static Object singleValue(QueryResult qryRes, Object dflt) {
+        return qryRes.isEmpty() ? dflt : qryRes.rows().get(0).get(0);
+    }
+
+    /**
+     * @param val Value.
+     */
+    private static double doubleValue(Object val) {
+        return val instanceof Number ? ((Number)val).doubleValue() : Double.NaN;
+    }
+
+    /**
+     * Parse collection, which is represented by system views as a string, e.g. {@code [host1, host2]}.
+     *
+     * @param val Value.
+     */
+    static List<String> toList(Object val) {
+        String str = String.valueOf(val).trim();
+
+        if (str.startsWith("[") && str.endsWith("]"))
+            str = str.substring(1, str.length() - 1);
+
+        if (str.isBlank())
+            return List.of();
+
+        return Arrays.stream(str.split(","))
+            .map(String::trim)
+            .collect(Collectors.toList());
+    }
+}
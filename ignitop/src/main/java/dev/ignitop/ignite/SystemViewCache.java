@@ -0,0 +1,64 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ignite;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+
+/**
+ * Refresh-scoped cache of system views. Each view is fetched from all nodes of a refresh by a single multi-node
+ * request on the first access, rows of a particular node are served from the cached result afterwards.
+ * A new cache is expected to be created for each refresh.
+ */
+public class SystemViewCache {
+    /** Ids of nodes, which views are fetched from. */
+    private final Set<UUID> nodeIds;
+
+    /** Multi-node view fetcher: view name and node ids to rows grouped by node ids. */
+    private final BiFunction<String, Set<UUID>, CompletableFuture<Map<UUID, List<List<?>>>>> fetcher;
+
+    /** Fetched views by names. */
+    private final ConcurrentMap<String, CompletableFuture<Map<UUID, List<List<?>>>>> views = new ConcurrentHashMap<>();
+
+    /**
+     * @param nodeIds Ids of nodes, which views are fetched from.
+     * @param fetcher Multi-node view fetcher.
+     */
+    public SystemViewCache(Set<UUID> nodeIds,
+        BiFunction<String, Set<UUID>, CompletableFuture<Map<UUID, List<List<?>>>>> fetcher) {
+        this.nodeIds = Collections.unmodifiableSet(nodeIds);
+        this.fetcher = fetcher;
+    }
+
+    /**
+     * Get rows of a system view of a node. View is fetched from all nodes of the refresh on the first access.
+     *
+     * @param sysViewName System view name.
+     * @param nodeId Node id.
+     */
+    public CompletableFuture<List<List<?>>> view(String sysViewName, UUID nodeId) {
+        return views.computeIfAbsent(sysViewName, name -> fetcher.apply(name, nodeIds))
+            .thenApply(rows -> rows.getOrDefault(nodeId, List.of()));
+    }
+}
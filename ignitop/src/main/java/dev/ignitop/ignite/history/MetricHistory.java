@@ -0,0 +1,348 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ignite.history;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import dev.ignitop.ignite.system.SystemMetricsInformation;
+import dev.ignitop.ignite.topology.OnlineNodeInfo;
+import dev.ignitop.ignite.topology.TopologyInformation;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * In-memory history of numeric metrics of nodes. The last samples of each metric of each node are kept in a
+ * {@link MetricRing}. Memory of all rings is limited by a fixed budget: when the budget is exhausted, series of the
+ * least recently updated node are evicted to make room for a new series. Nodes are identified by consistent IDs.
+ */
+public class MetricHistory {
+    /** Default memory budget in megabytes. */
+    public static final int DEFAULT_BUDGET_MB = 8;
+
+    /** Default amount of samples of a metric. */
+    public static final int DEFAULT_SAMPLES = 120;
+
+    /** CPU load in percents. */
+    public static final String CPU_LOAD = "CpuLoad";
+
+    /** Load average. */
+    public static final String LOAD_AVERAGE = "LoadAverage";
+
+    /** Garbage collector CPU load in percents. */
+    public static final String GC_CPU_LOAD = "GcCpuLoad";
+
+    /** Heap usage in percents. */
+    public static final String HEAP_USAGE = "HeapUsage";
+
+    /** Data storage size in gigabytes. */
+    public static final String DATA_STORAGE_SIZE = "DataStorageSize";
+
+    /** Node uptime in milliseconds. */
+    public static final String UP_TIME = "UpTime";
+
+    /** Prefix of data region usage in percents, which is followed by a data region name. */
+    public static final String DATA_REGION_USAGE_PREFIX = "DataRegionUsage:";
+
+    /** Amount of samples of a metric. */
+    private final int samples;
+
+    /** Maximum amount of series, which fit into the budget. */
+    private final int maxSeries;
+
+    /** Series of nodes. */
+    private final Map<Object, NodeSeries> nodes = new HashMap<>();
+
+    /** Names of data region metrics by data region names, so that names are not concatenated on every sample. */
+    private final Map<String, String> dataRegionMetrics = new HashMap<>();
+
+    /** Amount of series. */
+    private int seriesCnt;
+
+    /** Amount of samples, which were dropped, because budget is exhausted by series of the same node. */
+    private long dropped;
+
+    /**
+     * Creates history with default budget and amount of samples.
+     */
+    public MetricHistory() {
+        this(DEFAULT_BUDGET_MB * 1024L * 1024L, DEFAULT_SAMPLES);
+    }
+
+    /**
+     * @param budget Memory budget of samples in bytes.
+     * @param samples Amount of samples of a metric.
+     */
+    public MetricHistory(long budget, int samples) {
+        if (samples <= 0)
+            throw new IllegalArgumentException("Amount of samples must be positive: " + samples);
+
+        long seriesSize = (long)samples * MetricRing.SAMPLE_SIZE;
+
+        if (budget < seriesSize)
+            throw new IllegalArgumentException("Budget is less than size of a single series: " + budget);
+
+        this.samples = samples;
+
+        maxSeries = (int)Math.min(budget / seriesSize, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Append a sample.
+     *
+     * @param node Consistent ID of a node.
+     * @param metric Metric name.
+     * @param ts Timestamp in milliseconds.
+     * @param val Value.
+     * @return {@code False} if sample is dropped, because budget is exhausted.
+     */
+    public synchronized boolean append(Object node, String metric, long ts, double val) {
+        NodeSeries nodeSeries = nodes.get(node);
+
+        if (nodeSeries == null) {
+            nodeSeries = new NodeSeries();
+
+            nodes.put(node, nodeSeries);
+        }
+
+        nodeSeries.lastUpdate = ts;
+
+        MetricRing ring = nodeSeries.rings.get(metric);
+
+        if (ring == null) {
+            if (seriesCnt == maxSeries && !evictLeastRecentNode(node)) {
+                if (nodeSeries.rings.isEmpty())
+                    nodes.remove(node);
+
+                dropped++;
+
+                return false;
+            }
+
+            ring = new MetricRing(samples);
+
+            nodeSeries.rings.put(metric, ring);
+
+            seriesCnt++;
+        }
+
+        ring.append(ts, val);
+
+        return true;
+    }
+
+    /**
+     * Append samples of system metrics. Stale information is skipped, as it contains no new values.
+     *
+     * @param infos System metrics of nodes.
+     * @param ts Timestamp in milliseconds.
+     */
+    public synchronized void record(Collection<SystemMetricsInformation> infos, long ts) {
+        for (SystemMetricsInformation info : infos) {
+            if (info.stale())
+                continue;
+
+            Object node = info.consistentId();
+
+            append(node, CPU_LOAD, ts, info.cpuLoadPercent());
+            append(node, LOAD_AVERAGE, ts, info.loadAverage());
+            append(node, GC_CPU_LOAD, ts, info.gcCpuLoadPercent());
+            append(node, HEAP_USAGE, ts, info.heapUsagePercent());
+
+            for (Map.Entry<String, Double> e : info.dataRegionUsagesPercents().entrySet())
+                append(node, dataRegionUsage(e.getKey()), ts, e.getValue());
+
+            append(node, DATA_STORAGE_SIZE, ts, info.dataStorageSizeGigabytes());
+        }
+    }
+
+    /**
+     * Append uptimes of online server nodes and drop series of nodes, which left topology. Client nodes are not
+     * recorded: thousands of them would take most of the budget and would churn series on every refresh.
+     *
+     * @param topInfo Topology information.
+     * @param ts Timestamp in milliseconds.
+     */
+    public synchronized void record(TopologyInformation topInfo, long ts) {
+        Set<Object> online = new HashSet<>();
+
+        recordUpTimes(topInfo.onlineBaselineNodes(), ts, online);
+        recordUpTimes(topInfo.nonBaselineNodes(), ts, online);
+
+        retainNodes(online);
+    }
+
+    /**
+     * @param nodeInfos Online nodes.
+     * @param ts Timestamp in milliseconds.
+     * @param online Consistent IDs of online nodes, which are collected.
+     */
+    private void recordUpTimes(Collection<OnlineNodeInfo> nodeInfos, long ts, Set<Object> online) {
+        for (OnlineNodeInfo nodeInfo : nodeInfos) {
+            online.add(nodeInfo.consistentId());
+
+            append(nodeInfo.consistentId(), UP_TIME, ts, nodeInfo.upTime());
+        }
+    }
+
+    /**
+     * Drop series of nodes, which are not in a collection.
+     *
+     * @param retained Consistent IDs of nodes to retain.
+     */
+    public synchronized void retainNodes(Collection<?> retained) {
+        for (Iterator<Map.Entry<Object, NodeSeries>> it = nodes.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Object, NodeSeries> e = it.next();
+
+            if (!retained.contains(e.getKey())) {
+                seriesCnt -= e.getValue().rings.size();
+
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Copy the latest values of a metric in chronological order.
+     *
+     * @param node Consistent ID of a node.
+     * @param metric Metric name.
+     * @param dst Destination, values are copied to its beginning.
+     * @return Amount of copied values, {@code 0} if there is no such series.
+     */
+    public synchronized int copyValues(Object node, String metric, double[] dst) {
+        MetricRing ring = ring(node, metric);
+
+        return ring == null ? 0 : ring.copyValues(dst);
+    }
+
+    /**
+     * @param node Consistent ID of a node.
+     * @param metric Metric name.
+     * @return Value of the latest sample or {@link Double#NaN} if there are no samples.
+     */
+    public synchronized double last(Object node, String metric) {
+        MetricRing ring = ring(node, metric);
+
+        return ring == null ? Double.NaN : ring.last();
+    }
+
+    /**
+     * @param node Consistent ID of a node.
+     * @param metric Metric name.
+     * @return Amount of samples of a metric.
+     */
+    public synchronized int size(Object node, String metric) {
+        MetricRing ring = ring(node, metric);
+
+        return ring == null ? 0 : ring.size();
+    }
+
+    /**
+     * @return Amount of series.
+     */
+    public synchronized int seriesCount() {
+        return seriesCnt;
+    }
+
+    /**
+     * @return Maximum amount of series, which fit into the budget.
+     */
+    public int maxSeries() {
+        return maxSeries;
+    }
+
+    /**
+     * @return Amount of samples of a metric.
+     */
+    public int samples() {
+        return samples;
+    }
+
+    /**
+     * @return Amount of samples, which were dropped, because budget is exhausted.
+     */
+    public synchronized long dropped() {
+        return dropped;
+    }
+
+    /**
+     * @param drName Data region name.
+     * @return Name of a data region usage metric.
+     */
+    public synchronized String dataRegionUsage(String drName) {
+        String metric = dataRegionMetrics.get(drName);
+
+        if (metric == null) {
+            metric = DATA_REGION_USAGE_PREFIX + drName;
+
+            dataRegionMetrics.put(drName, metric);
+        }
+
+        return metric;
+    }
+
+    /**
+     * @param node Consistent ID of a node.
+     * @param metric Metric name.
+     */
+    @Nullable private MetricRing ring(Object node, String metric) {
+        NodeSeries nodeSeries = nodes.get(node);
+
+        return nodeSeries == null ? null : nodeSeries.rings.get(metric);
+    }
+
+    /**
+     * Evict series of the least recently updated node.
+     *
+     * @param except Consistent ID of a node, which series are not evicted.
+     * @return {@code True} if series were evicted.
+     */
+    private boolean evictLeastRecentNode(Object except) {
+        Map.Entry<Object, NodeSeries> lru = null;
+
+        for (Map.Entry<Object, NodeSeries> e : nodes.entrySet()) {
+            if (e.getKey().equals(except) || e.getValue().rings.isEmpty())
+                continue;
+
+            if (lru == null || e.getValue().lastUpdate < lru.getValue().lastUpdate)
+                lru = e;
+        }
+
+        if (lru == null)
+            return false;
+
+        seriesCnt -= lru.getValue().rings.size();
+
+        nodes.remove(lru.getKey());
+
+        return true;
+    }
+
+    /**
+     * Series of a node.
+     */
+    private static class NodeSeries {
+        /** Rings by metric names. */
+        private final Map<String, MetricRing> rings = new HashMap<>();
+
+        /** Timestamp of the latest sample. */
+        private long lastUpdate;
+    }
+}
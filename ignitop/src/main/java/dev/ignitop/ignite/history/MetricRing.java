@@ -0,0 +1,128 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ignite.history;
+
+/**
+ * Fixed-size ring buffer of timestamped samples of a single metric. Oldest sample is overwritten when buffer is full.
+ * Samples are stored in primitive arrays, which are allocated once, so appending never allocates.
+ */
+public class MetricRing {
+    /** Size of a sample in bytes: timestamp and value. */
+    public static final int SAMPLE_SIZE = Long.BYTES + Double.BYTES;
+
+    /** Timestamps in milliseconds. */
+    private final long[] timestamps;
+
+    /** Values. */
+    private final double[] values;
+
+    /** Index of a slot of the next sample. */
+    private int head;
+
+    /** Amount of samples. */
+    private int size;
+
+    /**
+     * @param capacity Maximum amount of samples.
+     */
+    public MetricRing(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+
+        timestamps = new long[capacity];
+        values = new double[capacity];
+    }
+
+    /**
+     * @param ts Timestamp in milliseconds.
+     * @param val Value.
+     */
+    public void append(long ts, double val) {
+        timestamps[head] = ts;
+        values[head] = val;
+
+        head = head + 1 == values.length ? 0 : head + 1;
+
+        if (size < values.length)
+            size++;
+    }
+
+    /**
+     * @return Maximum amount of samples.
+     */
+    public int capacity() {
+        return values.length;
+    }
+
+    /**
+     * @return Amount of samples.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param idx Index of a sample, {@code 0} is the oldest one.
+     * @return Timestamp of a sample in milliseconds.
+     */
+    public long timestamp(int idx) {
+        return timestamps[slot(idx)];
+    }
+
+    /**
+     * @param idx Index of a sample, {@code 0} is the oldest one.
+     * @return Value of a sample.
+     */
+    public double value(int idx) {
+        return values[slot(idx)];
+    }
+
+    /**
+     * @return Value of the latest sample or {@link Double#NaN} if there are no samples.
+     */
+    public double last() {
+        return size == 0 ? Double.NaN : value(size - 1);
+    }
+
+    /**
+     * Copy the latest values in chronological order.
+     *
+     * @param dst Destination, values are copied to its beginning.
+     * @return Amount of copied values.
+     */
+    public int copyValues(double[] dst) {
+        int cnt = Math.min(size, dst.length);
+
+        for (int i = 0; i < cnt; i++)
+            dst[i] = value(size - cnt + i);
+
+        return cnt;
+    }
+
+    /**
+     * @param idx Index of a sample, {@code 0} is the oldest one.
+     * @return Slot of a sample.
+     */
+    private int slot(int idx) {
+        if (idx < 0 || idx >= size)
+            throw new IndexOutOfBoundsException("Index: " + idx + ", size: " + size);
+
+        int slot = head - size + idx;
+
+        return slot < 0 ? slot + values.length : slot;
+    }
+}
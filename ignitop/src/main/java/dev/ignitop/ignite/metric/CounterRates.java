@@ -0,0 +1,174 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ignite.metric;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Derives per-second rates of monotonic counters (e.g. cache gets, WAL bytes, written pages) from consecutive samples.
+ * Previous value and timestamp of each counter of each node are kept, so a rate is known starting from the second
+ * sample. Counters of a node are forgotten on its restart, which is detected by a decrease of its uptime.
+ */
+public class CounterRates {
+    /** Node uptime metric, which is used to detect node restarts. */
+    public static final String UP_TIME_METRIC = "sys" + MetricsRequest.SEPARATOR + "UpTime";
+
+    /** Counters of nodes. */
+    private final Map<Object, NodeCounters> nodes = new HashMap<>();
+
+    /**
+     * Register an uptime of a node. Counters of a node are forgotten if uptime has decreased, i.e. node was restarted.
+     *
+     * @param node Node, e.g. consistent ID, which is kept between restarts.
+     * @param upTime Uptime in milliseconds, negative value means that uptime is unknown.
+     */
+    public synchronized void upTime(Object node, long upTime) {
+        if (upTime < 0)
+            return;
+
+        NodeCounters counters = counters(node);
+
+        if (upTime < counters.upTime)
+            counters.samples.clear();
+
+        counters.upTime = upTime;
+    }
+
+    /**
+     * Register a sample of a counter.
+     *
+     * @param node Node, e.g. consistent ID, which is kept between restarts.
+     * @param counter Counter name.
+     * @param ts Timestamp of a sample in milliseconds.
+     * @param val Value of a counter.
+     * @return Per-second rate since the previous sample, or {@link Double#NaN} if there is no previous sample, time has
+     * not advanced, or counter was reset.
+     */
+    public synchronized double rate(Object node, String counter, long ts, double val) {
+        NodeCounters counters = counters(node);
+
+        if (Double.isNaN(val)) {
+            counters.samples.remove(counter);
+
+            return Double.NaN;
+        }
+
+        Sample prev = counters.samples.get(counter);
+
+        if (prev == null) {
+            counters.samples.put(counter, new Sample(ts, val));
+
+            return Double.NaN;
+        }
+
+        // Counter, which has decreased without a restart of a node, was reset and is measured from a new value.
+        if (val < prev.val) {
+            prev.ts = ts;
+            prev.val = val;
+
+            return Double.NaN;
+        }
+
+        if (ts <= prev.ts)
+            return Double.NaN;
+
+        double rate = (val - prev.val) * 1000 / (ts - prev.ts);
+
+        prev.ts = ts;
+        prev.val = val;
+
+        return rate;
+    }
+
+    /**
+     * Register samples of counters of a node, uptime is taken from {@link #UP_TIME_METRIC} before rates are derived.
+     *
+     * @param node Node, e.g. consistent ID, which is kept between restarts.
+     * @param metrics Metrics of a node, which contain counters and uptime.
+     * @param counters Full names of counter metrics.
+     * @param ts Timestamp of metrics in milliseconds.
+     * @return Per-second rates by counter names, unknown rates are {@link Double#NaN}.
+     */
+    public synchronized Map<String, Double> rates(Object node, NodeMetrics metrics, Collection<String> counters,
+        long ts) {
+        upTime(node, metrics.longValue(UP_TIME_METRIC, -1L));
+
+        Map<String, Double> rates = new HashMap<>();
+
+        for (String counter : counters)
+            rates.put(counter, rate(node, counter, ts, metrics.doubleValue(counter, Double.NaN)));
+
+        return rates;
+    }
+
+    /**
+     * Forget counters of nodes, which are not in a collection, e.g. of nodes, which left topology.
+     *
+     * @param retained Nodes to retain.
+     */
+    public synchronized void retainNodes(Collection<?> retained) {
+        nodes.keySet().retainAll(retained);
+    }
+
+    /**
+     * @param node Node.
+     */
+    private NodeCounters counters(Object node) {
+        NodeCounters counters = nodes.get(node);
+
+        if (counters == null) {
+            counters = new NodeCounters();
+
+            nodes.put(node, counters);
+        }
+
+        return counters;
+    }
+
+    /**
+     * Counters of a node.
+     */
+    private static class NodeCounters {
+        /** Previous samples by counter names. */
+        private final Map<String, Sample> samples = new HashMap<>();
+
+        /** Last known uptime. */
+        private long upTime = -1L;
+    }
+
+    /**
+     * Previous sample of a counter, which is updated in place.
+     */
+    private static class Sample {
+        /** Timestamp in milliseconds. */
+        private long ts;
+
+        /** Value. */
+        private double val;
+
+        /**
+         * @param ts Timestamp in milliseconds.
+         * @param val Value.
+         */
+        private Sample(long ts, double val) {
+            this.ts = ts;
+            this.val = val;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ignite.metric;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Batched request of metrics for a single node. Request consists of metric registries (all metrics of a registry are
+ * requested) and single metrics. Single metrics, which belong to one of the requested registries, are resolved by
+ * a registry fetch, so the whole request is resolved by a minimal amount of metric task executions.
+ */
+public class MetricsRequest {
+    /** Metric names separator. */
+    public static final char SEPARATOR = '.';
+
+    /** Node id. */
+    private final UUID nodeId;
+
+    /** Requested registries. */
+    private final Set<String> registries = new TreeSet<>();
+
+    /** Requested single metrics. */
+    private final Set<String> metrics = new TreeSet<>();
+
+    /**
+     * @param nodeId Node id.
+     */
+    public MetricsRequest(UUID nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * Request all metrics of a registry.
+     *
+     * @param name Registry name.
+     */
+    public MetricsRequest registry(String name) {
+        registries.add(name);
+
+        return this;
+    }
+
+    /**
+     * Request single metrics.
+     *
+     * @param names Full metric names.
+     */
+    public MetricsRequest metric(String... names) {
+        Collections.addAll(metrics, names);
+
+        return this;
+    }
+
+    /**
+     * @return Node id.
+     */
+    public UUID nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Names to be resolved by separate metric task executions: all registries and single metrics, which are not
+     * covered by any of requested registries.
+     */
+    public Set<String> names() {
+        Set<String> names = new TreeSet<>(registries);
+
+        for (String metric : metrics) {
+            if (!coveredByRegistry(metric))
+                names.add(metric);
+        }
+
+        return Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * @param metric Metric name.
+     * @return {@code True} if metric belongs to one of requested registries.
+     */
+    private boolean coveredByRegistry(String metric) {
+        for (String registry : registries) {
+            if (metric.length() > registry.length() && metric.startsWith(registry) &&
+                metric.charAt(registry.length()) == SEPARATOR)
+                return true;
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ignite.metric;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Result of a {@link MetricsRequest}: values of all resolved metrics of a node, keyed by full metric names.
+ */
+public class NodeMetrics {
+    /** Node id. */
+    private final UUID nodeId;
+
+    /** Metric values by full metric names. */
+    private final Map<String, ?> values;
+
+    /**
+     * @param nodeId Node id.
+     * @param values Metric values by full metric names.
+     */
+    public NodeMetrics(UUID nodeId, Map<String, ?> values) {
+        this.nodeId = nodeId;
+        this.values = new HashMap<>(values);
+    }
+
+    /**
+     * @return Node id.
+     */
+    public UUID nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * @return All metric values by full metric names.
+     */
+    public Map<String, ?> values() {
+        return Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * @param name Full metric name.
+     */
+    public @Nullable Object value(String name) {
+        return values.get(name);
+    }
+
+    /**
+     * @param name Full metric name.
+     * @param dflt Default value.
+     */
+    public long longValue(String name, long dflt) {
+        Object val = values.get(name);
+
+        if (val instanceof Number)
+            return ((Number)val).longValue();
+
+        if (val == null)
+            return dflt;
+
+        try {
+            return Long.parseLong(String.valueOf(val));
+        }
+        catch (NumberFormatException ignored) {
+            return dflt;
+        }
+    }
+
+    /**
+     * Some double metrics are converted to strings by Ignite, so string values are parsed.
+     *
+     * @param name Full metric name.
+     * @param dflt Default value.
+     */
+    public double doubleValue(String name, double dflt) {
+        Object val = values.get(name);
+
+        if (val instanceof Number)
+            return ((Number)val).doubleValue();
+
+        if (val == null)
+            return dflt;
+
+        try {
+            return Double.parseDouble(String.valueOf(val));
+        }
+        catch (NumberFormatException ignored) {
+            return dflt;
+        }
+    }
+
+    /**
+     * @param name Full metric name.
+     * @param dflt Default value.
+     */
+    public boolean booleanValue(String name, boolean dflt) {
+        Object val = values.get(name);
+
+        if (val instanceof Boolean)
+            return (Boolean)val;
+
+        return val != null ? Boolean.parseBoolean(String.valueOf(val)) : dflt;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ignite.metric;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Uptimes of all nodes, parsed from a single {@code NODE_METRICS} system view. Each node publishes its metrics to the
+ * whole cluster, so the view of any server node contains rows of all nodes. Uptimes are computed from node start
+ * times against a single local timestamp, so all nodes are measured at the same moment.
+ */
+public final class NodeUpTimes {
+    /** Node metrics system view name. */
+    public static final String NODE_METRICS_VIEW = "NODE_METRICS";
+
+    /** Node id column. */
+    static final String NODE_ID_COLUMN = "nodeid";
+
+    /** Node start time column. */
+    static final String NODE_START_TIME_COLUMN = "nodestarttime";
+
+    /** Uptime column, is used if node start time is absent. */
+    static final String UPTIME_COLUMN = "uptime";
+
+    /**
+     * @param columns Column names of the view.
+     * @param rows Rows of the view.
+     * @param now Timestamp, which uptimes are computed for.
+     * @return Uptimes by node ids, nodes with unknown uptime are absent.
+     */
+    public static Map<UUID, Long> parse(List<String> columns, List<List<?>> rows, long now) {
+        int nodeIdIdx = columnIndex(columns, NODE_ID_COLUMN);
+
+        if (nodeIdIdx < 0)
+            return Map.of();
+
+        int startTimeIdx = columnIndex(columns, NODE_START_TIME_COLUMN);
+        int upTimeIdx = columnIndex(columns, UPTIME_COLUMN);
+
+        Map<UUID, Long> upTimes = new HashMap<>();
+
+        for (List<?> row : rows) {
+            UUID nodeId = toUuid(row.get(nodeIdIdx));
+
+            if (nodeId == null)
+                continue;
+
+            long upTime = -1L;
+
+            long startTime = startTimeIdx >= 0 ? toMillis(row.get(startTimeIdx)) : -1L;
+
+            if (startTime > 0)
+                upTime = Math.max(0, now - startTime);
+            else if (upTimeIdx >= 0 && row.get(upTimeIdx) instanceof Number)
+                upTime = ((Number)row.get(upTimeIdx)).longValue();
+
+            if (upTime >= 0)
+                upTimes.put(nodeId, upTime);
+        }
+
+        return upTimes;
+    }
+
+    /**
+     * Find column regardless of its case and underscores, i.e. both {@code NODE_ID} and {@code nodeId} are matched.
+     *
+     * @param columns Columns.
+     * @param name Normalized column name.
+     * @return Column index or {@code -1} if column is absent.
+     */
+    private static int columnIndex(List<String> columns, String name) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).replace("_", "").toLowerCase(Locale.ROOT).equals(name))
+                return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Node start time is a {@link Date} in the system view, though plain milliseconds are accepted too.
+     *
+     * @param val Value.
+     * @return Milliseconds or {@code -1} if value is not a time.
+     */
+    private static long toMillis(Object val) {
+        if (val instanceof Date)
+            return ((Date)val).getTime();
+
+        if (val instanceof Number)
+            return ((Number)val).longValue();
+
+        return -1L;
+    }
+
+    /**
+     * @param val Value.
+     */
+    private static UUID toUuid(Object val) {
+        if (val instanceof UUID)
+            return (UUID)val;
+
+        if (val instanceof String) {
+            try {
+                return UUID.fromString((String)val);
+            }
+            catch (IllegalArgumentException ignored) {
+                return null;
+            }
+        }
+
+        return null;
+    }
+}
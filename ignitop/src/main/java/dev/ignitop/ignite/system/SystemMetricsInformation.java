@@ -50,6 +50,9 @@ public class SystemMetricsInformation {
     /** Data storage size in gigabytes. */
     private final double dataStorageSizeGigabytes;
 
+    /** Stale flag, i.e. values are the last known ones, because node missed a deadline. */
+    private final boolean stale;
+
     /**
      * @param consistentId             Consistent ID.
      * @param hostNames                Node host names.
@@ -81,6 +84,43 @@ public class SystemMetricsInformation {
         this.dataRegionUsagesPercents.putAll(dataRegionUsagesPercents);
 
         this.dataStorageSizeGigabytes = dataStorageSizeGigabytes;
+
+        stale = false;
+    }
+
+    /**
+     * Copy constructor of stale information.
+     *
+     * @param info Information.
+     */
+    private SystemMetricsInformation(SystemMetricsInformation info) {
+        consistentId = info.consistentId;
+        hostNames = info.hostNames;
+        cpuLoadPercent = info.cpuLoadPercent;
+        loadAverage = info.loadAverage;
+        gcCpuLoadPercent = info.gcCpuLoadPercent;
+        heapUsagePercent = info.heapUsagePercent;
+        dataRegionUsagesPercents = info.dataRegionUsagesPercents;
+        dataStorageSizeGigabytes = info.dataStorageSizeGigabytes;
+
+        stale = true;
+    }
+
+    /**
+     * @param consistentId Consistent ID.
+     * @param hostNames Node host names.
+     * @return Stale information without any known values, e.g. for a node, which missed its first deadline.
+     */
+    public static SystemMetricsInformation unknown(Object consistentId, Collection<String> hostNames) {
+        return new SystemMetricsInformation(consistentId, hostNames, Double.NaN, Double.NaN, Double.NaN, Double.NaN,
+            Map.of(), Double.NaN).asStale();
+    }
+
+    /**
+     * @return Copy of information marked as stale.
+     */
+    public SystemMetricsInformation asStale() {
+        return stale ? this : new SystemMetricsInformation(this);
     }
 
     /**
@@ -138,4 +178,11 @@ public class SystemMetricsInformation {
     public double dataStorageSizeGigabytes() {
         return dataStorageSizeGigabytes;
     }
+
+    /**
+     * @return {@code True} if values are the last known ones, because node missed a deadline.
+     */
+    public boolean stale() {
+        return stale;
+    }
 }
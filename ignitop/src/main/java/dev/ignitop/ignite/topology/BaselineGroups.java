@@ -0,0 +1,96 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ignite.topology;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Server nodes grouped by their state in baseline: online baseline nodes, consistent ids of offline baseline nodes
+ * and nodes outside of baseline. Nodes are indexed by consistent ids, so grouping is linear in amount of nodes and
+ * baseline rows.
+ *
+ * @param <N> Node type.
+ */
+public class BaselineGroups<N> {
+    /** Online baseline nodes. */
+    private final List<N> online = new ArrayList<>();
+
+    /** Consistent ids of offline baseline nodes. */
+    private final Set<Object> offlineConsistentIds = new HashSet<>();
+
+    /** Server nodes outside of baseline. */
+    private final List<N> nonBaseline;
+
+    /**
+     * @param srvNodes Server nodes.
+     * @param consistentId Consistent id of a node.
+     * @param baselineNodesView Rows of baseline nodes view: consistent id and online flag.
+     */
+    public BaselineGroups(Collection<N> srvNodes, Function<? super N, ?> consistentId,
+        List<List<?>> baselineNodesView) {
+        Map<String, N> nonHandledNodes = new LinkedHashMap<>();
+
+        for (N node : srvNodes)
+            nonHandledNodes.put(String.valueOf(consistentId.apply(node)), node);
+
+        for (List<?> nodeInfo : baselineNodesView) {
+            String consId = String.valueOf(nodeInfo.get(0));
+            boolean isOnline = (boolean)nodeInfo.get(1);
+
+            N node = nonHandledNodes.get(consId);
+
+            if (node != null && isOnline) {
+                online.add(node);
+
+                nonHandledNodes.remove(consId);
+            }
+            else
+                offlineConsistentIds.add(consId);
+        }
+
+        nonBaseline = new ArrayList<>(nonHandledNodes.values());
+    }
+
+    /**
+     * @return Online baseline nodes.
+     */
+    public List<N> online() {
+        return Collections.unmodifiableList(online);
+    }
+
+    /**
+     * @return Consistent ids of offline baseline nodes.
+     */
+    public Set<Object> offlineConsistentIds() {
+        return Collections.unmodifiableSet(offlineConsistentIds);
+    }
+
+    /**
+     * @return Server nodes outside of baseline.
+     */
+    public List<N> nonBaseline() {
+        return Collections.unmodifiableList(nonBaseline);
+    }
+}
@@ -63,6 +63,51 @@ public class OnlineNodeInfo {
         this.upTime = upTime;
     }
 
+    /**
+     * @param nodeId Node id.
+     * @param consistentId Consistent id.
+     * @param order Order.
+     * @param igniteVer Ignite version.
+     * @param hostNames Host names.
+     * @param addresses Addresses.
+     * @param upTime Uptime.
+     */
+    public OnlineNodeInfo(UUID nodeId, Object consistentId, long order, IgniteProductVersion igniteVer,
+        Collection<String> hostNames, Collection<String> addresses, long upTime) {
+        this.nodeId = nodeId;
+        this.consistentId = consistentId;
+        this.order = order;
+        this.igniteVer = igniteVer;
+        this.hostNames = hostNames;
+        this.addresses = addresses;
+        this.upTime = upTime;
+    }
+
+    /**
+     * Copy constructor with a new uptime.
+     *
+     * @param info Node information.
+     * @param upTime Uptime.
+     */
+    private OnlineNodeInfo(OnlineNodeInfo info, long upTime) {
+        order = info.order;
+        nodeId = info.nodeId;
+        consistentId = info.consistentId;
+        igniteVer = info.igniteVer;
+        hostNames = info.hostNames;
+        addresses = info.addresses;
+
+        this.upTime = upTime;
+    }
+
+    /**
+     * @param upTime Uptime.
+     * @return Copy of node information with a new uptime.
+     */
+    public OnlineNodeInfo withUpTime(long upTime) {
+        return new OnlineNodeInfo(this, upTime);
+    }
+
     /**
      *
      */
@@ -17,6 +17,9 @@
 package dev.ignitop.ignite.topology;
 
 import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
 import org.apache.ignite.cluster.ClusterState;
 
 import static java.util.Collections.unmodifiableCollection;
@@ -134,4 +137,43 @@ public class TopologyInformation {
     public boolean rebalanced() {
         return rebalanced;
     }
+
+    /**
+     * Create a copy of topology information with refreshed volatile fields. It is expected, that topology version and
+     * cluster state have not changed, so all other fields are the same.
+     *
+     * @param upTimes Uptimes by node ids, uptime of a node is not changed if it is absent.
+     * @param rebalanced Rebalanced.
+     */
+    public TopologyInformation withVolatileFields(Map<UUID, Long> upTimes, boolean rebalanced) {
+        return new TopologyInformation(
+            withUpTimes(onlineBaselineNodes, upTimes),
+            offlineBaselineNodes,
+            withUpTimes(nonBaselineNodes, upTimes),
+            withUpTimes(clientNodes, upTimes),
+            withUpTime(crd, upTimes),
+            topVer,
+            clusterState,
+            rebalanced);
+    }
+
+    /**
+     * @param nodes Nodes.
+     * @param upTimes Uptimes by node ids.
+     */
+    private static Collection<OnlineNodeInfo> withUpTimes(Collection<OnlineNodeInfo> nodes, Map<UUID, Long> upTimes) {
+        return nodes.stream()
+            .map(n -> withUpTime(n, upTimes))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * @param node Node.
+     * @param upTimes Uptimes by node ids.
+     */
+    private static OnlineNodeInfo withUpTime(OnlineNodeInfo node, Map<UUID, Long> upTimes) {
+        Long upTime = upTimes.get(node.nodeId());
+
+        return upTime != null ? node.withUpTime(upTime) : node;
+    }
 }
@@ -96,6 +96,26 @@ public final class SqlUtils {
         "   CONSISTENT_ID not in (select CONSISTENT_ID from SYS.BASELINE_NODES) " +
         "order by NODE_ORDER";
 
+    /** All nodes. */
+    public static final String NODES = "select NODE_ID, CONSISTENT_ID, VERSION, IS_CLIENT, NODE_ORDER, HOSTNAMES, " +
+        "ADDRESSES " +
+        "from SYS.NODES " +
+        "order by NODE_ORDER";
+
+    /** Baseline nodes. */
+    public static final String BASELINE_NODES = "select CONSISTENT_ID, ONLINE from SYS.BASELINE_NODES";
+
+    /** Uptimes of all nodes. */
+    public static final String NODE_UPTIMES = "select NODE_ID, NODE_START_TIME, UP_TIME from SYS.NODE_METRICS";
+
+    /** System metrics of server nodes. */
+    public static final String SERVER_NODE_METRICS = "select n.CONSISTENT_ID, n.HOSTNAMES, m.CUR_CPU_LOAD, " +
+        "m.CUR_GC_CPU_LOAD, m.HEAP_MEMORY_USED, m.HEAP_MEMORY_MAXIMUM " +
+        "from SYS.NODES as n " +
+        "inner join SYS.NODE_METRICS as m " +
+        "on n.NODE_ID = m.NODE_ID " +
+        "where n.IS_CLIENT = 'false' " +
+        "order by n.NODE_ORDER";
 
     /**
      * @param client Client.
@@ -177,4 +197,32 @@ public final class SqlUtils {
     public static QueryResult clientNodes(IgniteClient client) {
         return executeQuery(client, CLIENT_NODES);
     }
+
+    /**
+     * @param client Client.
+     */
+    public static QueryResult nodes(IgniteClient client) {
+        return executeQuery(client, NODES);
+    }
+
+    /**
+     * @param client Client.
+     */
+    public static QueryResult baselineNodes(IgniteClient client) {
+        return executeQuery(client, BASELINE_NODES);
+    }
+
+    /**
+     * @param client Client.
+     */
+    public static QueryResult nodeUpTimes(IgniteClient client) {
+        return executeQuery(client, NODE_UPTIMES);
+    }
+
+    /**
+     * @param client Client.
+     */
+    public static QueryResult serverNodeMetrics(IgniteClient client) {
+        return executeQuery(client, SERVER_NODE_METRICS);
+    }
 }
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.session;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+import static dev.ignitop.session.SessionFormat.zigZag;
+
+/**
+ * Reusable growable buffer of encoded records, which is written to a channel at once.
+ */
+class ByteSink {
+    /** Buffer in write mode. */
+    private ByteBuffer buf;
+
+    /**
+     * @param capacity Initial capacity.
+     */
+    ByteSink(int capacity) {
+        buf = ByteBuffer.allocate(capacity);
+    }
+
+    /**
+     * @param b Byte.
+     */
+    ByteSink put(byte b) {
+        ensure(1);
+
+        buf.put(b);
+
+        return this;
+    }
+
+    /**
+     * @param val Long value, which is written as is.
+     */
+    ByteSink putLong(long val) {
+        ensure(Long.BYTES);
+
+        buf.putLong(val);
+
+        return this;
+    }
+
+    /**
+     * @param val Int value, which is written as is.
+     */
+    ByteSink putInt(int val) {
+        ensure(Integer.BYTES);
+
+        buf.putInt(val);
+
+        return this;
+    }
+
+    /**
+     * @param val Unsigned value, which is written as a variable-length integer.
+     */
+    ByteSink putVarLong(long val) {
+        ensure(10);
+
+        while ((val & ~0x7FL) != 0) {
+            buf.put((byte)((val & 0x7F) | 0x80));
+
+            val >>>= 7;
+        }
+
+        buf.put((byte)val);
+
+        return this;
+    }
+
+    /**
+     * @param val Signed value, which is written as a zigzag-encoded variable-length integer.
+     */
+    ByteSink putSignedVarLong(long val) {
+        return putVarLong(zigZag(val));
+    }
+
+    /**
+     * @param bytes Bytes, which are written with a length prefix.
+     */
+    ByteSink putBytes(byte[] bytes) {
+        putVarLong(bytes.length);
+
+        ensure(bytes.length);
+
+        buf.put(bytes);
+
+        return this;
+    }
+
+    /**
+     * @param sink Sink, which content is appended.
+     */
+    ByteSink put(ByteSink sink) {
+        ensure(sink.size());
+
+        buf.put(sink.buf.array(), 0, sink.size());
+
+        return this;
+    }
+
+    /**
+     * @return Amount of written bytes.
+     */
+    int size() {
+        return buf.position();
+    }
+
+    /**
+     * @param other Other sink.
+     * @return {@code True} if contents are equal.
+     */
+    boolean contentEquals(ByteSink other) {
+        return Arrays.equals(buf.array(), 0, size(), other.buf.array(), 0, other.size());
+    }
+
+    /**
+     * Replace content with a content of other sink.
+     *
+     * @param other Other sink.
+     */
+    void copyFrom(ByteSink other) {
+        reset();
+
+        put(other);
+    }
+
+    /**
+     * Write content to a channel and reset the sink.
+     *
+     * @param ch Channel.
+     */
+    void writeTo(WritableByteChannel ch) throws IOException {
+        buf.flip();
+
+        while (buf.hasRemaining())
+            ch.write(buf);
+
+        buf.clear();
+    }
+
+    /**
+     * Discard content.
+     */
+    void reset() {
+        buf.clear();
+    }
+
+    /**
+     * @param len Amount of bytes to be written.
+     */
+    private void ensure(int len) {
+        if (buf.remaining() >= len)
+            return;
+
+        ByteBuffer newBuf = ByteBuffer.allocate(Math.max(buf.capacity() * 2, buf.position() + len));
+
+        buf.flip();
+
+        newBuf.put(buf);
+
+        buf = newBuf;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.session;
+
+import java.util.Collection;
+import dev.ignitop.ignite.system.SystemMetricsInformation;
+import dev.ignitop.ignite.topology.TopologyInformation;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Snapshot, which is read from a recorded session: either topology information or system metrics of nodes.
+ */
+public class RecordedSnapshot {
+    /** Timestamp of collection in milliseconds. */
+    private final long ts;
+
+    /** Topology information. */
+    @Nullable private final TopologyInformation topInfo;
+
+    /** System metrics of nodes. */
+    @Nullable private final Collection<SystemMetricsInformation> sysMetrics;
+
+    /**
+     * @param ts Timestamp of collection in milliseconds.
+     * @param topInfo Topology information.
+     * @param sysMetrics System metrics of nodes.
+     */
+    RecordedSnapshot(long ts, @Nullable TopologyInformation topInfo,
+        @Nullable Collection<SystemMetricsInformation> sysMetrics) {
+        this.ts = ts;
+        this.topInfo = topInfo;
+        this.sysMetrics = sysMetrics;
+    }
+
+    /**
+     * @return Timestamp of collection in milliseconds.
+     */
+    public long timestamp() {
+        return ts;
+    }
+
+    /**
+     * @return Topology information or {@code null} if snapshot contains system metrics.
+     */
+    @Nullable public TopologyInformation topology() {
+        return topInfo;
+    }
+
+    /**
+     * @return System metrics of nodes or {@code null} if snapshot contains topology information.
+     */
+    @Nullable public Collection<SystemMetricsInformation> systemMetrics() {
+        return sysMetrics;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.session;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import dev.ignitop.ignite.IgniteHelper;
+import dev.ignitop.ignite.metric.MetricsRequest;
+import dev.ignitop.ignite.metric.NodeMetrics;
+import dev.ignitop.ignite.system.SystemMetricsInformation;
+import dev.ignitop.ignite.topology.TopologyInformation;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Ignite helper, which records every collected topology and system metrics snapshot of a delegate to a session file.
+ * Failure of a recording (e.g. a full disk) stops the recording, but does not fail collections.
+ */
+public class RecordingIgniteHelper extends IgniteHelper {
+    /** Delegate. */
+    private final IgniteHelper delegate;
+
+    /** Session writer. */
+    private final SessionWriter writer;
+
+    /** Failure, which stopped the recording. */
+    @Nullable private volatile Throwable failure;
+
+    /**
+     * @param delegate Delegate, which collects data from a cluster.
+     * @param writer Session writer.
+     */
+    public RecordingIgniteHelper(IgniteHelper delegate, SessionWriter writer) {
+        this.delegate = delegate;
+        this.writer = writer;
+    }
+
+    /** {@inheritDoc} */
+    @Override public CompletableFuture<TopologyInformation> topologyInformationAsync() {
+        return recorded(delegate.topologyInformationAsync(),
+            topInfo -> writer.write(topInfo, System.currentTimeMillis()));
+    }
+
+    /** {@inheritDoc} */
+    @Override public CompletableFuture<Collection<SystemMetricsInformation>> systemMetricsAsync() {
+        return recorded(delegate.systemMetricsAsync(),
+            sysMetrics -> writer.write(sysMetrics, System.currentTimeMillis()));
+    }
+
+    /** {@inheritDoc} */
+    @Override public CompletableFuture<Collection<NodeMetrics>> counterRatesAsync(Collection<String> counters) {
+        return delegate.counterRatesAsync(counters);
+    }
+
+    /** {@inheritDoc} */
+    @Override public NodeMetrics metrics(MetricsRequest req) {
+        return delegate.metrics(req);
+    }
+
+    /**
+     * @return Recording status.
+     */
+    public String status() {
+        Throwable failure0 = failure;
+
+        return failure0 == null ? "Recording" : "Recording stopped: " + failure0;
+    }
+
+    /**
+     * @param fut Future of a collection.
+     * @param rec Recording of a result.
+     * @return Future, which is completed after recording. Its cancellation cancels the collection.
+     */
+    private <T> CompletableFuture<T> recorded(CompletableFuture<T> fut, Consumer<T> rec) {
+        CompletableFuture<T> res = fut.thenApply(val -> {
+            if (failure == null) {
+                try {
+                    rec.accept(val);
+                }
+                catch (RuntimeException e) {
+                    failure = e.getCause() != null ? e.getCause() : e;
+                }
+            }
+
+            return val;
+        });
+
+        res.whenComplete((val, err) -> {
+            if (res.isCancelled())
+                fut.cancel(true);
+        });
+
+        return res;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void close() {
+        super.close();
+
+        delegate.close();
+
+        try {
+            writer.close();
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
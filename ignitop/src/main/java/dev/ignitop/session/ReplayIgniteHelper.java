@@ -0,0 +1,100 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.session;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import dev.ignitop.ignite.IgniteHelper;
+import dev.ignitop.ignite.metric.MetricsRequest;
+import dev.ignitop.ignite.metric.NodeMetrics;
+import dev.ignitop.ignite.system.SystemMetricsInformation;
+import dev.ignitop.ignite.topology.TopologyInformation;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Ignite helper, which returns snapshots of a recorded session at the position of a {@link SessionPlayer} instead of
+ * collecting them from a cluster. Metrics, which are not recorded, are reported as missing.
+ */
+public class ReplayIgniteHelper extends IgniteHelper {
+    /** Session player. */
+    private final SessionPlayer player;
+
+    /**
+     * @param player Session player.
+     */
+    public ReplayIgniteHelper(SessionPlayer player) {
+        this.player = player;
+    }
+
+    /**
+     * @return Session player.
+     */
+    public SessionPlayer player() {
+        return player;
+    }
+
+    /** {@inheritDoc} */
+    @Override public CompletableFuture<TopologyInformation> topologyInformationAsync() {
+        return replayed(player.topology(), "topology");
+    }
+
+    /** {@inheritDoc} */
+    @Override public CompletableFuture<Collection<SystemMetricsInformation>> systemMetricsAsync() {
+        return replayed(player.systemMetrics(), "system metrics");
+    }
+
+    /** {@inheritDoc} */
+    @Override public CompletableFuture<Collection<NodeMetrics>> counterRatesAsync(Collection<String> counters) {
+        return CompletableFuture.completedFuture(List.of());
+    }
+
+    /** {@inheritDoc} */
+    @Override public NodeMetrics metrics(MetricsRequest req) {
+        return new NodeMetrics(req.nodeId(), Map.of());
+    }
+
+    /**
+     * @param val Recorded value.
+     * @param name Name of a value.
+     * @return Future of a recorded value. Value, which was not recorded before the playback position, is treated like
+     * a missed deadline, so that a previous snapshot of a screen is kept.
+     */
+    private <T> CompletableFuture<T> replayed(@Nullable T val, String name) {
+        if (val == null) {
+            return CompletableFuture.failedFuture(
+                new TimeoutException("No " + name + " is recorded before " + player.status()));
+        }
+
+        return CompletableFuture.completedFuture(val);
+    }
+
+    /** {@inheritDoc} */
+    @Override public void close() {
+        super.close();
+
+        try {
+            player.close();
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
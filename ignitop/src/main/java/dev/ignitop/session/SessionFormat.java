@@ -0,0 +1,139 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.session;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Format of a recorded session. Session file is a sequence of blocks, each block is started by a {@link #BLOCK}
+ * record and is decoded independently of previous blocks: string dictionary and delta encoding state are reset at the
+ * start of a block. Records of a block:
+ * <ul>
+ *     <li>{@link #STRING} and {@link #UUID} - definitions of dictionary entries, which are referred by ids;</li>
+ *     <li>{@link #TOPOLOGY} and {@link #SYSTEM_METRICS} - snapshots, timestamped by a delta from the previous
+ *     record.</li>
+ * </ul>
+ * Numbers are written as variable-length integers, signed numbers are zigzag-encoded. Double values are quantized with
+ * precision {@code 1 / SCALE} and are written as deltas from the previous value of the same node.
+ */
+final class SessionFormat {
+    /** Magic number of a block. */
+    static final int MAGIC = 0x49475452;
+
+    /** Format version. */
+    static final byte VERSION = 1;
+
+    /** Block start: magic, version and absolute timestamp. */
+    static final byte BLOCK = 0;
+
+    /** String definition. */
+    static final byte STRING = 1;
+
+    /** UUID definition. */
+    static final byte UUID = 2;
+
+    /** Topology information snapshot. */
+    static final byte TOPOLOGY = 3;
+
+    /** System metrics snapshot. */
+    static final byte SYSTEM_METRICS = 4;
+
+    /** Maximum time span of a block in milliseconds. */
+    static final long BLOCK_INTERVAL = 5 * 60_000L;
+
+    /** Dictionary id of {@code null}, ids of entries start from {@code 1}. */
+    static final int NULL_ID = 0;
+
+    /** Scale of quantized double values. */
+    static final double SCALE = 100;
+
+    /** Quantized value of {@link Double#NaN}. */
+    static final long NAN = Long.MIN_VALUE;
+
+    /**
+     * @param val Value.
+     * @return Quantized value.
+     */
+    static long quantize(double val) {
+        return Double.isNaN(val) ? NAN : Math.round(val * SCALE);
+    }
+
+    /**
+     * @param q Quantized value.
+     * @return Value.
+     */
+    static double dequantize(long q) {
+        return q == NAN ? Double.NaN : q / SCALE;
+    }
+
+    /**
+     * @param val Signed value.
+     * @return Zigzag-encoded value, which is small for values of small magnitude.
+     */
+    static long zigZag(long val) {
+        return (val << 1) ^ (val >> 63);
+    }
+
+    /**
+     * @param val Zigzag-encoded value.
+     * @return Signed value.
+     */
+    static long unZigZag(long val) {
+        return (val >>> 1) ^ -(val & 1);
+    }
+
+    /**
+     * @param buf Buffer.
+     * @return Unsigned variable-length integer.
+     */
+    static long readVarLong(ByteBuffer buf) {
+        long res = 0;
+
+        for (int shift = 0; ; shift += 7) {
+            byte b = buf.get();
+
+            res |= (long)(b & 0x7F) << shift;
+
+            if (b >= 0)
+                return res;
+
+            if (shift > 56)
+                throw new IllegalStateException("Malformed variable-length integer");
+        }
+    }
+
+    /**
+     * @param buf Buffer.
+     * @return Zigzag-encoded variable-length integer.
+     */
+    static long readSignedVarLong(ByteBuffer buf) {
+        return unZigZag(readVarLong(buf));
+    }
+
+    /**
+     * @param buf Buffer.
+     * @return Variable-length integer, which fits into {@code int}.
+     */
+    static int readVarInt(ByteBuffer buf) {
+        long res = readVarLong(buf);
+
+        if (res > Integer.MAX_VALUE)
+            throw new IllegalStateException("Malformed variable-length integer: " + res);
+
+        return (int)res;
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.session;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Sparse time index of a session file: start timestamps and file offsets of blocks. Index is written by
+ * {@link SessionWriter} to a sibling file with {@link #SUFFIX}, an entry per block. As blocks are decoded
+ * independently, seeking to any moment of a recording decodes at most a couple of blocks instead of the whole file.
+ */
+final class SessionIndex {
+    /** Suffix of an index file. */
+    static final String SUFFIX = ".idx";
+
+    /** Size of an index entry: timestamp and offset. */
+    static final int ENTRY_SIZE = 16;
+
+    /** Start timestamps of blocks. */
+    private final long[] timestamps;
+
+    /** File offsets of blocks. */
+    private final long[] offsets;
+
+    /**
+     * @param timestamps Start timestamps of blocks.
+     * @param offsets File offsets of blocks.
+     */
+    private SessionIndex(long[] timestamps, long[] offsets) {
+        this.timestamps = timestamps;
+        this.offsets = offsets;
+    }
+
+    /**
+     * @param sessionFile Session file.
+     * @return Index file of a session.
+     */
+    static Path file(Path sessionFile) {
+        return sessionFile.resolveSibling(sessionFile.getFileName() + SUFFIX);
+    }
+
+    /**
+     * @param ts Block start timestamp.
+     * @param offset Block offset.
+     * @return Index entry.
+     */
+    static ByteBuffer entry(long ts, long offset) {
+        return ByteBuffer.allocate(ENTRY_SIZE).putLong(ts).putLong(offset).flip();
+    }
+
+    /**
+     * Load an index of a session. Entries, which do not point to block starts of the session (e.g. a torn write), are
+     * skipped, so that the index refers to a subset of blocks in the order of time. Index is rebuilt by a scan of the
+     * session if it is missing or has no valid entries.
+     *
+     * @param sessionFile Session file.
+     * @param reader Reader of the session, which is positioned at the start of the file on return.
+     */
+    static SessionIndex load(Path sessionFile, SessionReader reader) throws IOException {
+        Path idxFile = file(sessionFile);
+
+        if (Files.exists(idxFile)) {
+            ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(idxFile));
+
+            int cnt = 0;
+            long[] timestamps = new long[buf.remaining() / ENTRY_SIZE];
+            long[] offsets = new long[timestamps.length];
+
+            while (buf.remaining() >= ENTRY_SIZE) {
+                long ts = buf.getLong();
+                long offset = buf.getLong();
+
+                if (reader.blockStartsAt(offset) && (cnt == 0 || ts >= timestamps[cnt - 1])) {
+                    timestamps[cnt] = ts;
+                    offsets[cnt] = offset;
+
+                    cnt++;
+                }
+            }
+
+            if (cnt > 0)
+                return new SessionIndex(Arrays.copyOf(timestamps, cnt), Arrays.copyOf(offsets, cnt));
+        }
+
+        return build(reader);
+    }
+
+    /**
+     * Build an index by a sequential scan of a session.
+     *
+     * @param reader Reader of the session, which is positioned at the start of the file on return.
+     */
+    static SessionIndex build(SessionReader reader) {
+        int cnt = 0;
+        long[] timestamps = new long[16];
+        long[] offsets = new long[16];
+
+        reader.seek(0);
+
+        while (reader.next() != null) {
+            long offset = reader.blockOffset();
+
+            if (cnt > 0 && offsets[cnt - 1] == offset)
+                continue;
+
+            if (cnt > 0 && reader.blockTimestamp() < timestamps[cnt - 1])
+                continue;
+
+            if (cnt == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, cnt * 2);
+                offsets = Arrays.copyOf(offsets, cnt * 2);
+            }
+
+            timestamps[cnt] = reader.blockTimestamp();
+            offsets[cnt] = offset;
+
+            cnt++;
+        }
+
+        reader.seek(0);
+
+        return new SessionIndex(Arrays.copyOf(timestamps, cnt), Arrays.copyOf(offsets, cnt));
+    }
+
+    /**
+     * @return Amount of indexed blocks.
+     */
+    int size() {
+        return timestamps.length;
+    }
+
+    /**
+     * @param idx Index of a block.
+     * @return Start timestamp of a block.
+     */
+    long timestamp(int idx) {
+        return timestamps[idx];
+    }
+
+    /**
+     * @param idx Index of a block.
+     * @return File offset of a block.
+     */
+    long offset(int idx) {
+        return offsets[idx];
+    }
+
+    /**
+     * @param ts Timestamp.
+     * @return Index of the last block, which starts not later than a timestamp, {@code 0} if all blocks start later,
+     * or {@code -1} if index is empty.
+     */
+    int floor(long ts) {
+        int idx = Arrays.binarySearch(timestamps, ts);
+
+        if (idx < 0)
+            idx = -idx - 2;
+        else {
+            // The last one of blocks with equal timestamps.
+            while (idx + 1 < timestamps.length && timestamps[idx + 1] == ts)
+                idx++;
+        }
+
+        return timestamps.length == 0 ? -1 : Math.max(idx, 0);
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.session;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.function.LongSupplier;
+import dev.ignitop.ignite.system.SystemMetricsInformation;
+import dev.ignitop.ignite.topology.TopologyInformation;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Plays a recorded session back: playback position moves with the wall clock multiplied by a speed and can be paused
+ * or moved to any moment of a recording. The latest snapshots, which were recorded not later than the position, are
+ * current ones. Seeking uses a {@link SessionIndex sparse time index} and decodes only a couple of blocks.
+ */
+public class SessionPlayer implements AutoCloseable {
+    /** Format of a playback position. */
+    private static final DateTimeFormatter POSITION_FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    /** Session reader. */
+    private final SessionReader reader;
+
+    /** Time index of the session. */
+    private final SessionIndex index;
+
+    /** Wall clock in milliseconds. */
+    private final LongSupplier clock;
+
+    /** Timestamp of the first snapshot. */
+    private final long startTs;
+
+    /** Timestamp of the last snapshot. */
+    private final long endTs;
+
+    /** Playback position at {@link #anchorWallTs}. */
+    private long anchorPos;
+
+    /** Wall clock time, which playback position is counted from. */
+    private long anchorWallTs;
+
+    /** Playback speed. */
+    private int speed = 1;
+
+    /** Pause flag. */
+    private boolean paused;
+
+    /** Read snapshot, which is later than the playback position. */
+    @Nullable private RecordedSnapshot pending;
+
+    /** Current topology information. */
+    @Nullable private TopologyInformation topInfo;
+
+    /** Current system metrics. */
+    @Nullable private Collection<SystemMetricsInformation> sysMetrics;
+
+    /**
+     * @param file Session file.
+     */
+    public SessionPlayer(Path file) throws IOException {
+        this(file, System::currentTimeMillis);
+    }
+
+    /**
+     * @param file Session file.
+     * @param clock Wall clock in milliseconds.
+     */
+    SessionPlayer(Path file, LongSupplier clock) throws IOException {
+        this.clock = clock;
+
+        reader = new SessionReader(file);
+
+        try {
+            index = SessionIndex.load(file, reader);
+
+            if (index.size() == 0)
+                throw new IOException("Session file has no recorded snapshots: " + file);
+
+            reader.seek(index.offset(index.size() - 1));
+
+            long lastTs = index.timestamp(index.size() - 1);
+
+            for (RecordedSnapshot s = reader.next(); s != null; s = reader.next())
+                lastTs = Math.max(lastTs, s.timestamp());
+
+            startTs = index.timestamp(0);
+            endTs = lastTs;
+        }
+        catch (IOException | RuntimeException e) {
+            reader.close();
+
+            throw e;
+        }
+
+        seek(startTs);
+    }
+
+    /**
+     * @return Current topology information or {@code null} if it was not recorded before the playback position.
+     */
+    @Nullable public synchronized TopologyInformation topology() {
+        advance();
+
+        return topInfo;
+    }
+
+    /**
+     * @return Current system metrics or {@code null} if they were not recorded before the playback position.
+     */
+    @Nullable public synchronized Collection<SystemMetricsInformation> systemMetrics() {
+        advance();
+
+        return sysMetrics;
+    }
+
+    /**
+     * Apply snapshots, which were recorded not later than the playback position.
+     */
+    private void advance() {
+        long pos = position();
+
+        while (true) {
+            if (pending == null)
+                pending = reader.next();
+
+            if (pending == null || pending.timestamp() > pos)
+                return;
+
+            if (pending.topology() != null)
+                topInfo = pending.topology();
+            else
+                sysMetrics = pending.systemMetrics();
+
+            pending = null;
+        }
+    }
+
+    /**
+     * @return Playback position, i.e. timestamp of a recording.
+     */
+    public synchronized long position() {
+        long pos = paused ? anchorPos : anchorPos + (clock.getAsLong() - anchorWallTs) * speed;
+
+        return Math.min(pos, endTs);
+    }
+
+    /**
+     * Move playback position. Position is clamped to the recorded time span.
+     *
+     * @param ts Timestamp of a recording.
+     */
+    public synchronized void seek(long ts) {
+        long pos = Math.max(startTs, Math.min(ts, endTs));
+
+        // Previous block is decoded too, so that snapshots, which were recorded just before the start of the block of
+        // the position, become current ones.
+        reader.seek(index.offset(Math.max(index.floor(pos) - 1, 0)));
+
+        pending = null;
+        topInfo = null;
+        sysMetrics = null;
+
+        anchor(pos);
+    }
+
+    /**
+     * Move playback position relative to the current one.
+     *
+     * @param delta Delta in milliseconds, negative value moves backward.
+     */
+    public synchronized void skip(long delta) {
+        seek(position() + delta);
+    }
+
+    /**
+     * @param speed Playback speed, i.e. amount of recorded milliseconds per a millisecond of wall clock.
+     */
+    public synchronized void speed(int speed) {
+        if (speed <= 0)
+            throw new IllegalArgumentException("Playback speed must be positive: " + speed);
+
+        anchor(position());
+
+        this.speed = speed;
+    }
+
+    /**
+     * @return Playback speed.
+     */
+    public synchronized int speed() {
+        return speed;
+    }
+
+    /**
+     * Pause or resume playback.
+     */
+    public synchronized void togglePause() {
+        anchor(position());
+
+        paused = !paused;
+    }
+
+    /**
+     * @return {@code True} if playback is paused.
+     */
+    public synchronized boolean paused() {
+        return paused;
+    }
+
+    /**
+     * @return Timestamp of the first recorded snapshot.
+     */
+    public long start() {
+        return startTs;
+    }
+
+    /**
+     * @return Timestamp of the last recorded snapshot.
+     */
+    public long end() {
+        return endTs;
+    }
+
+    /**
+     * @return Human-readable playback status: position, speed and pause.
+     */
+    public synchronized String status() {
+        return POSITION_FORMAT.format(Instant.ofEpochMilli(position())) + ' ' + speed + 'x' +
+            (paused ? " paused" : position() == endTs ? " end" : "");
+    }
+
+    /**
+     * @param pos Playback position at the current wall clock time.
+     */
+    private void anchor(long pos) {
+        anchorPos = pos;
+        anchorWallTs = clock.getAsLong();
+    }
+
+    /** {@inheritDoc} */
+    @Override public void close() throws IOException {
+        reader.close();
+    }
+}
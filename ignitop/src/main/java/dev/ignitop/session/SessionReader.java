@@ -0,0 +1,473 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.session;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import dev.ignitop.ignite.system.SystemMetricsInformation;
+import dev.ignitop.ignite.topology.OfflineNodeInfo;
+import dev.ignitop.ignite.topology.OnlineNodeInfo;
+import dev.ignitop.ignite.topology.TopologyInformation;
+import org.apache.ignite.cluster.ClusterState;
+import org.apache.ignite.lang.IgniteProductVersion;
+import org.jetbrains.annotations.Nullable;
+
+import static dev.ignitop.session.SessionFormat.BLOCK;
+import static dev.ignitop.session.SessionFormat.MAGIC;
+import static dev.ignitop.session.SessionFormat.NULL_ID;
+import static dev.ignitop.session.SessionFormat.STRING;
+import static dev.ignitop.session.SessionFormat.SYSTEM_METRICS;
+import static dev.ignitop.session.SessionFormat.TOPOLOGY;
+import static dev.ignitop.session.SessionFormat.VERSION;
+import static dev.ignitop.session.SessionFormat.dequantize;
+import static dev.ignitop.session.SessionFormat.readSignedVarLong;
+import static dev.ignitop.session.SessionFormat.readVarInt;
+import static dev.ignitop.session.SessionFormat.readVarLong;
+
+/**
+ * Sequential reader of a session file, which is written by {@link SessionWriter}. File is mapped into memory. Reading
+ * stops at the end of file or at a truncated record, e.g. the last record of a session, which was interrupted by a
+ * crash. Record, which can not be decoded (e.g. a torn record followed by a later appended session), is skipped till
+ * the next block. Reader can be positioned at a start of any block, e.g. found by a {@link SessionIndex}.
+ */
+public class SessionReader implements AutoCloseable {
+    /** File channel. */
+    private final FileChannel ch;
+
+    /** Mapped file. */
+    private final ByteBuffer buf;
+
+    /** Dictionary entries of the current block, entry with index {@code 0} is {@code null}. */
+    private final List<Object> dict = new ArrayList<>();
+
+    /** Previous uptimes by dictionary ids of node ids. */
+    private final Map<Integer, Long> prevUpTimes = new HashMap<>();
+
+    /** Previous quantized system metrics by dictionary ids of consistent ids. */
+    private final Map<Integer, long[]> prevSysMetrics = new HashMap<>();
+
+    /** Previous quantized data region usages by dictionary ids of consistent ids and data region names. */
+    private final Map<Long, Long> prevDrUsages = new HashMap<>();
+
+    /** Online nodes of the previous topology without uptimes: coordinator, baseline, non-baseline and clients. */
+    private List<OnlineNodeInfo> prevOnline = List.of();
+
+    /** Dictionary ids of node ids of {@link #prevOnline}. */
+    private int[] prevOnlineIds = new int[0];
+
+    /** Offline baseline nodes of the previous topology. */
+    private List<OfflineNodeInfo> prevOffline = List.of();
+
+    /** Amounts of online baseline, non-baseline and client nodes of the previous topology. */
+    private final int[] prevGroupSizes = new int[3];
+
+    /** Timestamp of the previous record. */
+    private long prevTs;
+
+    /** Timestamp of the previous topology snapshot. */
+    private long prevTopTs;
+
+    /** Topology version of the previous topology snapshot. */
+    private long prevTopVer;
+
+    /** Offset of the current block, {@code -1} if no block was read yet. */
+    private long blockOffset = -1;
+
+    /** Start timestamp of the current block. */
+    private long blockTs;
+
+    /**
+     * @param file Session file.
+     */
+    public SessionReader(Path file) throws IOException {
+        ch = FileChannel.open(file, StandardOpenOption.READ);
+
+        if (ch.size() > Integer.MAX_VALUE) {
+            ch.close();
+
+            throw new IOException("Session file is too large: " + file);
+        }
+
+        buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+    }
+
+    /**
+     * @return Next snapshot or {@code null} if there are no more complete snapshots.
+     */
+    @Nullable public RecordedSnapshot next() {
+        while (buf.hasRemaining()) {
+            int start = buf.position();
+
+            try {
+                RecordedSnapshot snapshot = readRecord();
+
+                if (snapshot != null)
+                    return snapshot;
+            }
+            catch (RuntimeException ignored) {
+                // Truncated or torn record, decoding is resumed from the next block, if any.
+                int next = nextBlockStart(start + 1);
+
+                if (next < 0) {
+                    buf.position(start);
+
+                    return null;
+                }
+
+                buf.position(next);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @param from Offset to search from.
+     * @return Offset of the next block start or {@code -1} if there is none.
+     */
+    private int nextBlockStart(int from) {
+        for (int offset = from; offset + 6 <= buf.limit(); offset++) {
+            if (blockStartsAt(offset))
+                return offset;
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return Offset of the next record, i.e. the end of complete records once {@link #next()} returned {@code null}.
+     */
+    long position() {
+        return buf.position();
+    }
+
+    /**
+     * Position reader at a start of a block or at the start of file. Decoding state is reset by the block start.
+     *
+     * @param offset Offset of a block.
+     */
+    void seek(long offset) {
+        if (offset != 0 && !blockStartsAt(offset))
+            throw new IllegalArgumentException("Offset is not a block start: " + offset);
+
+        buf.position((int)offset);
+
+        blockOffset = -1;
+    }
+
+    /**
+     * @param offset Offset.
+     * @return {@code True} if a block of a supported format starts at an offset.
+     */
+    boolean blockStartsAt(long offset) {
+        return offset >= 0 && offset + 6 <= buf.limit() && buf.get((int)offset) == BLOCK &&
+            buf.getInt((int)offset + 1) == MAGIC && buf.get((int)offset + 5) == VERSION;
+    }
+
+    /**
+     * @return Offset of the block of the last read snapshot, {@code -1} if no block was read yet.
+     */
+    long blockOffset() {
+        return blockOffset;
+    }
+
+    /**
+     * @return Start timestamp of the block of the last read snapshot.
+     */
+    long blockTimestamp() {
+        return blockTs;
+    }
+
+    /**
+     * @return Snapshot or {@code null} if record is not a snapshot.
+     */
+    @Nullable private RecordedSnapshot readRecord() {
+        int start = buf.position();
+
+        byte type = buf.get();
+
+        switch (type) {
+            case BLOCK:
+                readBlockStart();
+
+                blockOffset = start;
+
+                return null;
+
+            case STRING:
+                byte[] bytes = new byte[readVarInt(buf)];
+
+                buf.get(bytes);
+
+                dict.add(new String(bytes, StandardCharsets.UTF_8));
+
+                return null;
+
+            case SessionFormat.UUID:
+                dict.add(new UUID(buf.getLong(), buf.getLong()));
+
+                return null;
+
+            case TOPOLOGY:
+                long topTs = prevTs + readSignedVarLong(buf);
+
+                prevTs = topTs;
+
+                return new RecordedSnapshot(topTs, readTopology(topTs), null);
+
+            case SYSTEM_METRICS:
+                long sysTs = prevTs + readSignedVarLong(buf);
+
+                prevTs = sysTs;
+
+                return new RecordedSnapshot(sysTs, null, readSystemMetrics());
+
+            default:
+                throw new IllegalStateException("Unknown record type: " + type);
+        }
+    }
+
+    /**
+     * Read a block start and reset decoding state.
+     */
+    private void readBlockStart() {
+        int magic = buf.getInt();
+        byte ver = buf.get();
+
+        if (magic != MAGIC || ver != VERSION)
+            throw new IllegalStateException("Unsupported session format: [magic=" + magic + ", ver=" + ver + ']');
+
+        long ts = buf.getLong();
+
+        dict.clear();
+        dict.add(null);
+
+        prevUpTimes.clear();
+        prevSysMetrics.clear();
+        prevDrUsages.clear();
+
+        prevOnline = List.of();
+        prevOnlineIds = new int[0];
+        prevOffline = List.of();
+
+        prevTs = ts;
+        prevTopTs = ts;
+        prevTopVer = 0;
+
+        blockTs = ts;
+    }
+
+    /**
+     * @param ts Timestamp of the snapshot.
+     */
+    private TopologyInformation readTopology(long ts) {
+        long topVer = prevTopVer + readSignedVarLong(buf);
+        ClusterState state = ClusterState.valueOf((String)entry(readVarInt(buf)));
+        boolean rebalanced = buf.get() == 1;
+        boolean same = buf.get() == 1;
+
+        if (!same)
+            readNodes();
+
+        long tsDelta = ts - prevTopTs;
+
+        List<OnlineNodeInfo> online = new ArrayList<>(prevOnline.size());
+
+        for (int i = 0; i < prevOnline.size(); i++) {
+            long upTime = readSignedVarLong(buf) +
+                SessionWriter.expectedUpTime(prevUpTimes.get(prevOnlineIds[i]), tsDelta);
+
+            prevUpTimes.put(prevOnlineIds[i], upTime);
+
+            online.add(prevOnline.get(i).withUpTime(upTime));
+        }
+
+        prevTopVer = topVer;
+        prevTopTs = ts;
+
+        int baselineEnd = 1 + prevGroupSizes[0];
+        int nonBaselineEnd = baselineEnd + prevGroupSizes[1];
+
+        return new TopologyInformation(
+            online.subList(1, baselineEnd),
+            prevOffline,
+            online.subList(baselineEnd, nonBaselineEnd),
+            online.subList(nonBaselineEnd, online.size()),
+            online.get(0),
+            topVer,
+            state,
+            rebalanced);
+    }
+
+    /**
+     * Read nodes of a changed topology.
+     */
+    private void readNodes() {
+        List<OnlineNodeInfo> online = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>();
+
+        readOnlineNode(online, ids);
+
+        prevGroupSizes[0] = readOnlineNodes(online, ids);
+
+        int offlineCnt = readVarInt(buf);
+
+        List<OfflineNodeInfo> offline = new ArrayList<>(offlineCnt);
+
+        for (int i = 0; i < offlineCnt; i++)
+            offline.add(new OfflineNodeInfo(entry(readVarInt(buf)), entry(readVarInt(buf)), entry(readVarInt(buf))));
+
+        prevGroupSizes[1] = readOnlineNodes(online, ids);
+        prevGroupSizes[2] = readOnlineNodes(online, ids);
+
+        prevOnline = online;
+        prevOnlineIds = ids.stream().mapToInt(Integer::intValue).toArray();
+        prevOffline = Collections.unmodifiableList(offline);
+    }
+
+    /**
+     * @param online Online nodes.
+     * @param ids Dictionary ids of node ids.
+     * @return Amount of read nodes.
+     */
+    private int readOnlineNodes(List<OnlineNodeInfo> online, List<Integer> ids) {
+        int cnt = readVarInt(buf);
+
+        for (int i = 0; i < cnt; i++)
+            readOnlineNode(online, ids);
+
+        return cnt;
+    }
+
+    /**
+     * @param online Online nodes.
+     * @param ids Dictionary ids of node ids.
+     */
+    private void readOnlineNode(List<OnlineNodeInfo> online, List<Integer> ids) {
+        int id = readVarInt(buf);
+        Object consId = entry(readVarInt(buf));
+        long order = readSignedVarLong(buf);
+        String ver = (String)entry(readVarInt(buf));
+        Collection<String> hostNames = readStrings();
+        Collection<String> addrs = readStrings();
+
+        online.add(new OnlineNodeInfo((UUID)entry(id), consId, order,
+            ver == null ? null : IgniteProductVersion.fromString(ver), hostNames, addrs, -1L));
+
+        ids.add(id);
+    }
+
+    /**
+     * @return System metrics of nodes.
+     */
+    private Collection<SystemMetricsInformation> readSystemMetrics() {
+        int cnt = readVarInt(buf);
+
+        List<SystemMetricsInformation> infos = new ArrayList<>(cnt);
+
+        for (int i = 0; i < cnt; i++) {
+            int consId = readVarInt(buf);
+            Collection<String> hostNames = readStrings();
+            boolean stale = buf.get() == 1;
+
+            long[] prev = prevSysMetrics.computeIfAbsent(consId, k -> new long[5]);
+
+            double cpu = readDelta(prev, 0);
+            double loadAvg = readDelta(prev, 1);
+            double gcCpu = readDelta(prev, 2);
+            double heap = readDelta(prev, 3);
+            double storage = readDelta(prev, 4);
+
+            int drCnt = readVarInt(buf);
+
+            Map<String, Double> drUsages = new HashMap<>();
+
+            for (int j = 0; j < drCnt; j++) {
+                int drName = readVarInt(buf);
+
+                long key = (long)consId << 32 | drName;
+
+                long q = prevDrUsages.getOrDefault(key, 0L) + readSignedVarLong(buf);
+
+                prevDrUsages.put(key, q);
+
+                drUsages.put((String)entry(drName), dequantize(q));
+            }
+
+            SystemMetricsInformation info = new SystemMetricsInformation(entry(consId), hostNames, cpu, loadAvg, gcCpu,
+                heap, drUsages, storage);
+
+            infos.add(stale ? info.asStale() : info);
+        }
+
+        return Collections.unmodifiableList(infos);
+    }
+
+    /**
+     * @param prev Previous quantized values.
+     * @param idx Index of a value.
+     */
+    private double readDelta(long[] prev, int idx) {
+        prev[idx] += readSignedVarLong(buf);
+
+        return dequantize(prev[idx]);
+    }
+
+    /**
+     * @return Strings.
+     */
+    private Collection<String> readStrings() {
+        int cnt = readVarInt(buf);
+
+        List<String> strs = new ArrayList<>(cnt);
+
+        for (int i = 0; i < cnt; i++)
+            strs.add((String)entry(readVarInt(buf)));
+
+        return strs;
+    }
+
+    /**
+     * @param id Dictionary id.
+     * @return Dictionary entry.
+     */
+    @Nullable private Object entry(int id) {
+        if (id == NULL_ID)
+            return null;
+
+        if (id >= dict.size())
+            throw new IllegalStateException("Undefined dictionary entry: " + id);
+
+        return dict.get(id);
+    }
+
+    /** {@inheritDoc} */
+    @Override public void close() throws IOException {
+        ch.close();
+    }
+}
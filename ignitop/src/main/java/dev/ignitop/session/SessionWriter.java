@@ -0,0 +1,442 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.session;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import dev.ignitop.ignite.system.SystemMetricsInformation;
+import dev.ignitop.ignite.topology.OfflineNodeInfo;
+import dev.ignitop.ignite.topology.OnlineNodeInfo;
+import dev.ignitop.ignite.topology.TopologyInformation;
+import org.jetbrains.annotations.Nullable;
+
+import static dev.ignitop.session.SessionFormat.BLOCK;
+import static dev.ignitop.session.SessionFormat.BLOCK_INTERVAL;
+import static dev.ignitop.session.SessionFormat.MAGIC;
+import static dev.ignitop.session.SessionFormat.NULL_ID;
+import static dev.ignitop.session.SessionFormat.STRING;
+import static dev.ignitop.session.SessionFormat.SYSTEM_METRICS;
+import static dev.ignitop.session.SessionFormat.TOPOLOGY;
+import static dev.ignitop.session.SessionFormat.VERSION;
+import static dev.ignitop.session.SessionFormat.quantize;
+
+/**
+ * Appends collected snapshots to a session file in a compact binary {@link SessionFormat format}. Each snapshot is
+ * encoded into a reusable buffer and is written to a file channel at once, so a crash loses at most the last
+ * snapshot. Strings are interned into a per-block dictionary, numbers are delta-encoded against the previous snapshot:
+ * unchanged topology costs a few bytes per node, and system metrics cost about a byte per value. Start of every block
+ * is appended to a {@link SessionIndex sparse time index}.
+ */
+public class SessionWriter implements AutoCloseable {
+    /** Initial capacity of buffers. */
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+
+    /** Comparator of online nodes. */
+    private static final Comparator<OnlineNodeInfo> ONLINE_ORDER = Comparator.comparingLong(OnlineNodeInfo::order);
+
+    /** Comparator of offline nodes. */
+    private static final Comparator<OfflineNodeInfo> OFFLINE_ORDER =
+        Comparator.comparing(n -> String.valueOf(n.consistentId()));
+
+    /** File channel. */
+    private final FileChannel ch;
+
+    /** File channel of an index. */
+    private final FileChannel idxCh;
+
+    /** Records, which are written at once: dictionary definitions followed by a snapshot. */
+    private final ByteSink out = new ByteSink(INITIAL_CAPACITY);
+
+    /** Payload of a snapshot. */
+    private final ByteSink payload = new ByteSink(INITIAL_CAPACITY);
+
+    /** Static part of the current topology, i.e. nodes without uptimes. */
+    private final ByteSink topStatic = new ByteSink(INITIAL_CAPACITY);
+
+    /** Static part of the previous topology. */
+    private final ByteSink prevTopStatic = new ByteSink(INITIAL_CAPACITY);
+
+    /** Dictionary ids of strings and UUIDs of the current block. */
+    private final Map<Object, Integer> dict = new HashMap<>();
+
+    /** Previous uptimes by dictionary ids of node ids. */
+    private final Map<Integer, Long> prevUpTimes = new HashMap<>();
+
+    /** Previous quantized system metrics by dictionary ids of consistent ids. */
+    private final Map<Integer, long[]> prevSysMetrics = new HashMap<>();
+
+    /** Previous quantized data region usages by dictionary ids of consistent ids and data region names. */
+    private final Map<Long, Long> prevDrUsages = new HashMap<>();
+
+    /** Start timestamp of the current block, {@code -1} if there is no started block. */
+    private long blockStart = -1;
+
+    /** Flag of a block, which is started by the current record. */
+    private boolean newBlock;
+
+    /** Timestamp of the previous record. */
+    private long prevTs;
+
+    /** Timestamp of the previous topology snapshot. */
+    private long prevTopTs;
+
+    /** Topology version of the previous topology snapshot. */
+    private long prevTopVer;
+
+    /**
+     * Open a session file for appending. Torn record at the end of a session (e.g. interrupted by a crash) is
+     * truncated, so appended records are not decoded as its rest.
+     *
+     * @param file File.
+     */
+    public SessionWriter(Path file) throws IOException {
+        ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+        try {
+            if (ch.size() > 0)
+                ch.truncate(completeLength(file));
+
+            idxCh = FileChannel.open(SessionIndex.file(file), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        }
+        catch (IOException | RuntimeException e) {
+            ch.close();
+
+            throw e;
+        }
+    }
+
+    /**
+     * @param file Session file.
+     * @return Length of complete records of a session, only the last indexed block is scanned.
+     */
+    private static long completeLength(Path file) throws IOException {
+        try (SessionReader reader = new SessionReader(file)) {
+            SessionIndex idx = SessionIndex.load(file, reader);
+
+            if (idx.size() > 0)
+                reader.seek(idx.offset(idx.size() - 1));
+
+            while (reader.next() != null) {
+                // Complete records are skipped.
+            }
+
+            return reader.position();
+        }
+    }
+
+    /**
+     * @param topInfo Topology information.
+     * @param ts Timestamp of collection in milliseconds.
+     */
+    public synchronized void write(TopologyInformation topInfo, long ts) {
+        startRecord(ts);
+
+        List<OnlineNodeInfo> online = new ArrayList<>();
+
+        topStatic.reset();
+
+        putOnlineNode(topStatic, topInfo.coordinator());
+        online.add(topInfo.coordinator());
+
+        putOnlineNodes(topStatic, topInfo.onlineBaselineNodes(), online);
+
+        List<OfflineNodeInfo> offline = new ArrayList<>(topInfo.offlineBaselineNodes());
+        offline.sort(OFFLINE_ORDER);
+
+        topStatic.putVarLong(offline.size());
+
+        for (OfflineNodeInfo node : offline) {
+            topStatic.putVarLong(id(node.consistentId() == null ? null : String.valueOf(node.consistentId())));
+            topStatic.putVarLong(id(node.hostNames()));
+            topStatic.putVarLong(id(node.addresses()));
+        }
+
+        putOnlineNodes(topStatic, topInfo.nonBaselineNodes(), online);
+        putOnlineNodes(topStatic, topInfo.clientNodes(), online);
+
+        payload.putSignedVarLong(topInfo.topologyVersion() - prevTopVer);
+        payload.putVarLong(id(topInfo.clusterState().name()));
+        payload.put((byte)(topInfo.rebalanced() ? 1 : 0));
+
+        // Nodes are written only if topology has changed, otherwise only uptimes follow.
+        boolean same = topStatic.contentEquals(prevTopStatic);
+
+        payload.put((byte)(same ? 1 : 0));
+
+        if (!same) {
+            payload.put(topStatic);
+
+            prevTopStatic.copyFrom(topStatic);
+        }
+
+        long tsDelta = ts - prevTopTs;
+
+        for (OnlineNodeInfo node : online) {
+            int nodeId = id(node.nodeId());
+
+            long upTime = node.upTime();
+
+            payload.putSignedVarLong(upTime - expectedUpTime(prevUpTimes.get(nodeId), tsDelta));
+
+            prevUpTimes.put(nodeId, upTime);
+        }
+
+        prevTopVer = topInfo.topologyVersion();
+        prevTopTs = ts;
+
+        finishRecord(TOPOLOGY, ts);
+    }
+
+    /**
+     * @param infos System metrics of nodes.
+     * @param ts Timestamp of collection in milliseconds.
+     */
+    public synchronized void write(Collection<SystemMetricsInformation> infos, long ts) {
+        startRecord(ts);
+
+        payload.putVarLong(infos.size());
+
+        for (SystemMetricsInformation info : infos) {
+            int consId = id(String.valueOf(info.consistentId()));
+
+            payload.putVarLong(consId);
+            putStrings(payload, info.hostNames());
+            payload.put((byte)(info.stale() ? 1 : 0));
+
+            long[] prev = prevSysMetrics.computeIfAbsent(consId, k -> new long[5]);
+
+            putDelta(prev, 0, info.cpuLoadPercent());
+            putDelta(prev, 1, info.loadAverage());
+            putDelta(prev, 2, info.gcCpuLoadPercent());
+            putDelta(prev, 3, info.heapUsagePercent());
+            putDelta(prev, 4, info.dataStorageSizeGigabytes());
+
+            Map<String, Double> drUsages = info.dataRegionUsagesPercents();
+
+            payload.putVarLong(drUsages.size());
+
+            for (Map.Entry<String, Double> e : drUsages.entrySet()) {
+                int drName = id(e.getKey());
+
+                long key = (long)consId << 32 | drName;
+
+                long q = quantize(e.getValue());
+
+                payload.putVarLong(drName);
+                payload.putSignedVarLong(q - prevDrUsages.getOrDefault(key, 0L));
+
+                prevDrUsages.put(key, q);
+            }
+        }
+
+        finishRecord(SYSTEM_METRICS, ts);
+    }
+
+    /**
+     * @param prevUpTime Previous uptime or {@code null}.
+     * @param tsDelta Time since the previous topology snapshot.
+     * @return Expected uptime, so that a steadily running node costs a single byte.
+     */
+    static long expectedUpTime(@Nullable Long prevUpTime, long tsDelta) {
+        return prevUpTime == null || prevUpTime < 0 ? 0 : prevUpTime + tsDelta;
+    }
+
+    /**
+     * @param prev Previous quantized values.
+     * @param idx Index of a value.
+     * @param val Value.
+     */
+    private void putDelta(long[] prev, int idx, double val) {
+        long q = quantize(val);
+
+        // Overflow of a delta of NaN is reverted on decoding.
+        payload.putSignedVarLong(q - prev[idx]);
+
+        prev[idx] = q;
+    }
+
+    /**
+     * @param sink Sink.
+     * @param nodes Online nodes.
+     * @param online Online nodes in order of writing.
+     */
+    private void putOnlineNodes(ByteSink sink, Collection<OnlineNodeInfo> nodes, List<OnlineNodeInfo> online) {
+        List<OnlineNodeInfo> sorted = new ArrayList<>(nodes);
+        sorted.sort(ONLINE_ORDER);
+
+        sink.putVarLong(sorted.size());
+
+        for (OnlineNodeInfo node : sorted)
+            putOnlineNode(sink, node);
+
+        online.addAll(sorted);
+    }
+
+    /**
+     * @param sink Sink.
+     * @param node Online node.
+     */
+    private void putOnlineNode(ByteSink sink, OnlineNodeInfo node) {
+        sink.putVarLong(id(node.nodeId()));
+        sink.putVarLong(id(node.consistentId() == null ? null : String.valueOf(node.consistentId())));
+        sink.putSignedVarLong(node.order());
+        sink.putVarLong(id(node.igniteVersion() == null ? null : node.igniteVersion().toString()));
+
+        putStrings(sink, node.hostNames());
+        putStrings(sink, node.addresses());
+    }
+
+    /**
+     * @param sink Sink.
+     * @param strs Strings.
+     */
+    private void putStrings(ByteSink sink, @Nullable Collection<String> strs) {
+        if (strs == null) {
+            sink.putVarLong(0);
+
+            return;
+        }
+
+        sink.putVarLong(strs.size());
+
+        for (String str : strs)
+            sink.putVarLong(id(str));
+    }
+
+    /**
+     * Get a dictionary id of a string or a UUID, new entry is defined in the output.
+     *
+     * @param val Value.
+     */
+    private int id(@Nullable Object val) {
+        if (val == null)
+            return NULL_ID;
+
+        Integer id = dict.get(val);
+
+        if (id == null) {
+            id = dict.size() + 1;
+
+            dict.put(val, id);
+
+            if (val instanceof UUID) {
+                out.put(SessionFormat.UUID)
+                    .putLong(((UUID)val).getMostSignificantBits())
+                    .putLong(((UUID)val).getLeastSignificantBits());
+            }
+            else
+                out.put(STRING).putBytes(((String)val).getBytes(StandardCharsets.UTF_8));
+        }
+
+        return id;
+    }
+
+    /**
+     * Start a new block if needed and prepare buffers.
+     *
+     * @param ts Timestamp of a record.
+     */
+    private void startRecord(long ts) {
+        out.reset();
+        payload.reset();
+
+        newBlock = false;
+
+        if (blockStart < 0 || ts - blockStart >= BLOCK_INTERVAL || ts < blockStart) {
+            dict.clear();
+            prevUpTimes.clear();
+            prevSysMetrics.clear();
+            prevDrUsages.clear();
+            prevTopStatic.reset();
+            prevTopVer = 0;
+
+            blockStart = ts;
+            prevTs = ts;
+            prevTopTs = ts;
+
+            out.put(BLOCK).putInt(MAGIC).put(VERSION).putLong(ts);
+
+            newBlock = true;
+        }
+    }
+
+    /**
+     * Append a snapshot record after dictionary definitions and write them to the file.
+     *
+     * @param type Record type.
+     * @param ts Timestamp of a record.
+     */
+    private void finishRecord(byte type, long ts) {
+        out.put(type).putSignedVarLong(ts - prevTs).put(payload);
+
+        prevTs = ts;
+
+        long offset = -1;
+
+        try {
+            offset = ch.size();
+
+            out.writeTo(ch);
+
+            // Index is written after the block, so it never refers to a missing block.
+            if (newBlock) {
+                ByteBuffer entry = SessionIndex.entry(blockStart, offset);
+
+                while (entry.hasRemaining())
+                    idxCh.write(entry);
+            }
+        }
+        catch (IOException e) {
+            // Encoding state is not consistent with the file any more, so a new block is started by the next record.
+            blockStart = -1;
+
+            // Partially written record is dropped, if possible.
+            if (offset >= 0) {
+                try {
+                    ch.truncate(offset);
+                }
+                catch (IOException e0) {
+                    e.addSuppressed(e0);
+                }
+            }
+
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override public synchronized void close() throws IOException {
+        try {
+            ch.close();
+        }
+        finally {
+            idxCh.close();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ui;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduler of collections, which never overlap: a next collection is scheduled only after completion of a previous
+ * one. Latency of each collection is measured, and delay is stretched when the cluster is slow, so that cluster is
+ * busy with collections not more than a half of the time.
+ */
+public class AdaptiveScheduler {
+    /** Minimum interval in milliseconds. */
+    public static final long MIN_INTERVAL = 1000;
+
+    /** Maximum interval in milliseconds. */
+    public static final long MAX_INTERVAL = 60_000;
+
+    /** Interval step in milliseconds, which is used by interval increment and decrement. */
+    public static final long INTERVAL_STEP = 1000;
+
+    /** Executor. */
+    private final ScheduledExecutorService exec;
+
+    /** Collection task. */
+    private final Runnable task;
+
+    /** Future, which is completed exceptionally if collection task fails, or normally when scheduler is stopped. */
+    private final CompletableFuture<Void> termination = new CompletableFuture<>();
+
+    /** Desired interval between starts of collections in milliseconds. */
+    private long interval;
+
+    /** Latency of the last collection in milliseconds. */
+    private long lastLatency;
+
+    /** Generation of a scheduled collection, only collection of the current generation schedules a next one. */
+    private long gen;
+
+    /**
+     * @param exec Single-threaded executor, which performs collections.
+     * @param task Collection task.
+     * @param interval Desired interval between starts of collections in milliseconds.
+     */
+    public AdaptiveScheduler(ScheduledExecutorService exec, Runnable task, long interval) {
+        this.exec = exec;
+        this.task = task;
+        this.interval = bounded(interval);
+    }
+
+    /**
+     * Start collection immediately. Scheduled collection is replaced, and collection in progress is not interrupted:
+     * the new one starts after its completion.
+     */
+    public synchronized void trigger() {
+        schedule(++gen, 0);
+    }
+
+    /**
+     * Stop scheduling of collections.
+     */
+    public synchronized void stop() {
+        gen++;
+
+        termination.complete(null);
+    }
+
+    /**
+     * @return Future, which is completed exceptionally if collection fails, or normally when scheduler is stopped.
+     */
+    public CompletableFuture<Void> termination() {
+        return termination;
+    }
+
+    /**
+     * @return Desired interval between starts of collections in milliseconds.
+     */
+    public synchronized long interval() {
+        return interval;
+    }
+
+    /**
+     * @param interval Desired interval between starts of collections in milliseconds.
+     */
+    public synchronized void interval(long interval) {
+        this.interval = bounded(interval);
+    }
+
+    /**
+     * Increase interval by a step.
+     */
+    public synchronized void increaseInterval() {
+        interval(interval + INTERVAL_STEP);
+    }
+
+    /**
+     * Decrease interval by a step.
+     */
+    public synchronized void decreaseInterval() {
+        interval(interval - INTERVAL_STEP);
+    }
+
+    /**
+     * @return Latency of the last collection in milliseconds.
+     */
+    public synchronized long lastLatency() {
+        return lastLatency;
+    }
+
+    /**
+     * @param gen Generation.
+     * @param delay Delay in milliseconds.
+     */
+    private void schedule(long gen, long delay) {
+        if (!termination.isDone())
+            exec.schedule(() -> run(gen), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param gen Generation.
+     */
+    private void run(long gen) {
+        synchronized (this) {
+            // Collection was replaced by a triggered one or scheduler was stopped.
+            if (gen != this.gen)
+                return;
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            task.run();
+        }
+        catch (Throwable e) {
+            termination.completeExceptionally(e);
+
+            return;
+        }
+
+        long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        synchronized (this) {
+            lastLatency = latency;
+
+            if (gen == this.gen)
+                schedule(gen, nextDelay(interval, latency));
+        }
+    }
+
+    /**
+     * Delay before a next collection: the rest of interval, but not less than latency of the last collection, i.e.
+     * period between starts of collections is stretched up to a doubled latency on a slow cluster.
+     *
+     * @param interval Desired interval in milliseconds.
+     * @param latency Latency of the last collection in milliseconds.
+     */
+    static long nextDelay(long interval, long latency) {
+        return Math.max(interval - latency, latency);
+    }
+
+    /**
+     * @param interval Interval.
+     */
+    private static long bounded(long interval) {
+        return Math.min(MAX_INTERVAL, Math.max(MIN_INTERVAL, interval));
+    }
+}
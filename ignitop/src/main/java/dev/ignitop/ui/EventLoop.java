@@ -0,0 +1,85 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ui;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Single-threaded event loop: key presses, render ticks, completions of collections and terminal resizes are posted
+ * as events to one queue and are handled one by one by the loop thread. So that all rendering is serialized without
+ * locks.
+ */
+public class EventLoop implements Executor {
+    /** Events queue. */
+    private final BlockingQueue<Runnable> events = new LinkedBlockingQueue<>();
+
+    /** Loop thread. */
+    private volatile Thread thread;
+
+    /** Stop flag, which is accessed only by the loop thread. */
+    private boolean stopped;
+
+    /**
+     * Post an event.
+     *
+     * @param evt Event handler.
+     */
+    @Override public void execute(Runnable evt) {
+        events.add(evt);
+    }
+
+    /**
+     * Handle events on the calling thread until the loop is stopped. Failure of an event handler stops the loop and
+     * is thrown.
+     *
+     * @throws InterruptedException If the loop thread is interrupted.
+     */
+    public void run() throws InterruptedException {
+        thread = Thread.currentThread();
+
+        try {
+            while (!stopped)
+                events.take().run();
+        }
+        finally {
+            thread = null;
+        }
+    }
+
+    /**
+     * Stop the loop after handling of already posted events.
+     */
+    public void stop() {
+        execute(() -> stopped = true);
+    }
+
+    /**
+     * @return {@code True} if the calling thread is the loop thread.
+     */
+    public boolean inLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * @return Amount of events, which are waiting for handling.
+     */
+    public int pending() {
+        return events.size();
+    }
+}
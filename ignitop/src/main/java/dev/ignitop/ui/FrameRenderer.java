@@ -0,0 +1,121 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ui;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Differential renderer, which keeps the previous frame and repaints only changed lines using cursor positioning,
+ * instead of erasing and repainting of the whole screen on each refresh. Output of a frame is composed in a reusable
+ * buffer and is flushed to the terminal with a single write, so partially painted frame is never visible.
+ */
+public class FrameRenderer {
+    /** Erase screen and move cursor to the home position. */
+    static final String ERASE_SCREEN = "\033[H\033[2J";
+
+    /** Erase from cursor to the end of line. */
+    static final String ERASE_LINE_TAIL = "\033[K";
+
+    /** Erase from cursor to the end of screen. */
+    static final String ERASE_SCREEN_TAIL = "\033[J";
+
+    /** Lines of the previous frame. */
+    private List<String> prevFrame = List.of();
+
+    /** Full repaint flag. */
+    private boolean invalid = true;
+
+    /** Reusable buffer of a frame output. */
+    private final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+
+    /** Stream of a frame output. */
+    private final PrintStream bufOut = new PrintStream(buf);
+
+    /**
+     * Force full repaint of the next frame, e.g. after terminal resize, when previous frame is not reliable anymore.
+     */
+    public synchronized void invalidate() {
+        invalid = true;
+    }
+
+    /**
+     * Render a frame: only lines, which differ from the ones of the previous frame, are written.
+     *
+     * @param frame Lines of a frame without line separators.
+     * @param height Terminal height, lines below it are not written, as absolute cursor positioning past the bottom
+     *      of the screen would overwrite the last line. Non-positive value means that height is unknown.
+     * @param out Output.
+     */
+    public synchronized void render(List<String> frame, int height, PrintStream out) {
+        List<String> prev = invalid ? List.of() : prevFrame;
+
+        if (height > 0 && frame.size() > height)
+            frame = frame.subList(0, height);
+
+        buf.reset();
+
+        if (invalid)
+            bufOut.print(ERASE_SCREEN);
+
+        for (int i = 0; i < frame.size(); i++) {
+            String line = frame.get(i);
+
+            if (i < prev.size() && line.equals(prev.get(i)))
+                continue;
+
+            moveCursor(i);
+
+            bufOut.print(line);
+            bufOut.print(ERASE_LINE_TAIL);
+        }
+
+        // Tail of a longer previous frame is erased.
+        if (frame.size() < prev.size()) {
+            moveCursor(frame.size());
+
+            bufOut.print(ERASE_SCREEN_TAIL);
+        }
+
+        bufOut.flush();
+
+        if (buf.size() > 0) {
+            try {
+                buf.writeTo(out);
+            }
+            catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+
+            out.flush();
+        }
+
+        prevFrame = List.copyOf(frame);
+        invalid = false;
+    }
+
+    /**
+     * @param line Zero-based line number.
+     */
+    private void moveCursor(int line) {
+        bufOut.print("\033[");
+        bufOut.print(line + 1);
+        bufOut.print(";1H");
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ui;
+
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import dev.ignitop.ui.updater.ScreenUpdater;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Low-priority background collector of inactive screens, which keeps their snapshots fresh, so that screen switch
+ * renders cached data immediately. Prefetch is limited by a cluster load budget: cluster is busy with prefetch
+ * collections not more than {@code budget} percents of the time.
+ */
+public class Prefetcher {
+    /** Default load budget in percents. */
+    public static final int DEFAULT_BUDGET = 10;
+
+    /** Executor. */
+    private final ScheduledExecutorService exec;
+
+    /** Terminal UI, which prefetched snapshots are published to. */
+    private final TerminalUi ui;
+
+    /** Screens. */
+    private final List<ScreenUpdater> screens;
+
+    /** Load budget in percents. */
+    private final int budget;
+
+    /** Minimum delay between prefetch collections in milliseconds. */
+    private final LongSupplier minDelay;
+
+    /** Stop flag. */
+    private volatile boolean stopped;
+
+    /**
+     * @param exec Single-threaded executor, which performs prefetch collections.
+     * @param ui Terminal UI.
+     * @param screens Screens.
+     * @param budget Load budget in percents, {@code 0} disables prefetch.
+     * @param minDelay Minimum delay between prefetch collections in milliseconds.
+     */
+    public Prefetcher(ScheduledExecutorService exec, TerminalUi ui, List<ScreenUpdater> screens, int budget,
+        LongSupplier minDelay) {
+        if (budget < 0 || budget > 100)
+            throw new IllegalArgumentException("Budget must be in range [0, 100]: " + budget);
+
+        this.exec = exec;
+        this.ui = ui;
+        this.screens = List.copyOf(screens);
+        this.budget = budget;
+        this.minDelay = minDelay;
+    }
+
+    /**
+     * Start prefetch.
+     */
+    public void start() {
+        schedule(minDelay.getAsLong());
+    }
+
+    /**
+     * Stop prefetch, collection in progress is not interrupted.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Prefetch the most outdated inactive screen and schedule a next prefetch within the budget.
+     */
+    void run() {
+        if (stopped)
+            return;
+
+        long start = System.currentTimeMillis();
+
+        ScreenUpdater screen = nextScreen(System.currentTimeMillis());
+
+        if (screen != null) {
+            try {
+                ui.collect(screen);
+            }
+            catch (RuntimeException ignored) {
+                // Prefetch is the best effort, screen is collected as usual when it is switched to.
+            }
+        }
+
+        schedule(nextDelay(System.currentTimeMillis() - start, budget, minDelay.getAsLong()));
+    }
+
+    /**
+     * @param now Current time in milliseconds.
+     * @return Inactive screen with the oldest snapshot, or {@code null} if there are no inactive screens.
+     */
+    @Nullable ScreenUpdater nextScreen(long now) {
+        ScreenUpdater active = ui.updater();
+
+        ScreenUpdater res = null;
+        long resAge = -1;
+
+        for (ScreenUpdater screen : screens) {
+            if (screen == active)
+                continue;
+
+            Snapshot snapshot = ui.snapshot(screen);
+
+            long age = snapshot == null ? Long.MAX_VALUE : snapshot.age(now);
+
+            if (age > resAge) {
+                res = screen;
+                resAge = age;
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * @param delay Delay in milliseconds.
+     */
+    private void schedule(long delay) {
+        if (budget > 0 && !stopped)
+            exec.schedule(this::run, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Calculate delay after a prefetch collection, so that share of prefetch collections in time does not exceed the
+     * budget.
+     *
+     * @param latency Latency of a prefetch collection in milliseconds.
+     * @param budget Load budget in percents.
+     * @param minDelay Minimum delay in milliseconds.
+     */
+    static long nextDelay(long latency, int budget, long minDelay) {
+        return Math.max(minDelay, latency * (100 - budget) / budget);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ui;
+
+import java.util.Collection;
+import java.util.List;
+import dev.ignitop.ui.component.TerminalComponent;
+import dev.ignitop.ui.updater.ScreenUpdater;
+
+/**
+ * Immutable result of a single collection: components of a screen and time of their collection.
+ */
+public class Snapshot {
+    /** Screen updater, which collected the snapshot. */
+    private final ScreenUpdater updater;
+
+    /** Components. */
+    private final List<TerminalComponent> components;
+
+    /** Collection timestamp in milliseconds. */
+    private final long timestamp;
+
+    /**
+     * @param updater Screen updater, which collected the snapshot.
+     * @param components Components.
+     * @param timestamp Collection timestamp in milliseconds.
+     */
+    public Snapshot(ScreenUpdater updater, Collection<TerminalComponent> components, long timestamp) {
+        this.updater = updater;
+        this.components = List.copyOf(components);
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * @return Screen updater, which collected the snapshot.
+     */
+    public ScreenUpdater updater() {
+        return updater;
+    }
+
+    /**
+     * @return Components.
+     */
+    public List<TerminalComponent> components() {
+        return components;
+    }
+
+    /**
+     * @return Collection timestamp in milliseconds.
+     */
+    public long timestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @param now Current timestamp in milliseconds.
+     * @return Age of the snapshot in milliseconds.
+     */
+    public long age(long now) {
+        return Math.max(0, now - timestamp);
+    }
+}
@@ -32,6 +32,9 @@ public class TerminalProvider implements AutoCloseable {
     /** Default terminal width. */
     public static final int DEFAULT_TERMINAL_WIDTH = 80;
 
+    /** Default terminal height. */
+    public static final int DEFAULT_TERMINAL_HEIGHT = 24;
+
     /** Terminal. */
     private final Terminal terminal;
 
@@ -112,6 +115,24 @@ public class TerminalProvider implements AutoCloseable {
         return width > 0 ? width : DEFAULT_TERMINAL_WIDTH;
     }
 
+    /**
+     *
+     */
+    public int height() {
+        int height = terminal.getHeight();
+
+        return height > 0 ? height : DEFAULT_TERMINAL_HEIGHT;
+    }
+
+    /**
+     * Register a terminal resize (SIGWINCH) listener.
+     *
+     * @param lsnr Listener, which is called from a signal handling thread.
+     */
+    public void onResize(Runnable lsnr) {
+        terminal.handle(Terminal.Signal.WINCH, signal -> lsnr.run());
+    }
+
     /**
      *
      */
@@ -16,10 +16,30 @@
 
 package dev.ignitop.ui;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import dev.ignitop.ignite.CollectionEngine;
 import dev.ignitop.ui.component.TerminalComponent;
+import dev.ignitop.ui.component.impl.EmptySpace;
+import dev.ignitop.ui.component.impl.Label;
+import dev.ignitop.ui.component.impl.Table;
 import dev.ignitop.ui.updater.ScreenUpdater;
+import org.jetbrains.annotations.Nullable;
 
 /**
  *
@@ -31,38 +51,355 @@ public class TerminalUi {
     /** TerminalProvider. */
     private final TerminalProvider terminalProvider;
 
+    /** Executor of rendering, e.g. event loop, which all rendering is serialized by. */
+    private final Executor renderExec;
+
+    /** Flag of a posted and not yet performed refresh, which coalesces refresh requests. */
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+
     /** Current screen updater. */
     private final AtomicReference<ScreenUpdater> updaterRef = new AtomicReference<>();
 
+    /** Latest collected snapshots of screens. */
+    private final ConcurrentMap<ScreenUpdater, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    /** Screens, which collection is in progress. */
+    private final Set<ScreenUpdater> collecting = ConcurrentHashMap.newKeySet();
+
+    /** Maximum age of a cached snapshot in milliseconds, which is rendered immediately on screen switch. */
+    private volatile long maxSnapshotAge = Long.MAX_VALUE;
+
+    /** Supplier of a status line, which is rendered below the screen, e.g. a replay position. */
+    @Nullable private volatile Supplier<String> status;
+
+    /** Differential frame renderer. */
+    private final FrameRenderer frameRenderer = new FrameRenderer();
+
+    /** Reusable buffer, which a frame is composed in. */
+    private final ByteArrayOutputStream frameBuf = new ByteArrayOutputStream();
+
+    /** Stream of a frame buffer. */
+    private final PrintStream frameOut = new PrintStream(frameBuf);
+
     /** UI width. */
-    private int width;
+    private volatile int width;
+
+    /** UI height. */
+    private int height;
+
+    /** First visible row of truncated tables of the current screen. */
+    private int scrollRow;
+
+    /** Amount of rows, which a page scroll moves truncated tables by. */
+    private int pageSize = Integer.MAX_VALUE;
 
     /**
+     * Creates UI, which renders in a calling thread.
+     *
      * @param terminalProvider TerminalProvider.
      */
     public TerminalUi(TerminalProvider terminalProvider) {
+        this(terminalProvider, Runnable::run);
+    }
+
+    /**
+     * Creates UI, which renders in a single-threaded executor. All methods, except of {@link #collect()},
+     * {@link #collect(ScreenUpdater)} and {@link #requestRefresh()}, are expected to be called by the executor.
+     *
+     * @param terminalProvider TerminalProvider.
+     * @param renderExec Single-threaded executor of rendering.
+     */
+    public TerminalUi(TerminalProvider terminalProvider, Executor renderExec) {
         this.terminalProvider = terminalProvider;
+        this.renderExec = renderExec;
 
         width = terminalProvider.width();
     }
 
     /**
+     * Collect components of the current screen and publish them as the latest snapshot. Is expected to be called
+     * from a collector thread, as it performs all the cluster I/O.
+     */
+    public void collect() {
+        ScreenUpdater updater = updaterRef.get();
+
+        if (updater != null)
+            collect(updater);
+    }
+
+    /**
+     * Collect components of a screen and publish them as the latest snapshot of the screen, e.g. for prefetch of an
+     * inactive screen. Frame is refreshed only if screen is the current one. Collections of a screen never overlap:
+     * collection is skipped if the screen is already being collected, e.g. by a prefetch of a screen, which has just
+     * become the current one. The snapshot of that collection is rendered as soon as it is published.
      *
+     * @param updater Screen updater.
+     */
+    public void collect(ScreenUpdater updater) {
+        if (!collecting.add(updater))
+            return;
+
+        try {
+            collect0(updater);
+        }
+        finally {
+            collecting.remove(updater);
+        }
+    }
+
+    /**
+     * @param updater Screen updater, which is not collected concurrently.
+     */
+    private void collect0(ScreenUpdater updater) {
+        Collection<TerminalComponent> components;
+
+        try {
+            components = updater.components();
+        }
+        catch (CancellationException ignored) {
+            // Screen was switched during collection.
+            return;
+        }
+        catch (CompletionException e) {
+            if (!CollectionEngine.timedOut(e))
+                throw e;
+
+            // Cluster-wide request missed its deadline, previous snapshot is kept and its age keeps growing.
+            if (updater == updaterRef.get())
+                requestRefresh();
+
+            return;
+        }
+
+        snapshots.put(updater, new Snapshot(updater, components, System.currentTimeMillis()));
+
+        if (updater == updaterRef.get())
+            requestRefresh();
+    }
+
+    /**
+     * Request refresh in the render executor. Requests, which are made before the start of a posted refresh, are
+     * coalesced into it. Can be called from any thread.
+     */
+    public void requestRefresh() {
+        if (refreshPending.compareAndSet(false, true)) {
+            renderExec.execute(() -> {
+                refreshPending.set(false);
+
+                refresh();
+            });
+        }
+    }
+
+    /**
+     * Render the latest snapshot of the current screen. Never blocks on the cluster I/O. Only changed lines of the
+     * frame are written to the terminal. Tables of the screen are virtualized: terminal height, which is left by other
+     * components, is split between tables, and each table shows only rows, which fit into its share. Truncated tables
+     * are scrolled together.
      */
     public void refresh() {
-        Collection<TerminalComponent> components = updaterRef.get().components();
+        ScreenUpdater updater = updaterRef.get();
 
-        width = terminalProvider.width();
+        // Snapshot of a previous screen is not rendered.
+        Snapshot snapshot = updater == null ? null : snapshots.get(updater);
+
+        boolean actual = snapshot != null;
+
+        List<TerminalComponent> components = actual ?
+            snapshot.components() :
+            List.of(Label.normal("Collecting data...").build());
+
+        int newWidth = terminalProvider.width();
+        int newHeight = terminalProvider.height();
+
+        // Lines of the previous frame are wrapped and scrolled differently after resize.
+        if (newWidth != width || newHeight != height)
+            frameRenderer.invalidate();
+
+        width = newWidth;
+        height = newHeight;
 
         int maxComponentWidth = components.stream()
             .mapToInt(TerminalComponent::contentWidth)
             .max()
             .orElse(width);
 
-        terminalProvider.eraseScreen();
+        int renderWidth = Math.min(maxComponentWidth, width);
+
+        Snapshot actualSnapshot = actual ? snapshot : null;
+
+        List<Table> tables = actual ? tables(components) : List.of();
+
+        // Non-positive height means that height is unknown, whole tables are shown in this case.
+        if (!tables.isEmpty() && height > 0) {
+            // Lines, which are not occupied by rows of tables, are measured by empty viewports.
+            for (Table table : tables)
+                table.viewport(0, 0);
+
+            int fixedLines = composeFrame(components, renderWidth, actualSnapshot).size();
+
+            int freeLines = Math.max(height - fixedLines, 1);
+
+            int[] shares = shares(tables, freeLines);
+
+            int newScrollRow = 0;
+            int newPageSize = Integer.MAX_VALUE;
+
+            for (int i = 0; i < tables.size(); i++) {
+                Table table = tables.get(i);
+
+                table.viewport(scrollRow, shares[i]);
+
+                if (shares[i] < table.rowsCount()) {
+                    newScrollRow = Math.max(newScrollRow, table.firstRow());
+                    newPageSize = Math.min(newPageSize, Math.max(shares[i], 1));
+                }
+            }
+
+            scrollRow = newScrollRow;
+            pageSize = newPageSize == Integer.MAX_VALUE ? freeLines : newPageSize;
+        }
+
+        frameRenderer.render(composeFrame(components, renderWidth, actualSnapshot), height, terminalProvider.out());
+    }
+
+    /**
+     * Split lines between tables: each table gets an equal share, and lines, which are not needed by smaller tables,
+     * are split between larger ones.
+     *
+     * @param tables Tables.
+     * @param lines Amount of lines.
+     * @return Amounts of rows, which are shown by tables.
+     */
+    static int[] shares(List<Table> tables, int lines) {
+        Integer[] bySize = new Integer[tables.size()];
+
+        for (int i = 0; i < bySize.length; i++)
+            bySize[i] = i;
+
+        Arrays.sort(bySize, Comparator.comparingInt(i -> tables.get(i).rowsCount()));
+
+        int[] shares = new int[tables.size()];
+
+        int left = lines;
+
+        for (int k = 0; k < bySize.length; k++) {
+            int i = bySize[k];
+
+            shares[i] = Math.min(tables.get(i).rowsCount(), left / (bySize.length - k));
+
+            left -= shares[i];
+        }
+
+        return shares;
+    }
+
+    /**
+     * @param components Components.
+     * @param renderWidth Render width of components.
+     * @param snapshot Rendered snapshot, or {@code null} if there is no actual snapshot.
+     * @return Lines of a frame.
+     */
+    private List<String> composeFrame(List<TerminalComponent> components, int renderWidth,
+        @Nullable Snapshot snapshot) {
+        frameBuf.reset();
 
         for (TerminalComponent component : components)
-            component.render(Math.min(maxComponentWidth, width), terminalProvider.out());
+            component.render(renderWidth, frameOut);
+
+        if (snapshot != null) {
+            new EmptySpace(1).render(width, frameOut);
+
+            Label.normal("Updated")
+                .bold(snapshot.age(System.currentTimeMillis()) / 1000 + "s ago")
+                .build()
+                .render(width, frameOut);
+        }
+
+        Supplier<String> status0 = status;
+
+        if (status0 != null)
+            Label.normal("Status").bold(status0.get()).build().render(width, frameOut);
+
+        frameOut.flush();
+
+        return frameBuf.toString().lines().collect(Collectors.toList());
+    }
+
+    /**
+     * @param components Components.
+     * @return Tables.
+     */
+    private static List<Table> tables(List<TerminalComponent> components) {
+        List<Table> tables = new ArrayList<>();
+
+        for (TerminalComponent component : components) {
+            if (component instanceof Table)
+                tables.add((Table)component);
+        }
+
+        return tables;
+    }
+
+    /**
+     * Scroll truncated tables of the current screen by pages.
+     *
+     * @param pages Amount of pages, negative value scrolls up.
+     */
+    public void scrollPages(int pages) {
+        scrollRow = (int)Math.max(0, Math.min(scrollRow + (long)pages * pageSize, Integer.MAX_VALUE));
+
+        refresh();
+    }
+
+    /**
+     * Scroll truncated tables of the current screen to a row.
+     *
+     * @param row Row, which is clamped to the rows of each table, e.g. {@link Integer#MAX_VALUE} scrolls to the end.
+     */
+    public void scrollTo(int row) {
+        scrollRow = Math.max(row, 0);
+
+        refresh();
+    }
+
+    /**
+     * @return Latest snapshot of the current screen or {@code null} if nothing was collected yet.
+     */
+    @Nullable public Snapshot snapshot() {
+        ScreenUpdater updater = updaterRef.get();
+
+        return updater == null ? null : snapshots.get(updater);
+    }
+
+    /**
+     * @param updater Screen updater.
+     * @return Latest snapshot of a screen or {@code null} if nothing was collected yet.
+     */
+    @Nullable public Snapshot snapshot(ScreenUpdater updater) {
+        return snapshots.get(updater);
+    }
+
+    /**
+     * @return Current screen updater.
+     */
+    @Nullable public ScreenUpdater updater() {
+        return updaterRef.get();
+    }
+
+    /**
+     * @param maxSnapshotAge Maximum age of a cached snapshot in milliseconds, which is rendered immediately on screen
+     * switch. Older snapshot is dropped and the screen is shown after a new collection.
+     */
+    public void maxSnapshotAge(long maxSnapshotAge) {
+        this.maxSnapshotAge = maxSnapshotAge;
+    }
+
+    /**
+     * @param status Supplier of a status line, which is rendered below the screen, or {@code null} to hide it.
+     */
+    public void status(@Nullable Supplier<String> status) {
+        this.status = status;
     }
 
     /**
@@ -73,10 +410,36 @@ public class TerminalUi {
     }
 
     /**
+     * Re-layout and fully redraw the latest snapshot after terminal resize, as terminal may have reflowed the previous
+     * frame. No cluster requests are performed.
+     */
+    public void resize() {
+        frameRenderer.invalidate();
+
+        refresh();
+    }
+
+    /**
+     * Switch current screen. Collection of the previous screen is cancelled. Cached snapshot of the new screen is
+     * rendered immediately if it is fresh enough, otherwise the screen is rendered after its collection.
+     *
      * @param updater New current screen updater.
      */
     public void updater(ScreenUpdater updater) {
-        updaterRef.set(updater);
+        Snapshot cached = snapshots.get(updater);
+
+        if (cached != null && cached.age(System.currentTimeMillis()) > maxSnapshotAge)
+            snapshots.remove(updater, cached);
+
+        ScreenUpdater prev = updaterRef.getAndSet(updater);
+
+        if (prev == updater)
+            prev = null;
+
+        if (prev != null)
+            prev.cancel();
+
+        scrollRow = 0;
 
         refresh();
     }
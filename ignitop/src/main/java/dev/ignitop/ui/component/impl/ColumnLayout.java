@@ -0,0 +1,96 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ui.component.impl;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Precompiled layout of table columns: each cell is truncated and padded to its column width in a reusable line
+ * buffer, which is printed at once. It is an allocation-free replacement of {@code printf} with a
+ * {@code %-N.Ms} format per column.
+ */
+class ColumnLayout {
+    /** Column widths including gaps. */
+    private final int[] widths;
+
+    /** Column gap. */
+    private final int gap;
+
+    /** Reusable line buffer. */
+    private final char[] line;
+
+    /**
+     * @param widths Column widths including gaps.
+     * @param gap Column gap.
+     */
+    ColumnLayout(int[] widths, int gap) {
+        this.widths = widths.clone();
+        this.gap = gap;
+
+        line = new char[Arrays.stream(widths).map(w -> Math.max(w, 0)).sum()];
+    }
+
+    /**
+     * Print a line of cells followed by a line separator.
+     *
+     * @param cells Cells.
+     * @param out Output.
+     */
+    void print(CharSequence[] cells, PrintStream out) {
+        out.print(format(cells));
+        out.println();
+    }
+
+    /**
+     * Format cells into the line buffer.
+     *
+     * @param cells Cells.
+     * @return Line buffer.
+     */
+    char[] format(CharSequence[] cells) {
+        int pos = 0;
+
+        for (int i = 0; i < widths.length; i++) {
+            int width = Math.max(widths[i], 0);
+
+            CharSequence cell = cells[i];
+
+            int len = Math.min(cell.length(), Math.max(width - gap, 0));
+
+            if (cell instanceof String)
+                ((String)cell).getChars(0, len, line, pos);
+            else {
+                for (int j = 0; j < len; j++)
+                    line[pos + j] = cell.charAt(j);
+            }
+
+            Arrays.fill(line, pos + len, pos + width, ' ');
+
+            pos += width;
+        }
+
+        return line;
+    }
+
+    /**
+     * @return Column widths including gaps.
+     */
+    int[] widths() {
+        return widths.clone();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ui.component.impl;
+
+/**
+ * Table cell, which shows a trend of values as a line of Unicode block elements. Values are quantized into levels
+ * once, glyphs are produced on demand, so that a sparkline is printed by a table without creation of a string.
+ */
+public class Sparkline implements CharSequence {
+    /** Glyphs of levels from the lowest to the highest: lower one eighth block to full block. */
+    private static final char[] BARS = {
+        '\u2581', '\u2582', '\u2583', '\u2584', '\u2585', '\u2586', '\u2587', '\u2588'};
+
+    /** Level of an unknown value, which is shown as a space. */
+    private static final byte UNKNOWN = -1;
+
+    /** Levels of values. */
+    private final byte[] levels;
+
+    /**
+     * @param levels Levels of values.
+     */
+    private Sparkline(byte[] levels) {
+        this.levels = levels;
+    }
+
+    /**
+     * @param vals Values in chronological order.
+     * @param cnt Amount of values.
+     * @param min Value of the lowest level, lower values are clamped.
+     * @param max Value of the highest level, higher values are clamped.
+     * @return Sparkline of values.
+     */
+    public static Sparkline of(double[] vals, int cnt, double min, double max) {
+        if (!(max > min))
+            throw new IllegalArgumentException("Maximum must be greater than minimum: [min=" + min + ", max=" + max +
+                ']');
+
+        byte[] levels = new byte[cnt];
+
+        for (int i = 0; i < cnt; i++) {
+            double val = vals[i];
+
+            if (Double.isNaN(val))
+                levels[i] = UNKNOWN;
+            else {
+                double norm = (Math.min(Math.max(val, min), max) - min) / (max - min);
+
+                levels[i] = (byte)Math.min((int)(norm * BARS.length), BARS.length - 1);
+            }
+        }
+
+        return new Sparkline(levels);
+    }
+
+    /** {@inheritDoc} */
+    @Override public int length() {
+        return levels.length;
+    }
+
+    /** {@inheritDoc} */
+    @Override public char charAt(int idx) {
+        byte level = levels[idx];
+
+        return level == UNKNOWN ? ' ' : BARS[level];
+    }
+
+    /** {@inheritDoc} */
+    @Override public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    /** {@inheritDoc} */
+    @Override public String toString() {
+        char[] chars = new char[levels.length];
+
+        for (int i = 0; i < chars.length; i++)
+            chars[i] = charAt(i);
+
+        return new String(chars);
+    }
+}
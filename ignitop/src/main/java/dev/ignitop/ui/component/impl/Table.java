@@ -18,21 +18,29 @@ package dev.ignitop.ui.component.impl;
 
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 import dev.ignitop.ui.component.TerminalComponent;
+import dev.ignitop.util.DecimalFormatter;
 import org.fusesource.jansi.Ansi;
 
 import static org.fusesource.jansi.Ansi.ansi;
 
 /**
- *
+ * Table, which renders only rows of its viewport. Rows outside of the viewport are neither formatted nor printed.
  */
 public class Table implements TerminalComponent {
     /** A gap between cells. */
     public static final int CELLS_GAP = 2;
 
+    /** Header style prefix. */
+    private static final String HDR_PREFIX = ansi().fgBlack().bg(Ansi.Color.GREEN).toString();
+
+    /** Header style suffix. */
+    private static final String HDR_SUFFIX = ansi().reset().toString();
+
     /** Table header. */
     private final List<String> hdr;
 
@@ -45,12 +53,30 @@ public class Table implements TerminalComponent {
     /** Header widths sum. */
     private final int hdrWidthSum;
 
-    /** Column widths. */
-    private final List<Integer> columnWidths;
+    /** Column widths by content including gaps. */
+    private final int[] columnWidths;
+
+    /** String representations of header cells. */
+    private final String[] hdrCells;
+
+    /** Text representations of row cells, which are created lazily when row comes into the viewport. */
+    private final CharSequence[][] cells;
+
+    /** First row of the viewport. */
+    private int firstRow;
+
+    /** Maximum amount of rows in the viewport. */
+    private int maxRows = Integer.MAX_VALUE;
 
     /** Content width. */
     private int contentWidth;
 
+    /** Column layout of the last render width. */
+    private ColumnLayout layout;
+
+    /** Last render width. */
+    private int layoutWidth = -1;
+
     /**
      * @param hdr Header.
      * @param rows Rows.
@@ -69,14 +95,18 @@ public class Table implements TerminalComponent {
         hdrWidthSum = hdrWidths.stream().mapToInt(i -> i).sum();
 
         // Pre-fill column widths by header length.
-        columnWidths = new ArrayList<>(hdrWidths);
+        columnWidths = hdrWidths.stream().mapToInt(Integer::intValue).toArray();
+
+        hdrCells = hdr.stream().map(String::valueOf).toArray(String[]::new);
+
+        cells = new CharSequence[this.rows.size()][];
 
         determineContent();
     }
 
     /**
      * Determine content:
-     * Replace double values by a string representations with precision 1.
+     * Calculate column widths by lengths of cells, double values are measured with precision 1.
      * Calculate content width.
      */
     private void determineContent() {
@@ -87,38 +117,130 @@ public class Table implements TerminalComponent {
             }
 
             for (int i = 0; i < row.length; i++) {
-                Object cell = row[i];
+                int elementSize = cellLength(row[i]);
 
-                if (cell instanceof Double) {
-                    cell = String.format("%.1f", cell);
+                if (elementSize > columnWidths[i])
+                    columnWidths[i] = elementSize;
+            }
+        }
 
-                    row[i] = cell;
-                }
+        for (int i = 0; i < columnWidths.length; i++)
+            columnWidths[i] += CELLS_GAP;
 
-                int elementSize = String.valueOf(cell).length();
+        contentWidth = Arrays.stream(columnWidths).sum();
+    }
 
-                if (elementSize > columnWidths.get(i))
-                    columnWidths.set(i, elementSize);
-            }
+    /**
+     * @param cell Cell.
+     * @return Length of a string representation of the cell.
+     */
+    private static int cellLength(Object cell) {
+        if (cell instanceof CharSequence)
+            return ((CharSequence)cell).length();
+
+        if (cell instanceof Double)
+            return DecimalFormatter.length((Double)cell);
+
+        return String.valueOf(cell).length();
+    }
+
+    /**
+     * @param cell Cell.
+     * @return Text representation of the cell, double values are represented with precision 1, character sequences
+     * (e.g. {@link Sparkline}) are printed as is.
+     */
+    private static CharSequence cellText(Object cell) {
+        if (cell instanceof CharSequence)
+            return (CharSequence)cell;
+
+        return cell instanceof Double ? DecimalFormatter.format((Double)cell) : String.valueOf(cell);
+    }
+
+    /**
+     * @param rowIdx Row index.
+     * @return Text representations of row cells.
+     */
+    private CharSequence[] rowCells(int rowIdx) {
+        CharSequence[] rowCells = cells[rowIdx];
+
+        if (rowCells == null) {
+            Object[] row = rows.get(rowIdx);
+
+            rowCells = new CharSequence[row.length];
+
+            for (int i = 0; i < row.length; i++)
+                rowCells[i] = cellText(row[i]);
+
+            cells[rowIdx] = rowCells;
         }
 
-        columnWidths.replaceAll(l -> l + CELLS_GAP);
+        return rowCells;
+    }
 
-        contentWidth = columnWidths.stream()
-            .mapToInt(Integer::intValue)
-            .sum();
+    /**
+     * Set a viewport of the table, which is clamped to the table rows.
+     *
+     * @param firstRow First row of the viewport.
+     * @param maxRows Maximum amount of rows in the viewport.
+     */
+    public void viewport(int firstRow, int maxRows) {
+        this.maxRows = Math.max(maxRows, 0);
+        this.firstRow = Math.max(Math.min(firstRow, rows.size() - this.maxRows), 0);
+    }
+
+    /**
+     * @return First row of the viewport.
+     */
+    public int firstRow() {
+        return firstRow;
+    }
+
+    /**
+     * @return Rows count.
+     */
+    public int rowsCount() {
+        return rows.size();
     }
 
     /** {@inheritDoc} */
     @Override public void render(int width, PrintStream out) {
+        ColumnLayout layout = layout(width);
+
+        out.print(HDR_PREFIX);
+        out.print(layout.format(hdrCells));
+        out.print(HDR_SUFFIX);
+        out.println();
+
+        int lastRow = (int)Math.min((long)firstRow + maxRows, rows.size());
+
+        for (int r = firstRow; r < lastRow; r++)
+            layout.print(rowCells(r), out);
+
+        if (lastRow - firstRow < rows.size())
+            out.println("Total items: " + rows.size() + " (shown " + (firstRow + 1) + '-' + lastRow + ')');
+        else
+            out.println("Total items: " + rows.size());
+    }
+
+    /**
+     * Get a cached column layout or compile a new one, if render width has changed.
+     *
+     * @param width Render width.
+     */
+    private ColumnLayout layout(int width) {
+        if (layout != null && layoutWidth == width)
+            return layout;
+
+        int[] widths = columnWidths.clone();
+
         int contentWidthDelta = contentWidth - width;
 
         boolean dontShrinkHeaders = hdrWidthSum < width;
 
         int remainingDelta = contentWidthDelta;
 
-        for (int i = 0; i < columnWidths.size(); i++) {
-            int oldWidth = columnWidths.get(i);
+        for (int i = 0; i < widths.length; i++) {
+            int oldWidth = widths[i];
 
             int columnSizeDelta = contentWidthDelta * oldWidth / contentWidth;
 
@@ -132,28 +254,17 @@ public class Table implements TerminalComponent {
 
             remainingDelta -= oldWidth - newWidth;
 
-            columnWidths.set(i, newWidth);
+            widths[i] = newWidth;
         }
 
         // Expand or shrink last element
-        if (remainingDelta != 0) {
-            int lastIdx = columnWidths.size() - 1;
-
-            columnWidths.set(lastIdx, columnWidths.get(lastIdx) - remainingDelta);
-        }
-
-        String strFormat = columnWidths.stream()
-            .map(l -> "%-" + l + '.' + (l - CELLS_GAP) + 's')
-            .collect(Collectors.joining());
+        if (remainingDelta != 0)
+            widths[widths.length - 1] -= remainingDelta;
 
-        printHeader(strFormat, out, hdr.toArray());
+        layout = new ColumnLayout(widths, CELLS_GAP);
+        layoutWidth = width;
 
-        for (Object[] row : rows) {
-            out.printf(strFormat, row);
-            out.println();
-        }
-
-        out.println("Total items: " + rows.size());
+        return layout;
     }
 
     /** {@inheritDoc} */
@@ -161,23 +272,6 @@ public class Table implements TerminalComponent {
         return contentWidth;
     }
 
-    /**
-     * @param format Format.
-     * @param out Output stream.
-     * @param columnNames Column names.
-     */
-    private void printHeader(String format, PrintStream out, Object... columnNames) {
-        String hdrFmtStr = ansi()
-            .fgBlack()
-            .bg(Ansi.Color.GREEN)
-            .a(format)
-            .reset()
-            .toString();
-
-        out.printf(hdrFmtStr, columnNames);
-        out.println();
-    }
-
     /**
      * @return Table header.
      */
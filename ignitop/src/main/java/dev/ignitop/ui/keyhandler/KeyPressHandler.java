@@ -17,15 +17,46 @@
 package dev.ignitop.ui.keyhandler;
 
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
- *
+ * Handler of key presses. Besides single characters, it handles escape sequences of special keys, which are read
+ * char-by-char.
  */
 public class KeyPressHandler {
+    /** Escape character, which starts sequences of special keys. */
+    public static final char ESC = '\033';
+
+    /** Page Up key sequences. */
+    public static final List<String> PAGE_UP = List.of("\033[5~");
+
+    /** Page Down key sequences. */
+    public static final List<String> PAGE_DOWN = List.of("\033[6~");
+
+    /** Home key sequences of different terminals. */
+    public static final List<String> HOME = List.of("\033[H", "\033[1~", "\033[7~", "\033OH");
+
+    /** End key sequences of different terminals. */
+    public static final List<String> END = List.of("\033[F", "\033[4~", "\033[8~", "\033OF");
+
+    /** Maximum length of a skipped escape sequence. */
+    private static final int MAX_SEQ_LEN = 16;
+
     /** Key press actions. */
     private final Map<Character, Runnable> keyPressActions = new HashMap<>();
 
+    /** Escape sequence actions. */
+    private final Map<String, Runnable> seqActions = new HashMap<>();
+
+    /** Proper prefixes of escape sequences. */
+    private final Set<String> seqPrefixes = new HashSet<>();
+
+    /** Escape sequence, which is being read. */
+    private final StringBuilder seq = new StringBuilder();
+
     /**
      * @param key Character of pressed key.
      * @param action Action.
@@ -34,15 +65,91 @@ public class KeyPressHandler {
         keyPressActions.put(key, action);
     }
 
+    /**
+     * @param seqs Escape sequences of a special key.
+     * @param action Action.
+     */
+    public void addKeyHandler(List<String> seqs, Runnable action) {
+        for (String s : seqs) {
+            if (s.length() < 2 || s.charAt(0) != ESC)
+                throw new IllegalArgumentException("Not an escape sequence: " + s);
+
+            seqActions.put(s, action);
+
+            for (int i = 1; i < s.length(); i++)
+                seqPrefixes.add(s.substring(0, i));
+        }
+    }
+
     /**
      * @param key Character of pressed key.
      */
     public void handle(char key) {
+        if (key == ESC || seq.length() > 0) {
+            handleSequence(key);
+
+            return;
+        }
+
+        // Unsupported key is ignored, as output outside of a frame would stay on a differentially rendered screen.
         Runnable action = keyPressActions.get(key);
 
         if (action != null)
             action.run();
-        else
-            System.out.println("Unsupported key: " + key);
+    }
+
+    /**
+     * @param key Next character of an escape sequence.
+     */
+    private void handleSequence(char key) {
+        seq.append(key);
+
+        String s = seq.toString();
+
+        // Bare Esc followed by a key, which does not introduce a sequence, e.g. Esc and then 't'.
+        if (s.length() == 2 && !introducer(key) && !seqActions.containsKey(s) && !seqPrefixes.contains(s)) {
+            seq.setLength(0);
+
+            handle(key);
+
+            return;
+        }
+
+        Runnable action = seqActions.get(s);
+
+        if (action != null) {
+            seq.setLength(0);
+
+            action.run();
+        }
+        else if (!seqPrefixes.contains(s) && (complete(s) || s.length() >= MAX_SEQ_LEN)) {
+            // Unsupported sequence is skipped as a whole.
+            seq.setLength(0);
+        }
+    }
+
+    /**
+     * @param s Escape sequence.
+     * @return {@code True} if sequence is complete, i.e. it is a two-character sequence, or a control sequence
+     * ({@code ESC [} or {@code ESC O}) with a final character.
+     */
+    private static boolean complete(String s) {
+        if (s.length() < 2)
+            return false;
+
+        if (!introducer(s.charAt(1)))
+            return true;
+
+        char last = s.charAt(s.length() - 1);
+
+        return s.length() > 2 && last >= '@' && last <= '~';
+    }
+
+    /**
+     * @param ch Second character of an escape sequence.
+     * @return {@code True} if character introduces a control sequence, i.e. {@code ESC [} or {@code ESC O}.
+     */
+    private static boolean introducer(char ch) {
+        return ch == '[' || ch == 'O';
     }
 }
@@ -29,4 +29,11 @@ public interface ScreenUpdater {
      *
      */
     public Collection<TerminalComponent> components();
+
+    /**
+     * Cancel collection of components, which is in progress, e.g. when screen is switched.
+     */
+    public default void cancel() {
+        // No-op.
+    }
 }
@@ -20,26 +20,84 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import dev.ignitop.ignite.IgniteHelper;
+import dev.ignitop.ignite.history.MetricHistory;
 import dev.ignitop.ignite.system.SystemMetricsInformation;
 import dev.ignitop.ui.component.TerminalComponent;
 import dev.ignitop.ui.component.impl.EmptySpace;
+import dev.ignitop.ui.component.impl.Label;
+import dev.ignitop.ui.component.impl.Sparkline;
 import dev.ignitop.ui.component.impl.Table;
 import dev.ignitop.ui.component.impl.Title;
 import dev.ignitop.ui.updater.ScreenUpdater;
+import org.jetbrains.annotations.Nullable;
 
 /**
  *
  */
 public class SystemMetricsUpdater implements ScreenUpdater {
+    /** Marker of a node, which missed a deadline and is shown with its last known values. */
+    public static final String STALE_MARK = "*";
+
+    /** Suffix of a header of a trend column, which follows a column of a metric. */
+    public static final String TREND_SUFFIX = "~";
+
+    /** Default length of a trend in samples. */
+    public static final int DEFAULT_TREND_LENGTH = 12;
+
+    /** Upper bound of a scale of percent metrics in trends. */
+    private static final double PERCENT_MAX = 100;
+
     /** Ignite helper. */
     private final IgniteHelper igniteHelper;
 
+    /** Metric history, which collected values are appended to. */
+    @Nullable private final MetricHistory history;
+
+    /** Length of trends in samples, {@code 0} means that trend columns are not shown. */
+    private final int trendLen;
+
+    /** Future of system metrics collection. */
+    private volatile CompletableFuture<Collection<SystemMetricsInformation>> sysMetricsFut;
+
     /**
      * @param igniteHelper Ignite helper.
      */
     public SystemMetricsUpdater(IgniteHelper igniteHelper) {
+        this(igniteHelper, null);
+    }
+
+    /**
+     * @param igniteHelper Ignite helper.
+     * @param history Metric history, which collected values are appended to, or {@code null}.
+     */
+    public SystemMetricsUpdater(IgniteHelper igniteHelper, @Nullable MetricHistory history) {
+        this(igniteHelper, history, 0);
+    }
+
+    /**
+     * @param igniteHelper Ignite helper.
+     * @param history Metric history, which collected values are appended to, or {@code null}.
+     * @param trendLen Length of trends of percent metrics in samples, {@code 0} means that trend columns are not
+     * shown. Trends are shown only if history is specified.
+     */
+    public SystemMetricsUpdater(IgniteHelper igniteHelper, @Nullable MetricHistory history, int trendLen) {
+        if (trendLen < 0)
+            throw new IllegalArgumentException("Trend length must not be negative: " + trendLen);
+
         this.igniteHelper = igniteHelper;
+        this.history = history;
+        this.trendLen = history == null ? 0 : trendLen;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void cancel() {
+        CompletableFuture<Collection<SystemMetricsInformation>> fut = sysMetricsFut;
+
+        if (fut != null)
+            fut.cancel(true);
     }
 
     /** {@inheritDoc} */
@@ -49,49 +107,124 @@ public class SystemMetricsUpdater implements ScreenUpdater {
         components.add(new Title("System metrics"));
         components.add(new EmptySpace(1));
 
-        Collection<SystemMetricsInformation> sysMetrics = igniteHelper.systemMetrics();
+        sysMetricsFut = igniteHelper.systemMetricsAsync();
+
+        Collection<SystemMetricsInformation> sysMetrics = sysMetricsFut.join();
+
+        if (history != null)
+            history.record(sysMetrics, System.currentTimeMillis());
+
+        List<String> hdr = new ArrayList<>(List.of("ConsID", "HostNames"));
 
-        List<String> hdr = new ArrayList<>(List.of("ConsID", "HostNames", "CPU%", "LoadAvg", "GC_CPU%", "Heap%"));
+        addColumn(hdr, "CPU%", true);
+        addColumn(hdr, "LoadAvg", false);
+        addColumn(hdr, "GC_CPU%", true);
+        addColumn(hdr, "Heap%", true);
 
-        SystemMetricsInformation randomInfo = sysMetrics.iterator().next();
+        // Stale information of a node, which missed its first deadline, has no data regions.
+        SystemMetricsInformation randomInfo = sysMetrics.stream()
+            .filter(info -> !info.stale())
+            .findAny()
+            .orElse(sysMetrics.iterator().next());
 
         // Sorting of data region usages by names is provided by SystemMetricsInformation
-        randomInfo.dataRegionUsagesPercents()
-            .keySet()
-            .forEach(drName -> hdr.add("DataReg%:" + drName));
+        Collection<String> drNames = randomInfo.dataRegionUsagesPercents().keySet();
+
+        drNames.forEach(drName -> addColumn(hdr, "DataReg%:" + drName, true));
 
         hdr.add("DStorageGB");
 
         List<Object[]> rows = new ArrayList<>();
 
-        for (SystemMetricsInformation info : sysMetrics)
-            rows.add(toRow(info));
+        int staleCnt = 0;
+
+        // Values of trends are copied into a buffer, which is shared by all cells.
+        double[] trendBuf = new double[trendLen];
+
+        for (SystemMetricsInformation info : sysMetrics) {
+            rows.add(toRow(info, drNames, trendBuf));
+
+            if (info.stale())
+                staleCnt++;
+        }
 
         components.add(new Table(hdr, rows));
 
+        if (staleCnt > 0) {
+            components.add(new EmptySpace(1));
+
+            components.add(Label.normal("Timed out nodes:")
+                .bold(staleCnt)
+                .normal("(last known values are marked with '" + STALE_MARK + "')")
+                .build());
+        }
+
         return Collections.unmodifiableList(components);
     }
 
+    /**
+     * Add a column of a metric and a column of its trend, if trends are shown.
+     *
+     * @param hdr Header.
+     * @param name Column name.
+     * @param trend {@code True} if metric has a trend.
+     */
+    private void addColumn(List<String> hdr, String name, boolean trend) {
+        hdr.add(name);
+
+        if (trend && trendLen > 0)
+            hdr.add(name + TREND_SUFFIX);
+    }
+
     /**
      * Convert SystemMetricsInformation to a row of elements.
      *
      * @param info Info.
+     * @param drNames Data region names of the header.
+     * @param trendBuf Buffer of trend values.
      */
-    private Object[] toRow(SystemMetricsInformation info) {
-        List<?> row0 = List.of(
-            info.consistentId(),
-            info.hostNames(),
-            info.cpuLoadPercent(),
-            info.loadAverage(),
-            info.gcCpuLoadPercent(),
-            info.heapUsagePercent());
+    private Object[] toRow(SystemMetricsInformation info, Collection<String> drNames, double[] trendBuf) {
+        List<Object> row = new ArrayList<>();
 
-        List<Object> row = new ArrayList<>(row0);
+        row.add(info.stale() ? info.consistentId() + STALE_MARK : info.consistentId());
+        row.add(info.hostNames());
 
-        row.addAll(info.dataRegionUsagesPercents().values());
+        addCell(row, info.cpuLoadPercent(), info, MetricHistory.CPU_LOAD, trendBuf);
+        addCell(row, info.loadAverage(), info, null, trendBuf);
+        addCell(row, info.gcCpuLoadPercent(), info, MetricHistory.GC_CPU_LOAD, trendBuf);
+        addCell(row, info.heapUsagePercent(), info, MetricHistory.HEAP_USAGE, trendBuf);
+
+        Map<String, Double> drUsages = info.dataRegionUsagesPercents();
+
+        for (String drName : drNames) {
+            String drMetric = trendLen > 0 ? history.dataRegionUsage(drName) : null;
+
+            addCell(row, drUsages.getOrDefault(drName, Double.NaN), info, drMetric, trendBuf);
+        }
 
         row.add(info.dataStorageSizeGigabytes());
 
         return row.toArray();
     }
+
+    /**
+     * Add a cell of a metric value and a cell of its trend, if trends are shown.
+     *
+     * @param row Row.
+     * @param val Value.
+     * @param info Info.
+     * @param metric Name of a percent metric in the history or {@code null} if metric has no trend.
+     * @param trendBuf Buffer of trend values.
+     */
+    private void addCell(List<Object> row, double val, SystemMetricsInformation info, @Nullable String metric,
+        double[] trendBuf) {
+        row.add(val);
+
+        if (metric == null || trendLen == 0)
+            return;
+
+        int cnt = history.copyValues(info.consistentId(), metric, trendBuf);
+
+        row.add(Sparkline.of(trendBuf, cnt, 0, PERCENT_MAX));
+    }
 }
@@ -20,8 +20,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import dev.ignitop.ignite.IgniteHelper;
+import dev.ignitop.ignite.history.MetricHistory;
 import dev.ignitop.ignite.topology.OfflineNodeInfo;
 import dev.ignitop.ignite.topology.OnlineNodeInfo;
 import dev.ignitop.ignite.topology.TopologyInformation;
@@ -32,6 +34,7 @@ import dev.ignitop.ui.component.impl.Label;
 import dev.ignitop.ui.component.impl.Table;
 import dev.ignitop.ui.component.impl.Title;
 import dev.ignitop.ui.updater.ScreenUpdater;
+import org.jetbrains.annotations.Nullable;
 
 import static dev.ignitop.util.IgniTopUtils.formattedUptime;
 import static org.apache.ignite.cluster.ClusterState.INACTIVE;
@@ -45,18 +48,46 @@ public class TopologyInformationUpdater implements ScreenUpdater {
     /** Ignite helper. */
     private final IgniteHelper igniteHelper;
 
+    /** Metric history, which collected values are appended to. */
+    @Nullable private final MetricHistory history;
+
+    /** Future of topology information collection. */
+    private volatile CompletableFuture<TopologyInformation> topInfoFut;
+
     /**
      * @param igniteHelper Ignite manager.
      */
     public TopologyInformationUpdater(IgniteHelper igniteHelper) {
+        this(igniteHelper, null);
+    }
+
+    /**
+     * @param igniteHelper Ignite manager.
+     * @param history Metric history, which collected values are appended to, or {@code null}.
+     */
+    public TopologyInformationUpdater(IgniteHelper igniteHelper, @Nullable MetricHistory history) {
         this.igniteHelper = igniteHelper;
+        this.history = history;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void cancel() {
+        CompletableFuture<TopologyInformation> fut = topInfoFut;
+
+        if (fut != null)
+            fut.cancel(true);
     }
 
     /** {@inheritDoc} */
     @Override public Collection<TerminalComponent> components() {
         ArrayList<TerminalComponent> components = new ArrayList<>();
 
-        TopologyInformation topInfo = igniteHelper.topologyInformation();
+        topInfoFut = igniteHelper.topologyInformationAsync();
+
+        TopologyInformation topInfo = topInfoFut.join();
+
+        if (history != null)
+            history.record(topInfo, System.currentTimeMillis());
 
         components.add(new Title("Topology"));
 
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.util;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Fast formatter of doubles with precision 1, which produces the same output as {@code String.format("%.1f", val)}
+ * (locale-aware decimal separator, {@link java.math.RoundingMode#HALF_UP HALF_UP} rounding), but without parsing of
+ * a format string. Values, which can not be formatted exactly by a fast path, are delegated to
+ * {@link String#format(String, Object...)}.
+ */
+public final class DecimalFormatter {
+    /** Maximum absolute value, which is formatted by a fast path without a loss of precision. */
+    private static final double FAST_PATH_LIMIT = 1e9;
+
+    /**
+     * Distance of a scaled value from a rounding tie, within which a fast path is not used. Errors of the scaling and
+     * of the decimal representation rounded by {@code String.format} are below {@code 1e10 * 2^-53 ~ 1.1e-6}.
+     */
+    private static final double TIE_EPSILON = 1e-5;
+
+    /** Format symbols of the default locale. */
+    private static volatile Symbols symbols;
+
+    /**
+     * @param val Value.
+     * @return Value formatted with precision 1.
+     */
+    public static String format(double val) {
+        StringBuilder sb = new StringBuilder(12);
+
+        append(val, sb);
+
+        return sb.toString();
+    }
+
+    /**
+     * @param val Value.
+     * @return Length of a formatted value, which is calculated without formatting if possible.
+     */
+    public static int length(double val) {
+        long scaled = scaled(Math.abs(val));
+
+        if (scaled < 0 || symbols().zeroDigit != '0')
+            return format(val).length();
+
+        long intPart = scaled / 10;
+
+        int len = 3; // At least one digit of the integer part, the separator and the fractional digit.
+
+        while ((intPart /= 10) > 0)
+            len++;
+
+        return val < 0 || (val == 0 && 1 / val < 0) ? len + 1 : len;
+    }
+
+    /**
+     * @param val Value.
+     * @param sb String builder to append formatted value to.
+     * @return Passed string builder.
+     */
+    public static StringBuilder append(double val, StringBuilder sb) {
+        Symbols syms = symbols();
+
+        long scaled = scaled(Math.abs(val));
+
+        if (scaled < 0 || syms.zeroDigit != '0')
+            return sb.append(String.format(syms.locale, "%.1f", val));
+
+        if (val < 0 || (val == 0 && 1 / val < 0))
+            sb.append('-');
+
+        return sb.append(scaled / 10)
+            .append(syms.decimalSeparator)
+            .append((char)('0' + scaled % 10));
+    }
+
+    /**
+     * @param abs Absolute value.
+     * @return Value multiplied by 10 and rounded {@link java.math.RoundingMode#HALF_UP HALF_UP}, or {@code -1} if it
+     *      can not be rounded exactly by a fast path.
+     */
+    private static long scaled(double abs) {
+        // NaN and infinities are not less than the limit.
+        if (!(abs < FAST_PATH_LIMIT))
+            return -1;
+
+        double scaled = abs * 10;
+
+        // Product is inexact, so it may be rounded to the other side of a tie, than the decimal representation is.
+        if (Math.abs(scaled - Math.floor(scaled) - 0.5) < TIE_EPSILON)
+            return -1;
+
+        return Math.round(scaled);
+    }
+
+    /**
+     * @return Format symbols of the current default locale.
+     */
+    private static Symbols symbols() {
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+
+        Symbols syms = symbols;
+
+        if (syms == null || !syms.locale.equals(locale))
+            symbols = syms = new Symbols(locale);
+
+        return syms;
+    }
+
+    /**
+     * Format symbols of a locale.
+     */
+    private static final class Symbols {
+        /** Locale. */
+        private final Locale locale;
+
+        /** Decimal separator. */
+        private final char decimalSeparator;
+
+        /** Zero digit. */
+        private final char zeroDigit;
+
+        /**
+         * @param locale Locale.
+         */
+        private Symbols(Locale locale) {
+            DecimalFormatSymbols dfs = DecimalFormatSymbols.getInstance(locale);
+
+            this.locale = locale;
+
+            decimalSeparator = dfs.getDecimalSeparator();
+            zeroDigit = dfs.getZeroDigit();
+        }
+    }
+}
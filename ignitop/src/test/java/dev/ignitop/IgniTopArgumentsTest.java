@@ -0,0 +1,210 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop;
+
+import java.util.List;
+import dev.ignitop.batch.BatchFormat;
+import dev.ignitop.ignite.CollectionEngine;
+import dev.ignitop.ignite.history.MetricHistory;
+import dev.ignitop.ui.Prefetcher;
+import org.junit.jupiter.api.Test;
+
+import static dev.ignitop.IgniTop.DEFAULT_ADDRESSES;
+import static dev.ignitop.IgniTop.DEFAULT_UPDATE_INTERVAL;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ */
+class IgniTopArgumentsTest {
+    /**
+     *
+     */
+    @Test
+    void parse_withoutArguments_usesDefaults() {
+        IgniTopArguments args = IgniTopArguments.parse();
+
+        assertArrayEquals(DEFAULT_ADDRESSES, args.addresses());
+        assertTrue(args.defaultAddresses());
+        assertFalse(args.sql());
+        assertEquals(DEFAULT_UPDATE_INTERVAL, args.interval());
+        assertEquals(Prefetcher.DEFAULT_BUDGET, args.prefetchBudget());
+        assertEquals(MetricHistory.DEFAULT_BUDGET_MB, args.historyBudget());
+        assertFalse(args.trends());
+        assertNull(args.recordFile());
+        assertNull(args.replayFile());
+        assertNull(args.batchFormat());
+        assertTrue(args.rates().isEmpty());
+        assertEquals(CollectionEngine.DEFAULT_PARALLELISM, args.parallelism());
+        assertEquals(CollectionEngine.DEFAULT_REQUEST_TIMEOUT, args.requestTimeout());
+    }
+
+    /**
+     *
+     */
+    @Test
+    void parse_parallelismAndRequestTimeout() {
+        IgniTopArguments args = IgniTopArguments.parse("--parallelism", "16", "--request-timeout", "0", "host1:10800");
+
+        assertEquals(16, args.parallelism());
+        assertEquals(0, args.requestTimeout());
+        assertArrayEquals(new String[] {"host1:10800"}, args.addresses());
+
+        assertThrows(IllegalArgumentException.class, () -> IgniTopArguments.parse("--parallelism", "0"));
+        assertThrows(IllegalArgumentException.class, () -> IgniTopArguments.parse("--request-timeout", "-1"));
+        assertThrows(IllegalArgumentException.class, () -> IgniTopArguments.parse("--request-timeout"));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void parse_prefetchBudget() {
+        assertEquals(0, IgniTopArguments.parse("--prefetch-budget", "0").prefetchBudget());
+        assertEquals(25, IgniTopArguments.parse("--prefetch-budget", "25", "host1:10800").prefetchBudget());
+
+        assertThrows(IllegalArgumentException.class, () -> IgniTopArguments.parse("--prefetch-budget", "101"));
+        assertThrows(IllegalArgumentException.class, () -> IgniTopArguments.parse("--prefetch-budget", "-1"));
+        assertThrows(IllegalArgumentException.class, () -> IgniTopArguments.parse("--prefetch-budget"));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void parse_historyBudget() {
+        assertEquals(64, IgniTopArguments.parse("--history-budget", "64").historyBudget());
+
+        assertThrows(IllegalArgumentException.class, () -> IgniTopArguments.parse("--history-budget", "0"));
+        assertThrows(IllegalArgumentException.class, () -> IgniTopArguments.parse("--history-budget"));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void parse_trends() {
+        assertTrue(IgniTopArguments.parse("--trends", "host1:10800").trends());
+    }
+
+    /**
+     *
+     */
+    @Test
+    void parse_recordFile() {
+        assertEquals("session.bin", IgniTopArguments.parse("--record", "session.bin", "host1:10800").recordFile());
+
+        assertThrows(IllegalArgumentException.class, () -> IgniTopArguments.parse("--record"));
+        assertThrows(IllegalArgumentException.class, () -> IgniTopArguments.parse("--record", "--sql"));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void parse_replayFile() {
+        assertEquals("session.bin", IgniTopArguments.parse("--replay", "session.bin").replayFile());
+
+        assertThrows(IllegalArgumentException.class, () -> IgniTopArguments.parse("--replay"));
+        assertThrows(IllegalArgumentException.class,
+            () -> IgniTopArguments.parse("--replay", "session.bin", "--record", "other.bin"));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void parse_batchFormat() {
+        assertEquals(BatchFormat.NDJSON, IgniTopArguments.parse("--batch", "ndjson", "host1:10800").batchFormat());
+        assertEquals(BatchFormat.CSV, IgniTopArguments.parse("--batch", "CSV").batchFormat());
+
+        assertThrows(IllegalArgumentException.class, () -> IgniTopArguments.parse("--batch"));
+        assertThrows(IllegalArgumentException.class, () -> IgniTopArguments.parse("--batch", "xml"));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void parse_rates() {
+        assertEquals(List.of("cache.CacheGets", "io.dataregion.default.PagesWritten"),
+            IgniTopArguments.parse("--batch", "csv", "--rates", "cache.CacheGets,io.dataregion.default.PagesWritten")
+                .rates());
+
+        assertThrows(IllegalArgumentException.class, () -> IgniTopArguments.parse("--rates"));
+        assertThrows(IllegalArgumentException.class, () -> IgniTopArguments.parse("--rates", "cache.CacheGets,"));
+        assertThrows(IllegalArgumentException.class, () -> IgniTopArguments.parse("--rates", "--trends"));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void parse_optionsWithValuesOnly_usesDefaultAddresses() {
+        IgniTopArguments args = IgniTopArguments.parse("--interval", "5");
+
+        assertTrue(args.defaultAddresses());
+        assertArrayEquals(DEFAULT_ADDRESSES, args.addresses());
+
+        assertFalse(IgniTopArguments.parse("--interval", "5", "host1:10800").defaultAddresses());
+    }
+
+    /**
+     *
+     */
+    @Test
+    void parse_interval() {
+        IgniTopArguments args = IgniTopArguments.parse("--interval", "10", "host1:10800");
+
+        assertEquals(10, args.interval());
+        assertArrayEquals(new String[] {"host1:10800"}, args.addresses());
+    }
+
+    /**
+     *
+     */
+    @Test
+    void parse_invalidInterval_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> IgniTopArguments.parse("--interval", "0"));
+        assertThrows(IllegalArgumentException.class, () -> IgniTopArguments.parse("--interval", "abc"));
+        assertThrows(IllegalArgumentException.class, () -> IgniTopArguments.parse("--interval"));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void parse_addressesAndSqlOption() {
+        IgniTopArguments args = IgniTopArguments.parse("--sql", "host1:10800,host2:10800");
+
+        assertArrayEquals(new String[] {"host1:10800", "host2:10800"}, args.addresses());
+        assertTrue(args.sql());
+    }
+
+    /**
+     *
+     */
+    @Test
+    void parse_unknownOption_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> IgniTopArguments.parse("--unknown"));
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.batch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import dev.ignitop.batch.impl.CsvRecordWriter;
+import dev.ignitop.ignite.IgniteHelper;
+import dev.ignitop.ignite.metric.NodeMetrics;
+import dev.ignitop.ignite.system.SystemMetricsInformation;
+import dev.ignitop.ignite.topology.OfflineNodeInfo;
+import dev.ignitop.ignite.topology.OnlineNodeInfo;
+import dev.ignitop.ignite.topology.TopologyInformation;
+import org.apache.ignite.cluster.ClusterState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ */
+class BatchPrinterTest {
+    /** Coordinator. */
+    private static final OnlineNodeInfo CRD = new OnlineNodeInfo(new UUID(0, 1), "node0", 1, null,
+        List.of("host0"), List.of("10.0.0.1"), 5000);
+
+    /** Output. */
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    /** Future of topology information. */
+    private CompletableFuture<TopologyInformation> topFut;
+
+    /** Future of system metrics. */
+    private CompletableFuture<Collection<SystemMetricsInformation>> sysMetricsFut;
+
+    /** Future of rates of counters. */
+    private CompletableFuture<Collection<NodeMetrics>> ratesFut;
+
+    /** Ignite helper. */
+    private IgniteHelper igniteHelper;
+
+    /**
+     *
+     */
+    @BeforeEach
+    void setUp() {
+        topFut = CompletableFuture.completedFuture(new TopologyInformation(List.of(CRD),
+            List.of(new OfflineNodeInfo("node1", "host1", "10.0.0.2")), List.of(), List.of(), CRD, 3,
+            ClusterState.ACTIVE, true));
+
+        sysMetricsFut = CompletableFuture.completedFuture(List.of(new SystemMetricsInformation("node\"0\"",
+            List.of("host0", "host,1"), 52.28, Double.NaN, 10.17, 20.67, Map.of("default", 20.33), 70.7)));
+
+        ratesFut = CompletableFuture.completedFuture(List.of(
+            new NodeMetrics(CRD.nodeId(), Map.of("cache.CacheGets", 12.5, "io.Writes", Double.NaN)),
+            new NodeMetrics(new UUID(0, 2), Map.of())));
+
+        igniteHelper = new IgniteHelper() {
+            /** {@inheritDoc} */
+            @Override public CompletableFuture<TopologyInformation> topologyInformationAsync() {
+                return topFut;
+            }
+
+            /** {@inheritDoc} */
+            @Override public CompletableFuture<Collection<SystemMetricsInformation>> systemMetricsAsync() {
+                return sysMetricsFut;
+            }
+
+            /** {@inheritDoc} */
+            @Override public CompletableFuture<Collection<NodeMetrics>> counterRatesAsync(Collection<String> counters) {
+                return ratesFut;
+            }
+        };
+    }
+
+    /**
+     *
+     */
+    @Test
+    void collect_ndjson_writesObjectPerRecord() {
+        new BatchPrinter(igniteHelper, BatchFormat.NDJSON.writer(printStream())).collect();
+
+        List<String> lines = lines();
+
+        assertEquals(4, lines.size(), "Cluster, two nodes and system metrics records expected: " + lines);
+
+        assertTrue(lines.get(0).matches("\\{\"timestamp\":\\d+,\"type\":\"cluster\",\"topologyVersion\":3," +
+            "\"state\":\"ACTIVE\",\"rebalanced\":true,\"coordinator\":\"node0\",.*\\}"), lines.get(0));
+
+        assertTrue(lines.get(1).matches("\\{\"timestamp\":\\d+,\"type\":\"node\",\"consistentId\":\"node0\"," +
+            "\"group\":\"baseline\",\"coordinator\":true,\"nodeId\":\"00000000-0000-0000-0000-000000000001\"," +
+            "\"order\":1,\"hostNames\":\\[\"host0\"\\],\"addresses\":\\[\"10.0.0.1\"\\],\"upTime\":5000\\}"),
+            lines.get(1));
+
+        assertTrue(lines.get(2).contains("\"consistentId\":\"node1\",\"group\":\"offline\""), lines.get(2));
+
+        assertTrue(lines.get(3).matches("\\{\"timestamp\":\\d+,\"type\":\"system\",\"consistentId\":" +
+            "\"node\\\\\"0\\\\\"\",\"hostNames\":\\[\"host0\",\"host,1\"\\],\"stale\":false,\"cpuPercent\":52.28," +
+            "\"loadAverage\":null,\"gcCpuPercent\":10.17,\"heapPercent\":20.67," +
+            "\"dataRegionPercent:default\":20.33,\"dataStorageGb\":70.7\\}"), lines.get(3));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void collect_csv_writesLinePerField() {
+        BatchPrinter printer = new BatchPrinter(igniteHelper, BatchFormat.CSV.writer(printStream()));
+
+        printer.collect();
+        printer.collect();
+
+        List<String> lines = lines();
+
+        assertEquals(CsvRecordWriter.HEADER, lines.get(0));
+        assertEquals(1, lines.stream().filter(CsvRecordWriter.HEADER::equals).count(), "Header is written once");
+
+        assertTrue(lines.get(1).matches("\\d+,cluster,,topologyVersion,3"), lines.get(1));
+
+        List<String> sysLines = lines.stream()
+            .filter(l -> l.contains(",system,"))
+            .map(l -> l.substring(l.indexOf(',') + 1))
+            .limit(4)
+            .collect(Collectors.toList());
+
+        assertEquals(List.of(
+            "system,\"node\"\"0\"\"\",hostNames,\"host0 host,1\"",
+            "system,\"node\"\"0\"\"\",stale,false",
+            "system,\"node\"\"0\"\"\",cpuPercent,52.28",
+            "system,\"node\"\"0\"\"\",loadAverage,"), sysLines);
+    }
+
+    /**
+     *
+     */
+    @Test
+    void collect_timedOutTopology_isSkipped() {
+        topFut = CompletableFuture.failedFuture(new TimeoutException());
+
+        new BatchPrinter(igniteHelper, BatchFormat.NDJSON.writer(printStream())).collect();
+
+        List<String> lines = lines();
+
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).contains("\"type\":\"system\""), lines.get(0));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void collect_failedTopology_cancelsSystemMetrics() {
+        topFut = CompletableFuture.failedFuture(new IllegalStateException("Test"));
+        sysMetricsFut = new CompletableFuture<>();
+
+        BatchPrinter printer = new BatchPrinter(igniteHelper, BatchFormat.NDJSON.writer(printStream()));
+
+        assertThrows(CompletionException.class, printer::collect);
+
+        assertTrue(sysMetricsFut.isCancelled(), "System metrics should not be collected after a failure");
+    }
+
+    /**
+     *
+     */
+    @Test
+    void collect_rates_writesRecordPerNodeWithRates() {
+        new BatchPrinter(igniteHelper, BatchFormat.NDJSON.writer(printStream()), List.of("cache.CacheGets", "io.Writes"))
+            .collect();
+
+        List<String> lines = lines();
+
+        assertEquals(5, lines.size(), "Rates record of a node without rates should be skipped: " + lines);
+
+        assertTrue(lines.get(4).matches("\\{\"timestamp\":\\d+,\"type\":\"rates\"," +
+            "\"nodeId\":\"00000000-0000-0000-0000-000000000001\",\"cache.CacheGets\":12.5," +
+            "\"io.Writes\":null\\}"),
+            lines.get(4));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void collect_withoutCounters_doesNotCollectRates() {
+        ratesFut = CompletableFuture.failedFuture(new IllegalStateException("Rates should not be requested"));
+
+        new BatchPrinter(igniteHelper, BatchFormat.NDJSON.writer(printStream())).collect();
+
+        assertEquals(4, lines().size());
+    }
+
+    /**
+     *
+     */
+    @Test
+    void collect_failedSystemMetrics_cancelsRates() {
+        sysMetricsFut = CompletableFuture.failedFuture(new IllegalStateException("Test"));
+        ratesFut = new CompletableFuture<>();
+
+        BatchPrinter printer = new BatchPrinter(igniteHelper, BatchFormat.NDJSON.writer(printStream()),
+            List.of("cache.CacheGets"));
+
+        assertThrows(CompletionException.class, printer::collect);
+
+        assertTrue(ratesFut.isCancelled(), "Rates should not be collected after a failure");
+    }
+
+    /**
+     * @return Stream of the output.
+     */
+    private PrintStream printStream() {
+        return new PrintStream(out, false, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return Lines of the output.
+     */
+    private List<String> lines() {
+        return new String(out.toByteArray(), StandardCharsets.UTF_8).lines().collect(Collectors.toList());
+    }
+}
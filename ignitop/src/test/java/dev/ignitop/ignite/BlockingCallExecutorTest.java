@@ -0,0 +1,97 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package dev.ignitop.ignite;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ */
+class BlockingCallExecutorTest {
+    /**
+     *
+     */
+    @Test
+    void call_afterHungCall_isBoundedAndSkippedOnceCancelled() throws Exception {
+        CountDownLatch hungStarted = new CountDownLatch(1);
+        CountDownLatch hung = new CountDownLatch(1);
+
+        AtomicInteger calls = new AtomicInteger();
+
+        try (BlockingCallExecutor exec = new BlockingCallExecutor(1)) {
+            CompletableFuture<?> op = new CompletableFuture<>();
+
+            CompletableFuture<Integer> hungFut = exec.call(op, () -> {
+                hungStarted.countDown();
+
+                try {
+                    hung.await();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                return calls.incrementAndGet();
+            });
+
+            assertTrue(hungStarted.await(1, TimeUnit.SECONDS));
+
+            CompletableFuture<Integer> pending = exec.call(op, calls::incrementAndGet);
+            CompletableFuture<Integer> rejected = exec.call(op, calls::incrementAndGet);
+
+            assertTrue(CollectionEngine.timedOut(assertThrows(CompletionException.class, rejected::join)),
+                "Call over the bound should be reported as a missed deadline");
+
+            // Pending call times out while the thread is hung.
+            pending.cancel(false);
+
+            CompletableFuture<Integer> next = exec.call(op, calls::incrementAndGet);
+
+            hung.countDown();
+
+            assertEquals(1, (int)hungFut.get(1, TimeUnit.SECONDS));
+            assertEquals(2, (int)next.get(1, TimeUnit.SECONDS), "Cancelled call should not be performed");
+        }
+    }
+
+    /**
+     *
+     */
+    @Test
+    void call_ofCompletedOperation_isSkipped() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+
+        try (BlockingCallExecutor exec = new BlockingCallExecutor(1)) {
+            CompletableFuture<?> op = CompletableFuture.completedFuture(null);
+
+            CompletableFuture<Integer> fut = exec.call(op, calls::incrementAndGet);
+
+            assertEquals(1, (int)exec.call(new CompletableFuture<>(), calls::incrementAndGet).get(1, TimeUnit.SECONDS));
+            assertTrue(fut.isCancelled(), "Call of a completed operation should be cancelled");
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ignite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ */
+class CollectionEngineTest {
+    /**
+     *
+     */
+    @Test
+    void submit_doesNotExceedParallelism() {
+        CollectionEngine engine = new CollectionEngine(3);
+
+        List<CompletableFuture<Integer>> reqs = new ArrayList<>();
+
+        List<CompletableFuture<Integer>> results = IntStream.range(0, 10)
+            .mapToObj(i -> engine.submit(() -> {
+                CompletableFuture<Integer> req = new CompletableFuture<>();
+
+                reqs.add(req);
+
+                return req;
+            }))
+            .collect(Collectors.toList());
+
+        assertEquals(3, engine.active());
+        assertEquals(7, engine.pending());
+        assertEquals(3, reqs.size(), "Only allowed amount of requests should be started");
+
+        for (int i = 0; i < 10; i++) {
+            reqs.get(i).complete(i);
+
+            assertTrue(engine.active() <= 3, "Concurrency limit exceeded");
+        }
+
+        assertEquals(0, engine.active());
+        assertEquals(0, engine.pending());
+
+        for (int i = 0; i < 10; i++)
+            assertEquals(i, results.get(i).join().intValue());
+    }
+
+    /**
+     *
+     */
+    @Test
+    void release_ofLongQueueOfSynchronouslyFailingRequests_doesNotRecurse() {
+        CollectionEngine engine = new CollectionEngine(1);
+
+        CompletableFuture<Object> first = new CompletableFuture<>();
+
+        engine.submit(() -> first);
+
+        List<CompletableFuture<Object>> results = IntStream.range(0, 100_000)
+            .mapToObj(i -> engine.<Object>submit(() -> {
+                throw new IllegalStateException("Test");
+            }))
+            .collect(Collectors.toList());
+
+        assertEquals(results.size(), engine.pending());
+
+        first.complete(null);
+
+        assertEquals(0, engine.active());
+        assertEquals(0, engine.pending());
+        assertTrue(results.stream().allMatch(CompletableFuture::isCompletedExceptionally));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void submit_failedRequest_releasesSlot() {
+        CollectionEngine engine = new CollectionEngine(1);
+
+        CompletableFuture<Object> failed = engine.submit(() -> {
+            throw new IllegalStateException("Test");
+        });
+
+        assertThrows(CompletionException.class, failed::join);
+
+        CompletableFuture<String> next = engine.submit(() -> CompletableFuture.completedFuture("ok"));
+
+        assertEquals("ok", next.join());
+        assertEquals(0, engine.active());
+    }
+
+    /**
+     *
+     */
+    @Test
+    void submit_cancelledOperation_cancelsRunningAndSkipsPendingRequests() {
+        CollectionEngine engine = new CollectionEngine(1);
+
+        CompletableFuture<Object> op = new CompletableFuture<>();
+
+        CompletableFuture<String> running = new CompletableFuture<>();
+
+        List<String> started = new ArrayList<>();
+
+        engine.submit(op, () -> {
+            started.add("running");
+
+            return running;
+        });
+
+        CompletableFuture<String> pending = engine.submit(op, () -> {
+            started.add("pending");
+
+            return CompletableFuture.completedFuture("pending");
+        });
+
+        op.cancel(false);
+
+        assertTrue(running.isCancelled(), "Running request should be cancelled");
+        assertTrue(pending.isCancelled(), "Pending request should not be started");
+        assertEquals(List.of("running"), started);
+        assertEquals(0, engine.active());
+        assertEquals(0, engine.pending());
+    }
+
+    /**
+     *
+     */
+    @Test
+    void submit_hungRequest_timesOutAndReleasesSlot() {
+        CollectionEngine engine = new CollectionEngine(1, 50);
+
+        CompletableFuture<String> hung = new CompletableFuture<>();
+
+        CompletableFuture<String> res = engine.submit(() -> hung);
+
+        CompletableFuture<String> next = engine.submit(() -> CompletableFuture.completedFuture("next"));
+
+        CompletionException e = assertThrows(CompletionException.class, res::join);
+
+        assertTrue(CollectionEngine.timedOut(e), "Request should time out");
+        assertEquals("next", next.join(), "Pending request should be started after timeout");
+        assertTrue(hung.isCancelled(), "Timed out request should be cancelled");
+        assertEquals(0, engine.active());
+    }
+
+    /**
+     *
+     */
+    @Test
+    void submit_timedOutRequest_keepsSlotTillCancellationCompletes() throws Exception {
+        CollectionEngine engine = new CollectionEngine(1, 50);
+
+        CompletableFuture<String> hung = new UncancellableFuture<>();
+
+        CompletableFuture<String> res = engine.submit(() -> hung);
+
+        CompletableFuture<String> next = engine.submit(() -> CompletableFuture.completedFuture("next"));
+
+        assertTrue(CollectionEngine.timedOut(assertThrows(CompletionException.class, res::join)));
+
+        assertFalse(next.isDone(), "Pending request should wait for the cancellation");
+        assertEquals(1, engine.pending());
+
+        hung.completeExceptionally(new CancellationException());
+
+        assertEquals("next", next.get(1, TimeUnit.SECONDS));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void submit_timedOutRequest_releasesSlotAfterGracePeriod() throws Exception {
+        CollectionEngine engine = new CollectionEngine(1, 50);
+
+        engine.submit(UncancellableFuture::new);
+
+        CompletableFuture<String> next = engine.submit(() -> CompletableFuture.completedFuture("next"));
+
+        assertEquals("next", next.get(1, TimeUnit.SECONDS), "Slot should be released after the grace period");
+    }
+
+    /**
+     *
+     */
+    @Test
+    void submit_completedRequest_doesNotTimeOut() throws Exception {
+        CollectionEngine engine = new CollectionEngine(1, 50);
+
+        assertEquals("done", engine.submit(() -> CompletableFuture.completedFuture("done")).join());
+
+        Thread.sleep(100);
+
+        assertEquals(0, engine.active(), "Slot should be released only once");
+        assertEquals("next", engine.submit(() -> CompletableFuture.completedFuture("next")).join());
+    }
+
+    /**
+     *
+     */
+    @Test
+    void fanOut_keepsElementsOrder() {
+        List<CompletableFuture<String>> futs = new ArrayList<>();
+
+        CompletableFuture<List<String>> res = CollectionEngine.fanOut(List.of(1, 2, 3), i -> {
+            CompletableFuture<String> fut = new CompletableFuture<>();
+
+            futs.add(fut);
+
+            return fut;
+        });
+
+        futs.get(2).complete("3");
+        futs.get(0).complete("1");
+
+        assertFalse(res.isDone());
+
+        futs.get(1).complete("2");
+
+        assertEquals(List.of("1", "2", "3"), res.join());
+    }
+
+    /**
+     *
+     */
+    @Test
+    void create_withNonPositiveParallelism_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new CollectionEngine(0));
+    }
+
+    /**
+     * Future of a request, which is not completed by a cancellation, e.g. till a server confirms it.
+     */
+    private static class UncancellableFuture<T> extends CompletableFuture<T> {
+        /** {@inheritDoc} */
+        @Override public boolean cancel(boolean mayInterruptIfRunning) {
+            return false;
+        }
+    }
+}
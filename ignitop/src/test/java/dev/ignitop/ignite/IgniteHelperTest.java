@@ -0,0 +1,127 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ignite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import dev.ignitop.util.CountingId;
+import org.apache.ignite.client.ClientException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ */
+class IgniteHelperTest {
+    /** Host names attribute. */
+    public static final String HOST_NAMES_ATTR = "TcpCommunicationSpi.comm.tcp.host.names";
+
+    /** Addresses attribute. */
+    public static final String ADDRS_ATTR = "TcpCommunicationSpi.comm.tcp.addrs";
+
+    /** Maximum amount of simulated nodes. */
+    public static final int MAX_NODES = 10_000;
+
+    /**
+     *
+     */
+    @Test
+    void baselineNodesAttributes_filtersByConsistentIdsAndAttributes() {
+        List<List<?>> rows = List.of(
+            List.of("node0", HOST_NAMES_ATTR, "host0"),
+            List.of("node0", ADDRS_ATTR, "addr0"),
+            List.of("node0", "other", "val"),
+            List.of("node1", HOST_NAMES_ATTR, "host1"));
+
+        Map<String, Map<String, Object>> attrs = IgniteHelper.baselineNodesAttributes(rows, Set.of("node0"),
+            HOST_NAMES_ATTR, ADDRS_ATTR);
+
+        assertEquals(Map.of("node0", Map.of(HOST_NAMES_ATTR, "host0", ADDRS_ATTR, "addr0")), attrs);
+    }
+
+    /**
+     *
+     */
+    @Test
+    void rejectedComputeTask_isTimedOut() {
+        CompletableFuture<Object> rejected = IgniteHelper.rejectedAsTimedOut(CompletableFuture.failedFuture(
+            new ClientException("Active compute tasks per connection limit (1) exceeded")));
+
+        assertTrue(CollectionEngine.timedOut(assertThrows(CompletionException.class, rejected::join)));
+
+        CompletableFuture<Object> failed = IgniteHelper.rejectedAsTimedOut(CompletableFuture.failedFuture(
+            new ClientException("Task failed")));
+
+        assertFalse(CollectionEngine.timedOut(assertThrows(CompletionException.class, failed::join)));
+
+        assertEquals("ok", IgniteHelper.rejectedAsTimedOut(CompletableFuture.completedFuture("ok")).join());
+    }
+
+    /**
+     *
+     */
+    @Test
+    void baselineNodesAttributes_scalesLinearly() {
+        long small = operations(MAX_NODES / 10);
+        long large = operations(MAX_NODES);
+
+        // Quadratic filtering would perform ~100 times more operations on 10 times more nodes.
+        assertTrue(large <= small * 15, "Filtering is not linear [small=" + small + ", large=" + large + ']');
+    }
+
+    /**
+     * Filter attributes of a half of simulated nodes, each node has several attributes.
+     *
+     * @param nodesCnt Nodes count.
+     * @return Amount of operations with consistent ids: conversions to strings, hash codes and equality checks.
+     */
+    private static long operations(int nodesCnt) {
+        AtomicLong ops = new AtomicLong();
+
+        List<List<?>> rows = new ArrayList<>();
+
+        for (int i = 0; i < nodesCnt; i++) {
+            CountingId consId = new CountingId("node-" + i, ops);
+
+            rows.add(List.of(consId, HOST_NAMES_ATTR, "host-" + i));
+            rows.add(List.of(consId, ADDRS_ATTR, "addr-" + i));
+            rows.add(List.of(consId, "other", "val"));
+        }
+
+        List<CountingId> consistentIds = IntStream.range(0, nodesCnt / 2)
+            .mapToObj(i -> new CountingId("node-" + i, ops))
+            .collect(Collectors.toList());
+
+        Map<String, Map<String, Object>> attrs = IgniteHelper.baselineNodesAttributes(rows, consistentIds,
+            HOST_NAMES_ATTR, ADDRS_ATTR);
+
+        assertEquals(nodesCnt / 2, attrs.size());
+
+        return ops.get();
+    }
+}
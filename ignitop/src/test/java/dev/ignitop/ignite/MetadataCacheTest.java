@@ -0,0 +1,104 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ignite;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+import static org.apache.ignite.cluster.ClusterState.ACTIVE;
+import static org.apache.ignite.cluster.ClusterState.INACTIVE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ */
+class MetadataCacheTest {
+    /**
+     *
+     */
+    @Test
+    void get_isCached_untilTopologyVersionOrStateChange() {
+        MetadataCache cache = new MetadataCache();
+
+        AtomicInteger loads = new AtomicInteger();
+
+        assertTrue(cache.validate(1, ACTIVE));
+
+        assertEquals(1, load(cache, loads));
+        assertEquals(1, load(cache, loads));
+
+        assertFalse(cache.validate(1, ACTIVE), "Cache should not be invalidated");
+        assertEquals(1, load(cache, loads));
+
+        assertTrue(cache.validate(2, ACTIVE), "Cache should be invalidated on topology version change");
+        assertEquals(2, load(cache, loads));
+
+        assertTrue(cache.validate(2, INACTIVE), "Cache should be invalidated on cluster state change");
+        assertEquals(3, load(cache, loads));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void get_failedLoad_isNotCached() {
+        MetadataCache cache = new MetadataCache();
+
+        cache.validate(1, ACTIVE);
+
+        cache.get("key", () -> CompletableFuture.failedFuture(new IllegalStateException("Test")));
+
+        assertEquals("ok", cache.get("key", () -> CompletableFuture.completedFuture("ok")).join());
+    }
+
+    /**
+     *
+     */
+    @Test
+    void get_cancelledByOneCaller_isNotFailedForOthers() {
+        MetadataCache cache = new MetadataCache();
+
+        cache.validate(1, ACTIVE);
+
+        CompletableFuture<String> load = new CompletableFuture<>();
+
+        CompletableFuture<String> first = cache.get("key", () -> load);
+        CompletableFuture<String> second = cache.get("key", () -> CompletableFuture.completedFuture("other"));
+
+        first.cancel(false);
+
+        assertFalse(load.isDone(), "Shared entry should not be cancelled by a caller");
+
+        load.complete("ok");
+
+        assertEquals("ok", second.join());
+        assertEquals("ok", cache.get("key", () -> CompletableFuture.completedFuture("other")).join(),
+            "Entry should stay cached");
+    }
+
+    /**
+     * @param cache Cache.
+     * @param loads Loads counter.
+     * @return Loaded value, i.e. number of a load.
+     */
+    private static int load(MetadataCache cache, AtomicInteger loads) {
+        return cache.get("key", () -> CompletableFuture.completedFuture(loads.incrementAndGet())).join();
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ignite;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ *
+ */
+class SqlIgniteHelperTest {
+    /**
+     *
+     */
+    @Test
+    void toList() {
+        assertEquals(List.of("host1", "host2"), SqlIgniteHelper.toList("[host1, host2]"));
+        assertEquals(List.of("127.0.0.1"), SqlIgniteHelper.toList("[127.0.0.1]"));
+        assertEquals(List.of(), SqlIgniteHelper.toList("[]"));
+    }
+}
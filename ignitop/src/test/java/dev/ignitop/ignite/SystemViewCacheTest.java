@@ -0,0 +1,71 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ignite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ */
+class SystemViewCacheTest {
+    /**
+     *
+     */
+    @Test
+    void view_isFetchedOnce_forAllNodes() {
+        UUID node0 = UUID.randomUUID();
+        UUID node1 = UUID.randomUUID();
+
+        List<String> fetches = new ArrayList<>();
+
+        SystemViewCache cache = new SystemViewCache(Set.of(node0, node1), (name, nodeIds) -> {
+            fetches.add(name);
+
+            assertEquals(Set.of(node0, node1), nodeIds, "View should be fetched from all nodes");
+
+            return CompletableFuture.completedFuture(Map.of(
+                node0, List.of(List.of(name, 0)),
+                node1, List.of(List.of(name, 1))));
+        });
+
+        assertEquals(List.of(List.of("cfg", 0)), cache.view("cfg", node0).join());
+        assertEquals(List.of(List.of("cfg", 1)), cache.view("cfg", node1).join());
+        assertEquals(List.of(List.of("other", 1)), cache.view("other", node1).join());
+
+        assertEquals(List.of("cfg", "other"), fetches, "Each view should be fetched only once");
+    }
+
+    /**
+     *
+     */
+    @Test
+    void view_ofAbsentNode_isEmpty() {
+        SystemViewCache cache = new SystemViewCache(Set.of(UUID.randomUUID()),
+            (name, nodeIds) -> CompletableFuture.completedFuture(Map.of()));
+
+        assertTrue(cache.view("cfg", UUID.randomUUID()).join().isEmpty());
+    }
+}
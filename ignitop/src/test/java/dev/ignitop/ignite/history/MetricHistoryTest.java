@@ -0,0 +1,180 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ignite.history;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import dev.ignitop.ignite.system.SystemMetricsInformation;
+import dev.ignitop.ignite.topology.OnlineNodeInfo;
+import dev.ignitop.ignite.topology.TopologyInformation;
+import org.apache.ignite.cluster.ClusterState;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ *
+ */
+class MetricHistoryTest {
+    /**
+     *
+     */
+    @Test
+    void ring_overwritesOldestSamples() {
+        MetricRing ring = new MetricRing(3);
+
+        assertTrue(Double.isNaN(ring.last()));
+
+        for (int i = 1; i <= 5; i++)
+            ring.append(i * 1000L, i);
+
+        assertEquals(3, ring.size());
+        assertEquals(3, ring.value(0));
+        assertEquals(3000L, ring.timestamp(0));
+        assertEquals(5, ring.last());
+
+        double[] dst = new double[2];
+
+        assertEquals(2, ring.copyValues(dst));
+        assertArrayEquals(new double[] {4, 5}, dst);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> ring.value(3));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void append_exhaustedBudget_evictsLeastRecentNode() {
+        int samples = 4;
+
+        // Budget of 3 series.
+        MetricHistory history = new MetricHistory(3L * samples * MetricRing.SAMPLE_SIZE, samples);
+
+        assertEquals(3, history.maxSeries());
+
+        assertTrue(history.append("node0", "m0", 1, 1));
+        assertTrue(history.append("node1", "m0", 2, 1));
+        assertTrue(history.append("node1", "m1", 3, 1));
+        assertTrue(history.append("node2", "m0", 4, 1));
+
+        assertEquals(0, history.size("node0", "m0"));
+        assertEquals(1, history.size("node1", "m0"));
+        assertEquals(3, history.seriesCount());
+
+        // Series of the same node are never evicted to make room for its own series.
+        history.retainNodes(List.of("node2"));
+
+        assertTrue(history.append("node2", "m1", 5, 1));
+        assertTrue(history.append("node2", "m2", 6, 1));
+        assertFalse(history.append("node2", "m3", 7, 1));
+
+        assertEquals(1, history.dropped());
+        assertEquals(3, history.seriesCount());
+    }
+
+    /**
+     *
+     */
+    @Test
+    void record_systemMetrics_skipsStaleInformation() {
+        MetricHistory history = new MetricHistory();
+
+        SystemMetricsInformation info = new SystemMetricsInformation("node0", List.of("host0"), 10, 1, 2, 30,
+            Map.of("default", 40.0), 5);
+
+        history.record(List.of(info), 1000);
+        history.record(List.of(info.asStale(), SystemMetricsInformation.unknown("node1", List.of("host1"))), 2000);
+
+        assertEquals(1, history.size("node0", MetricHistory.CPU_LOAD));
+        assertEquals(10, history.last("node0", MetricHistory.CPU_LOAD));
+        assertEquals(30, history.last("node0", MetricHistory.HEAP_USAGE));
+        assertEquals(40, history.last("node0", history.dataRegionUsage("default")));
+        assertEquals(0, history.size("node1", MetricHistory.CPU_LOAD));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void record_topology_dropsSeriesOfLeftNodesAndSkipsClients() {
+        MetricHistory history = new MetricHistory();
+
+        history.append("left", MetricHistory.CPU_LOAD, 1000, 10);
+
+        OnlineNodeInfo srv = onlineNode("srv", 5000);
+        OnlineNodeInfo client = onlineNode("client", 3000);
+
+        history.record(new TopologyInformation(List.of(srv), List.of(), List.of(), List.of(client), srv, 1,
+            ClusterState.ACTIVE, true), 2000);
+
+        assertEquals(5000, history.last("srv", MetricHistory.UP_TIME));
+        assertEquals(0, history.size("client", MetricHistory.UP_TIME), "Clients should not be recorded");
+        assertEquals(0, history.size("left", MetricHistory.CPU_LOAD));
+        assertEquals(1, history.seriesCount());
+    }
+
+    /**
+     *
+     */
+    @Test
+    void append_existingSeries_doesNotAllocate() {
+        ThreadMXBean threadMxBean = ManagementFactory.getThreadMXBean();
+
+        assumeTrue(threadMxBean instanceof com.sun.management.ThreadMXBean, "Allocation counter is not supported");
+
+        com.sun.management.ThreadMXBean mxBean = (com.sun.management.ThreadMXBean)threadMxBean;
+
+        assumeTrue(mxBean.isThreadAllocatedMemorySupported() && mxBean.isThreadAllocatedMemoryEnabled(),
+            "Allocation counter is not supported");
+
+        MetricHistory history = new MetricHistory();
+
+        int samplesCnt = 100_000;
+
+        // Warm up.
+        for (int i = 0; i < samplesCnt; i++)
+            history.append("node0", MetricHistory.CPU_LOAD, i, i * 0.5);
+
+        long threadId = Thread.currentThread().getId();
+
+        long before = mxBean.getThreadAllocatedBytes(threadId);
+
+        for (int i = 0; i < samplesCnt; i++)
+            history.append("node0", MetricHistory.CPU_LOAD, i, i * 0.5);
+
+        long allocated = mxBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(allocated / samplesCnt < 1, "Unexpected allocation per sample: " + (double)allocated / samplesCnt);
+    }
+
+    /**
+     * @param consId Consistent ID.
+     * @param upTime Uptime.
+     */
+    private static OnlineNodeInfo onlineNode(String consId, long upTime) {
+        return new OnlineNodeInfo(UUID.randomUUID(), consId, 1, null, List.of(), List.of(), upTime);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ignite.metric;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+import static dev.ignitop.ignite.metric.CounterRates.UP_TIME_METRIC;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ */
+class CounterRatesTest {
+    /** Counter name. */
+    private static final String GETS = "cache.default.CacheGets";
+
+    /**
+     *
+     */
+    @Test
+    void rate_isDerived_fromPreviousSample() {
+        CounterRates rates = new CounterRates();
+
+        assertTrue(Double.isNaN(rates.rate("node0", GETS, 1000, 100)), "First sample has no rate");
+        assertEquals(50, rates.rate("node0", GETS, 3000, 200));
+        assertEquals(0, rates.rate("node0", GETS, 4000, 200));
+
+        // Time has not advanced.
+        assertTrue(Double.isNaN(rates.rate("node0", GETS, 4000, 300)));
+        assertEquals(100, rates.rate("node0", GETS, 5000, 300));
+
+        // Other nodes and counters are independent.
+        assertTrue(Double.isNaN(rates.rate("node1", GETS, 5000, 300)));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void rate_afterRestart_isUnknown() {
+        CounterRates rates = new CounterRates();
+
+        rates.upTime("node0", 10_000);
+        rates.rate("node0", GETS, 1000, 100);
+
+        // Counter has grown after restart, but it must not be compared with a value before restart.
+        rates.upTime("node0", 500);
+
+        assertTrue(Double.isNaN(rates.rate("node0", GETS, 2000, 150)), "Rate must be reset on restart");
+        assertEquals(10, rates.rate("node0", GETS, 3000, 160));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void rate_decreasedCounter_isUnknown() {
+        CounterRates rates = new CounterRates();
+
+        rates.rate("node0", GETS, 1000, 100);
+
+        assertTrue(Double.isNaN(rates.rate("node0", GETS, 2000, 10)));
+        assertEquals(20, rates.rate("node0", GETS, 3000, 30));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void rates_ofNodeMetrics_detectRestartByUpTime() {
+        CounterRates rates = new CounterRates();
+
+        UUID nodeId = UUID.randomUUID();
+
+        rates.rates("node0", new NodeMetrics(nodeId, Map.of(UP_TIME_METRIC, 10_000L, GETS, 100L)), List.of(GETS),
+            1000);
+
+        Map<String, Double> res = rates.rates("node0", new NodeMetrics(nodeId, Map.of(UP_TIME_METRIC, 11_000L,
+            GETS, "300")), List.of(GETS), 2000);
+
+        assertEquals(200, res.get(GETS).doubleValue());
+
+        res = rates.rates("node0", new NodeMetrics(nodeId, Map.of(UP_TIME_METRIC, 1_000L, GETS, 500L)),
+            List.of(GETS), 3000);
+
+        assertTrue(Double.isNaN(res.get(GETS)), "Rate must be reset on restart");
+
+        res = rates.rates("node0", new NodeMetrics(nodeId, Map.of(UP_TIME_METRIC, 2_000L)), List.of(GETS), 4000);
+
+        assertTrue(Double.isNaN(res.get(GETS)), "Absent counter has no rate");
+    }
+
+    /**
+     *
+     */
+    @Test
+    void retainNodes_forgetsDepartedNodes() {
+        CounterRates rates = new CounterRates();
+
+        rates.rate("node0", GETS, 1000, 100);
+        rates.rate("node1", GETS, 1000, 100);
+
+        rates.retainNodes(List.of("node1"));
+
+        assertTrue(Double.isNaN(rates.rate("node0", GETS, 2000, 200)));
+        assertEquals(100, rates.rate("node1", GETS, 2000, 200));
+    }
+}
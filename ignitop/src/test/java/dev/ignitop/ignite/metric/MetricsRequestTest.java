@@ -0,0 +1,75 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ignite.metric;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ */
+class MetricsRequestTest {
+    /**
+     *
+     */
+    @Test
+    void names_metricsCoveredByRegistry_areNotRequestedSeparately() {
+        MetricsRequest req = new MetricsRequest(UUID.randomUUID())
+            .registry("sys")
+            .registry("io.dataregion.default")
+            .metric("sys.UpTime", "io.dataregion.default.MaxSize", "io.datastorage.StorageSize");
+
+        assertEquals(Set.of("sys", "io.dataregion.default", "io.datastorage.StorageSize"), req.names());
+    }
+
+    /**
+     *
+     */
+    @Test
+    void names_registryPrefix_withoutSeparator_doesNotCoverMetric() {
+        MetricsRequest req = new MetricsRequest(UUID.randomUUID())
+            .registry("io.dataregion.default")
+            .metric("io.dataregion.defaultRegion.MaxSize");
+
+        assertEquals(Set.of("io.dataregion.default", "io.dataregion.defaultRegion.MaxSize"), req.names());
+    }
+
+    /**
+     *
+     */
+    @Test
+    void nodeMetrics_typedValues() {
+        NodeMetrics metrics = new NodeMetrics(UUID.randomUUID(), Map.of(
+            "sys.UpTime", 100L,
+            "sys.CpuLoad", 0.5d,
+            "sys.SystemLoadAverage", "2.25",
+            "cluster.Rebalanced", true));
+
+        assertEquals(100L, metrics.longValue("sys.UpTime", -1L));
+        assertEquals(-1L, metrics.longValue("sys.Absent", -1L));
+        assertEquals(0.5d, metrics.doubleValue("sys.CpuLoad", 0d));
+        assertEquals(2.25d, metrics.doubleValue("sys.SystemLoadAverage", 0d));
+        assertTrue(metrics.booleanValue("cluster.Rebalanced", false));
+        assertFalse(metrics.booleanValue("cluster.Absent", false));
+    }
+}
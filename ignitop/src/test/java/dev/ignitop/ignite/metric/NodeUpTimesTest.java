@@ -0,0 +1,87 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ignite.metric;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ */
+class NodeUpTimesTest {
+    /**
+     *
+     */
+    @Test
+    void parse_computesUpTimesFromStartTimes() {
+        UUID node0 = UUID.randomUUID();
+        UUID node1 = UUID.randomUUID();
+
+        Map<UUID, Long> upTimes = NodeUpTimes.parse(
+            List.of("NODE_ID", "UP_TIME", "NODE_START_TIME"),
+            List.of(
+                List.of(node0, 1L, 1_000L),
+                List.of(node1.toString(), 1L, 4_000L)),
+            5_000L);
+
+        assertEquals(Map.of(node0, 4_000L, node1, 1_000L), upTimes);
+    }
+
+    /**
+     *
+     */
+    @Test
+    void parse_computesUpTimesFromDateStartTimes() {
+        UUID node = UUID.randomUUID();
+
+        Map<UUID, Long> upTimes = NodeUpTimes.parse(
+            List.of("NODE_ID", "UP_TIME", "NODE_START_TIME"),
+            List.of(List.of(node, 1L, new Date(2_000L))),
+            5_000L);
+
+        assertEquals(Map.of(node, 3_000L), upTimes);
+    }
+
+    /**
+     *
+     */
+    @Test
+    void parse_withoutStartTime_usesUpTimeColumn() {
+        UUID node = UUID.randomUUID();
+
+        Map<UUID, Long> upTimes = NodeUpTimes.parse(
+            List.of("nodeId", "upTime"),
+            List.of(List.of(node, 3_000L)),
+            5_000L);
+
+        assertEquals(Map.of(node, 3_000L), upTimes);
+    }
+
+    /**
+     *
+     */
+    @Test
+    void parse_withoutNodeId_isEmpty() {
+        assertTrue(NodeUpTimes.parse(List.of("upTime"), List.of(List.of(1L)), 5_000L).isEmpty());
+    }
+}
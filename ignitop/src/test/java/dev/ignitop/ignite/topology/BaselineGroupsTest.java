@@ -0,0 +1,104 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ignite.topology;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import dev.ignitop.util.CountingId;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ */
+class BaselineGroupsTest {
+    /** Maximum amount of simulated nodes. */
+    public static final int MAX_NODES = 10_000;
+
+    /**
+     *
+     */
+    @Test
+    void group_byBaselineState() {
+        List<String> srvNodes = List.of("online", "nonBaseline", "offlineFlagged");
+
+        BaselineGroups<String> groups = new BaselineGroups<>(srvNodes, n -> n, List.of(
+            List.of("online", true),
+            List.of("offline", false),
+            List.of("offlineFlagged", false)));
+
+        assertEquals(List.of("online"), groups.online());
+        assertEquals(Set.of("offline", "offlineFlagged"), groups.offlineConsistentIds());
+        assertEquals(List.of("nonBaseline", "offlineFlagged"), groups.nonBaseline());
+    }
+
+    /**
+     *
+     */
+    @Test
+    void group_scalesLinearly() {
+        long small = operations(MAX_NODES / 10);
+        long large = operations(MAX_NODES);
+
+        // Quadratic grouping would perform ~100 times more operations on 10 times more nodes.
+        assertTrue(large <= small * 15, "Grouping is not linear [small=" + small + ", large=" + large + ']');
+    }
+
+    /**
+     * Group simulated nodes: a half is online baseline nodes, a quarter is offline and a quarter is outside of
+     * baseline.
+     *
+     * @param nodesCnt Nodes count.
+     * @return Amount of operations with consistent ids: extractions, conversions to strings, hash codes and equality
+     * checks.
+     */
+    private static long operations(int nodesCnt) {
+        AtomicLong ops = new AtomicLong();
+
+        IntFunction<CountingId> consId = i -> new CountingId("node-" + i, ops);
+
+        List<CountingId> srvNodes = IntStream.range(0, nodesCnt / 2)
+            .mapToObj(consId)
+            .collect(Collectors.toList());
+
+        IntStream.range(nodesCnt * 3 / 4, nodesCnt).mapToObj(consId).forEach(srvNodes::add);
+
+        List<List<?>> baselineView = new ArrayList<>();
+
+        for (int i = 0; i < nodesCnt * 3 / 4; i++)
+            baselineView.add(List.of(consId.apply(i), i < nodesCnt / 2));
+
+        BaselineGroups<CountingId> groups = new BaselineGroups<>(srvNodes, n -> {
+            ops.incrementAndGet();
+
+            return n;
+        }, baselineView);
+
+        assertEquals(nodesCnt / 2, groups.online().size());
+        assertEquals(nodesCnt / 4, groups.offlineConsistentIds().size());
+        assertEquals(nodesCnt / 4, groups.nonBaseline().size());
+
+        return ops.get();
+    }
+}
@@ -118,4 +118,21 @@ class OnlineNodeInfoTest {
     void upTime() {
         assertEquals(30, new OnlineNodeInfo(node, 30).upTime());
     }
+
+    /**
+     *
+     */
+    @Test
+    void withUpTime() {
+        UUID uuid = UUID.randomUUID();
+
+        when(node.id()).thenReturn(uuid);
+        when(node.order()).thenReturn(2L);
+
+        OnlineNodeInfo info = new OnlineNodeInfo(node, 30).withUpTime(60);
+
+        assertEquals(uuid, info.nodeId());
+        assertEquals(2, info.order());
+        assertEquals(60, info.upTime());
+    }
 }
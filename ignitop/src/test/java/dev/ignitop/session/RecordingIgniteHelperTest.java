@@ -0,0 +1,139 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.session;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import dev.ignitop.ignite.IgniteHelper;
+import dev.ignitop.ignite.system.SystemMetricsInformation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ */
+class RecordingIgniteHelperTest {
+    /** Session file. */
+    private Path file;
+
+    /** Future of system metrics collection of a delegate. */
+    private CompletableFuture<Collection<SystemMetricsInformation>> sysMetricsFut;
+
+    /** Delegate. */
+    private IgniteHelper delegate;
+
+    /**
+     *
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempFile("ignitop-session", ".bin");
+
+        sysMetricsFut = new CompletableFuture<>();
+
+        delegate = new IgniteHelper() {
+            /** {@inheritDoc} */
+            @Override public CompletableFuture<Collection<SystemMetricsInformation>> systemMetricsAsync() {
+                return sysMetricsFut;
+            }
+        };
+    }
+
+    /**
+     *
+     */
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(SessionIndex.file(file));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void systemMetricsAsync_isRecorded() throws IOException {
+        Collection<SystemMetricsInformation> infos = List.of(new SystemMetricsInformation("node0", List.of("host0"),
+            52.28, 2.57, 10.17, 20.67, Map.of("default", 20.33), 70.7));
+
+        try (RecordingIgniteHelper helper = new RecordingIgniteHelper(delegate, new SessionWriter(file))) {
+            CompletableFuture<Collection<SystemMetricsInformation>> fut = helper.systemMetricsAsync();
+
+            sysMetricsFut.complete(infos);
+
+            assertSame(infos, fut.join());
+        }
+
+        try (SessionReader reader = new SessionReader(file)) {
+            RecordedSnapshot snapshot = reader.next();
+
+            assertEquals("node0", snapshot.systemMetrics().iterator().next().consistentId());
+            assertNull(reader.next());
+        }
+    }
+
+    /**
+     *
+     */
+    @Test
+    void systemMetricsAsync_failedRecording_doesNotFailCollection() throws IOException {
+        Collection<SystemMetricsInformation> infos = List.of(SystemMetricsInformation.unknown("node0", List.of()));
+
+        SessionWriter writer = new SessionWriter(file);
+
+        // Writes to a closed file fail.
+        writer.close();
+
+        try (RecordingIgniteHelper helper = new RecordingIgniteHelper(delegate, writer)) {
+            assertEquals("Recording", helper.status());
+
+            CompletableFuture<Collection<SystemMetricsInformation>> fut = helper.systemMetricsAsync();
+
+            sysMetricsFut.complete(infos);
+
+            assertSame(infos, fut.join());
+            assertTrue(helper.status().startsWith("Recording stopped: "), helper.status());
+
+            assertSame(infos, helper.systemMetricsAsync().join(), "Collections should go on without recording");
+        }
+    }
+
+    /**
+     *
+     */
+    @Test
+    void systemMetricsAsync_cancellation_cancelsDelegate() throws IOException {
+        try (RecordingIgniteHelper helper = new RecordingIgniteHelper(delegate, new SessionWriter(file))) {
+            helper.systemMetricsAsync().cancel(true);
+
+            assertTrue(sysMetricsFut.isCancelled());
+        }
+
+        assertEquals(0, Files.size(file));
+    }
+}
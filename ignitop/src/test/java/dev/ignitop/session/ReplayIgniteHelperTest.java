@@ -0,0 +1,85 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.session;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import dev.ignitop.ignite.CollectionEngine;
+import dev.ignitop.ignite.system.SystemMetricsInformation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ */
+class ReplayIgniteHelperTest {
+    /** Session file. */
+    private Path file;
+
+    /**
+     *
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempFile("ignitop-session", ".bin");
+
+        try (SessionWriter writer = new SessionWriter(file)) {
+            writer.write(List.of(new SystemMetricsInformation("node0", List.of("host0"), 52.28, 2.57, 10.17, 20.67,
+                Map.of("default", 20.33), 70.7)), 1000);
+        }
+    }
+
+    /**
+     *
+     */
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(SessionIndex.file(file));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void collections_returnRecordedSnapshots() throws IOException {
+        try (ReplayIgniteHelper helper = new ReplayIgniteHelper(new SessionPlayer(file))) {
+            Collection<SystemMetricsInformation> infos = helper.systemMetricsAsync().join();
+
+            assertEquals("node0", infos.iterator().next().consistentId());
+            assertEquals(52.28, infos.iterator().next().cpuLoadPercent(), 0);
+
+            // Topology was not recorded, so it is reported like a missed deadline and a screen keeps its snapshot.
+            CompletableFuture<?> topFut = helper.topologyInformationAsync();
+
+            CompletionException err = assertThrows(CompletionException.class, topFut::join);
+
+            assertTrue(CollectionEngine.timedOut(err));
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.session;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import dev.ignitop.ignite.system.SystemMetricsInformation;
+import dev.ignitop.ignite.topology.OnlineNodeInfo;
+import dev.ignitop.ignite.topology.TopologyInformation;
+import org.apache.ignite.cluster.ClusterState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ */
+class SessionPlayerTest {
+    /** Timestamp of the first snapshot. */
+    private static final long START = 1_000_000;
+
+    /** Collection interval of a recording. */
+    private static final long INTERVAL = 5000;
+
+    /** Duration of a recording. */
+    private static final long DURATION = TimeUnit.MINUTES.toMillis(30);
+
+    /** Session file. */
+    private Path file;
+
+    /** Wall clock. */
+    private final AtomicLong clock = new AtomicLong(100);
+
+    /**
+     *
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempFile("ignitop-session", ".bin");
+
+        OnlineNodeInfo crd = new OnlineNodeInfo(UUID.randomUUID(), "node0", 1, null, List.of("host0"),
+            List.of("10.0.0.1"), 0);
+
+        // Uptime and CPU load of every snapshot refer to its timestamp.
+        try (SessionWriter writer = new SessionWriter(file)) {
+            for (long ts = START; ts <= START + DURATION; ts += INTERVAL) {
+                writer.write(new TopologyInformation(List.of(), List.of(), List.of(), List.of(),
+                    crd.withUpTime(ts - START), 1, ClusterState.ACTIVE, true), ts);
+
+                writer.write(List.of(new SystemMetricsInformation("node0", List.of("host0"), (ts - START) / INTERVAL,
+                    0, 0, 0, Map.of(), 0)), ts + 1);
+            }
+        }
+    }
+
+    /**
+     *
+     */
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(SessionIndex.file(file));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void playback_followsClock_withSpeedAndPause() throws IOException {
+        try (SessionPlayer player = new SessionPlayer(file, clock::get)) {
+            assertEquals(START, player.start());
+            assertEquals(START + DURATION + 1, player.end());
+
+            assertEquals(START, player.position());
+            assertEquals(0, player.topology().coordinator().upTime());
+            assertNull(player.systemMetrics(), "System metrics are recorded after topology");
+
+            clock.addAndGet(7000);
+
+            assertEquals(START + 7000, player.position());
+            assertEquals(5000, player.topology().coordinator().upTime());
+            assertEquals(1, player.systemMetrics().iterator().next().cpuLoadPercent(), 0);
+
+            player.speed(100);
+            clock.addAndGet(1000);
+
+            assertEquals(START + 107_000, player.position());
+            assertEquals(105_000, player.topology().coordinator().upTime());
+
+            player.togglePause();
+            clock.addAndGet(1000);
+
+            assertTrue(player.paused());
+            assertEquals(START + 107_000, player.position());
+            assertTrue(player.status().endsWith(" 100x paused"), player.status());
+
+            player.togglePause();
+            player.speed(10);
+            clock.addAndGet(1000);
+
+            assertFalse(player.paused());
+            assertEquals(START + 117_000, player.position());
+
+            // Position stops at the end of a recording.
+            clock.addAndGet(DURATION);
+
+            assertEquals(player.end(), player.position());
+            assertEquals(DURATION, player.topology().coordinator().upTime());
+
+            assertThrows(IllegalArgumentException.class, () -> player.speed(0));
+        }
+    }
+
+    /**
+     *
+     */
+    @Test
+    void seek_backwardAndForward_showsLatestSnapshots() throws IOException {
+        try (SessionPlayer player = new SessionPlayer(file, clock::get)) {
+            player.togglePause();
+
+            checkSeek(player, START + TimeUnit.MINUTES.toMillis(25) + 2500);
+            checkSeek(player, START + TimeUnit.MINUTES.toMillis(17) + 2500);
+
+            // Snapshot, which is recorded just before a block start, is current after seek to the block start.
+            checkSeek(player, START + SessionFormat.BLOCK_INTERVAL);
+            checkSeek(player, START + SessionFormat.BLOCK_INTERVAL + INTERVAL / 2);
+
+            player.skip(-INTERVAL);
+
+            assertEquals(START + SessionFormat.BLOCK_INTERVAL - INTERVAL / 2, player.position());
+
+            player.seek(Long.MIN_VALUE);
+
+            assertEquals(START, player.position());
+
+            player.seek(Long.MAX_VALUE);
+
+            assertEquals(player.end(), player.position());
+        }
+    }
+
+    /**
+     *
+     */
+    @Test
+    void seek_withoutIndexFile_rebuildsIndex() throws IOException {
+        Files.delete(SessionIndex.file(file));
+
+        try (SessionPlayer player = new SessionPlayer(file, clock::get)) {
+            player.togglePause();
+
+            checkSeek(player, START + TimeUnit.MINUTES.toMillis(12) + 2500);
+        }
+    }
+
+    /**
+     *
+     */
+    @Test
+    void create_emptySession_fails() throws IOException {
+        Files.write(file, new byte[0]);
+
+        assertThrows(IOException.class, () -> new SessionPlayer(file, clock::get));
+    }
+
+    /**
+     * @param player Paused player.
+     * @param pos Position between snapshots.
+     */
+    private static void checkSeek(SessionPlayer player, long pos) {
+        player.seek(pos);
+
+        long expUpTime = (pos - START) / INTERVAL * INTERVAL;
+
+        // System metrics are recorded a millisecond after topology.
+        long expCpu = (pos - START - 1) / INTERVAL;
+
+        assertEquals(pos, player.position());
+        assertEquals(expUpTime, player.topology().coordinator().upTime());
+        assertEquals(expCpu, player.systemMetrics().iterator().next().cpuLoadPercent(), 0);
+    }
+}
@@ -0,0 +1,464 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.session;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import dev.ignitop.ignite.system.SystemMetricsInformation;
+import dev.ignitop.ignite.topology.OfflineNodeInfo;
+import dev.ignitop.ignite.topology.OnlineNodeInfo;
+import dev.ignitop.ignite.topology.TopologyInformation;
+import org.apache.ignite.cluster.ClusterState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ */
+class SessionWriterTest {
+    /** Session file. */
+    private Path file;
+
+    /**
+     *
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempFile("ignitop-session", ".bin");
+    }
+
+    /**
+     *
+     */
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(SessionIndex.file(file));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void write_topology_isReadBack() throws IOException {
+        List<OnlineNodeInfo> srvs = onlineNodes(3, 1);
+
+        OnlineNodeInfo client = onlineNode(10, "client", -1);
+
+        try (SessionWriter writer = new SessionWriter(file)) {
+            writer.write(topology(srvs, List.of(client), 5), 1000);
+            writer.write(topology(withUpTimes(srvs, 5000), List.of(client), 5), 6000);
+            writer.write(topology(srvs.subList(0, 2), List.of(client), 6), 11_000);
+        }
+
+        try (SessionReader reader = new SessionReader(file)) {
+            RecordedSnapshot first = reader.next();
+
+            checkTopology(first, 1000, srvs, 5);
+
+            OnlineNodeInfo readClient = first.topology().clientNodes().iterator().next();
+
+            assertEquals(client.nodeId(), readClient.nodeId());
+            assertEquals(-1, readClient.upTime());
+
+            checkTopology(reader.next(), 6000, withUpTimes(srvs, 5000), 5);
+            checkTopology(reader.next(), 11_000, srvs.subList(0, 2), 6);
+
+            assertNull(reader.next());
+        }
+    }
+
+    /**
+     *
+     */
+    @Test
+    void write_systemMetrics_isReadBack() throws IOException {
+        SystemMetricsInformation info0 = new SystemMetricsInformation("node0", List.of("host0"), 52.28, 2.57, 10.17,
+            20.67, Map.of("default", 20.33, "persistent", 99.99), 70.7);
+
+        SystemMetricsInformation info1 = new SystemMetricsInformation("node1", List.of("host1", "host2"), 1, 0.5, 0,
+            30, Map.of("default", 1.5), 0);
+
+        try (SessionWriter writer = new SessionWriter(file)) {
+            writer.write(List.of(info0, info1), 1000);
+            writer.write(List.of(info0.asStale(), SystemMetricsInformation.unknown("node1", List.of("host1"))), 6000);
+            writer.write(List.of(info0, info1), 11_000);
+        }
+
+        try (SessionReader reader = new SessionReader(file)) {
+            checkSystemMetrics(reader.next(), 1000, List.of(info0, info1));
+            checkSystemMetrics(reader.next(), 6000,
+                List.of(info0.asStale(), SystemMetricsInformation.unknown("node1", List.of("host1"))));
+            checkSystemMetrics(reader.next(), 11_000, List.of(info0, info1));
+
+            assertNull(reader.next());
+        }
+    }
+
+    /**
+     *
+     */
+    @Test
+    void write_acrossBlocks_isReadBack() throws IOException {
+        List<OnlineNodeInfo> srvs = onlineNodes(2, 1);
+
+        long ts = 1000;
+
+        try (SessionWriter writer = new SessionWriter(file)) {
+            for (int i = 0; i < 3; i++, ts += SessionFormat.BLOCK_INTERVAL)
+                writer.write(topology(withUpTimes(srvs, ts), List.of(), 1), ts);
+        }
+
+        // Session is appended to an existing file.
+        try (SessionWriter writer = new SessionWriter(file)) {
+            writer.write(topology(withUpTimes(srvs, ts), List.of(), 1), ts);
+        }
+
+        try (SessionReader reader = new SessionReader(file)) {
+            for (long expTs = 1000; expTs <= ts; expTs += SessionFormat.BLOCK_INTERVAL)
+                checkTopology(reader.next(), expTs, withUpTimes(srvs, expTs), 1);
+
+            assertNull(reader.next());
+        }
+    }
+
+    /**
+     *
+     */
+    @Test
+    void write_blocks_areIndexed() throws IOException {
+        List<OnlineNodeInfo> srvs = onlineNodes(2, 1);
+
+        long ts = 1000;
+
+        try (SessionWriter writer = new SessionWriter(file)) {
+            for (int i = 0; i < 3; i++, ts += SessionFormat.BLOCK_INTERVAL / 2)
+                writer.write(topology(withUpTimes(srvs, ts), List.of(), 1), ts);
+        }
+
+        try (SessionReader reader = new SessionReader(file)) {
+            SessionIndex idx = SessionIndex.load(file, reader);
+
+            assertEquals(2, idx.size());
+            assertEquals(1000, idx.timestamp(0));
+            assertEquals(0, idx.offset(0));
+            assertEquals(1000 + SessionFormat.BLOCK_INTERVAL, idx.timestamp(1));
+
+            assertEquals(0, idx.floor(0));
+            assertEquals(0, idx.floor(1000 + SessionFormat.BLOCK_INTERVAL - 1));
+            assertEquals(1, idx.floor(Long.MAX_VALUE));
+
+            reader.seek(idx.offset(1));
+
+            checkTopology(reader.next(), 1000 + SessionFormat.BLOCK_INTERVAL,
+                withUpTimes(srvs, 1000 + SessionFormat.BLOCK_INTERVAL), 1);
+
+            // Index of a missing file is rebuilt by a scan.
+            Files.delete(SessionIndex.file(file));
+
+            SessionIndex rebuilt = SessionIndex.load(file, reader);
+
+            assertEquals(2, rebuilt.size());
+            assertEquals(idx.offset(1), rebuilt.offset(1));
+            assertEquals(idx.timestamp(1), rebuilt.timestamp(1));
+        }
+    }
+
+    /**
+     *
+     */
+    @Test
+    void read_truncatedFile_stopsAtLastCompleteSnapshot() throws IOException {
+        SystemMetricsInformation info = new SystemMetricsInformation("node0", List.of("host0"), 52.28, 2.57, 10.17,
+            20.67, Map.of("default", 20.33), 70.7);
+
+        try (SessionWriter writer = new SessionWriter(file)) {
+            writer.write(List.of(info), 1000);
+            writer.write(List.of(info), 6000);
+        }
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.truncate(ch.size() - 2);
+        }
+
+        try (SessionReader reader = new SessionReader(file)) {
+            checkSystemMetrics(reader.next(), 1000, List.of(info));
+
+            assertNull(reader.next());
+        }
+    }
+
+    /**
+     *
+     */
+    @Test
+    void read_tornRecordFollowedByAppendedSession_resumesAtNextBlock() throws IOException {
+        SystemMetricsInformation info = new SystemMetricsInformation("node0", List.of("host0"), 52.28, 2.57, 10.17,
+            20.67, Map.of("default", 20.33), 70.7);
+
+        List<OnlineNodeInfo> srvs = onlineNodes(3, 1);
+
+        try (SessionWriter writer = new SessionWriter(file)) {
+            writer.write(List.of(info), 1000);
+            writer.write(List.of(info), 6000);
+        }
+
+        Path appended = Files.createTempFile("ignitop-session", ".bin");
+
+        try {
+            try (SessionWriter writer = new SessionWriter(appended)) {
+                writer.write(topology(srvs, List.of(), 5), 20_000);
+                writer.write(List.of(info), 25_000);
+            }
+
+            // Session is appended after a torn record without truncation of the latter.
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                ch.truncate(ch.size() - 2);
+                ch.position(ch.size());
+                ch.write(ByteBuffer.wrap(Files.readAllBytes(appended)));
+            }
+        }
+        finally {
+            Files.deleteIfExists(appended);
+            Files.deleteIfExists(SessionIndex.file(appended));
+        }
+
+        try (SessionReader reader = new SessionReader(file)) {
+            checkSystemMetrics(reader.next(), 1000, List.of(info));
+            checkTopology(reader.next(), 20_000, srvs, 5);
+            checkSystemMetrics(reader.next(), 25_000, List.of(info));
+
+            assertNull(reader.next());
+        }
+    }
+
+    /**
+     *
+     */
+    @Test
+    void write_afterTornRecord_truncatesIt() throws IOException {
+        SystemMetricsInformation info = new SystemMetricsInformation("node0", List.of("host0"), 52.28, 2.57, 10.17,
+            20.67, Map.of("default", 20.33), 70.7);
+
+        List<OnlineNodeInfo> srvs = onlineNodes(3, 1);
+
+        try (SessionWriter writer = new SessionWriter(file)) {
+            writer.write(List.of(info), 1000);
+            writer.write(List.of(info), 6000);
+        }
+
+        long size = Files.size(file);
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.truncate(size - 2);
+        }
+
+        try (SessionWriter writer = new SessionWriter(file)) {
+            assertTrue(Files.size(file) < size - 2, "Torn record should be truncated");
+
+            writer.write(topology(srvs, List.of(), 5), 20_000);
+        }
+
+        try (SessionReader reader = new SessionReader(file)) {
+            checkSystemMetrics(reader.next(), 1000, List.of(info));
+            checkTopology(reader.next(), 20_000, srvs, 5);
+
+            assertNull(reader.next());
+        }
+    }
+
+    /**
+     * Day of 100 nodes with 5 seconds interval is 17280 snapshots, which should fit into tens of megabytes.
+     */
+    @Test
+    void write_steadyCluster_isCompact() throws IOException {
+        int nodesCnt = 100;
+        int snapshotsCnt = 720;
+
+        Random rnd = new Random(42);
+
+        List<OnlineNodeInfo> srvs = onlineNodes(nodesCnt, 1);
+
+        try (SessionWriter writer = new SessionWriter(file)) {
+            for (int s = 0; s < snapshotsCnt; s++) {
+                long ts = 1000 + s * 5000L;
+
+                writer.write(topology(withUpTimes(srvs, ts + rnd.nextInt(20)), List.of(), 1), ts);
+
+                List<SystemMetricsInformation> infos = new ArrayList<>();
+
+                for (int i = 0; i < nodesCnt; i++) {
+                    infos.add(new SystemMetricsInformation("node" + i, List.of("host" + i), 30 + rnd.nextDouble() * 10,
+                        2 + rnd.nextDouble(), rnd.nextDouble(), 40 + rnd.nextDouble() * 20,
+                        Map.of("default", 20 + rnd.nextDouble(), "persistent", 60 + rnd.nextDouble()), 100));
+                }
+
+                writer.write(infos, ts + 10);
+            }
+        }
+
+        long perDay = Files.size(file) * 17_280 / snapshotsCnt;
+
+        assertTrue(perDay < 50L * 1024 * 1024, "Unexpected size of a day: " + perDay);
+    }
+
+    /**
+     * @param snapshot Snapshot.
+     * @param expTs Expected timestamp.
+     * @param expSrvs Expected server nodes.
+     * @param expTopVer Expected topology version.
+     */
+    private static void checkTopology(RecordedSnapshot snapshot, long expTs, List<OnlineNodeInfo> expSrvs,
+        long expTopVer) {
+        assertNotNull(snapshot);
+        assertEquals(expTs, snapshot.timestamp());
+        assertNull(snapshot.systemMetrics());
+
+        TopologyInformation topInfo = snapshot.topology();
+
+        assertNotNull(topInfo);
+        assertEquals(expTopVer, topInfo.topologyVersion());
+        assertEquals(ClusterState.ACTIVE, topInfo.clusterState());
+        assertTrue(topInfo.rebalanced());
+        assertEquals(expSrvs.get(0).nodeId(), topInfo.coordinator().nodeId());
+        assertEquals(expSrvs.get(0).upTime(), topInfo.coordinator().upTime());
+
+        Iterator<OnlineNodeInfo> it = topInfo.onlineBaselineNodes().iterator();
+
+        for (OnlineNodeInfo exp : expSrvs) {
+            OnlineNodeInfo node = it.next();
+
+            assertEquals(exp.nodeId(), node.nodeId());
+            assertEquals(exp.consistentId(), node.consistentId());
+            assertEquals(exp.order(), node.order());
+            assertIterableEquals(exp.hostNames(), node.hostNames());
+            assertIterableEquals(exp.addresses(), node.addresses());
+            assertEquals(exp.upTime(), node.upTime());
+        }
+
+        assertFalse(it.hasNext());
+
+        OfflineNodeInfo offline = topInfo.offlineBaselineNodes().iterator().next();
+
+        assertEquals("offline", offline.consistentId());
+        assertEquals("[offlineHost]", offline.hostNames());
+
+        assertTrue(topInfo.nonBaselineNodes().isEmpty());
+    }
+
+    /**
+     * @param snapshot Snapshot.
+     * @param expTs Expected timestamp.
+     * @param expInfos Expected system metrics.
+     */
+    private static void checkSystemMetrics(RecordedSnapshot snapshot, long expTs,
+        Collection<SystemMetricsInformation> expInfos) {
+        assertNotNull(snapshot);
+        assertEquals(expTs, snapshot.timestamp());
+        assertNull(snapshot.topology());
+
+        Collection<SystemMetricsInformation> infos = snapshot.systemMetrics();
+
+        assertNotNull(infos);
+        assertEquals(expInfos.size(), infos.size());
+
+        Iterator<SystemMetricsInformation> it = infos.iterator();
+
+        for (SystemMetricsInformation exp : expInfos) {
+            SystemMetricsInformation info = it.next();
+
+            assertEquals(exp.consistentId(), info.consistentId());
+            assertIterableEquals(exp.hostNames(), info.hostNames());
+            assertEquals(exp.stale(), info.stale());
+            assertEquals(exp.cpuLoadPercent(), info.cpuLoadPercent(), 0.01);
+            assertEquals(exp.loadAverage(), info.loadAverage(), 0.01);
+            assertEquals(exp.gcCpuLoadPercent(), info.gcCpuLoadPercent(), 0.01);
+            assertEquals(exp.heapUsagePercent(), info.heapUsagePercent(), 0.01);
+            assertEquals(exp.dataStorageSizeGigabytes(), info.dataStorageSizeGigabytes(), 0.01);
+            assertEquals(exp.dataRegionUsagesPercents().keySet(), info.dataRegionUsagesPercents().keySet());
+
+            exp.dataRegionUsagesPercents().forEach((drName, usage) ->
+                assertEquals(usage, info.dataRegionUsagesPercents().get(drName), 0.01));
+        }
+    }
+
+    /**
+     * @param srvs Server nodes, the first one is a coordinator.
+     * @param clients Client nodes.
+     * @param topVer Topology version.
+     */
+    private static TopologyInformation topology(List<OnlineNodeInfo> srvs, List<OnlineNodeInfo> clients,
+        long topVer) {
+        return new TopologyInformation(srvs, List.of(new OfflineNodeInfo("offline", List.of("offlineHost"), List.of())),
+            List.of(), clients, srvs.get(0), topVer, ClusterState.ACTIVE, true);
+    }
+
+    /**
+     * @param cnt Count.
+     * @param firstOrder Order of the first node.
+     */
+    private static List<OnlineNodeInfo> onlineNodes(int cnt, long firstOrder) {
+        List<OnlineNodeInfo> nodes = new ArrayList<>();
+
+        for (int i = 0; i < cnt; i++)
+            nodes.add(onlineNode(firstOrder + i, "node" + i, 1000L * i));
+
+        return nodes;
+    }
+
+    /**
+     * @param order Order.
+     * @param consId Consistent ID.
+     * @param upTime Uptime.
+     */
+    private static OnlineNodeInfo onlineNode(long order, String consId, long upTime) {
+        return new OnlineNodeInfo(UUID.randomUUID(), consId, order, null, List.of(consId + "Host"),
+            List.of("10.0.0." + order), upTime);
+    }
+
+    /**
+     * @param nodes Nodes.
+     * @param upTime Uptime of all nodes.
+     */
+    private static List<OnlineNodeInfo> withUpTimes(List<OnlineNodeInfo> nodes, long upTime) {
+        List<OnlineNodeInfo> res = new ArrayList<>();
+
+        for (OnlineNodeInfo node : nodes)
+            res.add(node.withUpTime(upTime));
+
+        return res;
+    }
+}
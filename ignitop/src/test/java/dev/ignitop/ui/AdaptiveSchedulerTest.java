@@ -0,0 +1,132 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ui;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static dev.ignitop.ui.AdaptiveScheduler.MAX_INTERVAL;
+import static dev.ignitop.ui.AdaptiveScheduler.MIN_INTERVAL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ */
+class AdaptiveSchedulerTest {
+    /** Executor. */
+    private ScheduledExecutorService exec;
+
+    /**
+     *
+     */
+    @BeforeEach
+    void setUp() {
+        exec = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    /**
+     *
+     */
+    @AfterEach
+    void tearDown() {
+        exec.shutdownNow();
+    }
+
+    /**
+     *
+     */
+    @Test
+    void nextDelay_isStretched_onSlowCluster() {
+        assertEquals(4000, AdaptiveScheduler.nextDelay(5000, 1000));
+        assertEquals(3000, AdaptiveScheduler.nextDelay(5000, 3000));
+        assertEquals(8000, AdaptiveScheduler.nextDelay(5000, 8000));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void interval_isBounded() {
+        AdaptiveScheduler scheduler = new AdaptiveScheduler(exec, () -> {}, MIN_INTERVAL);
+
+        scheduler.decreaseInterval();
+        assertEquals(MIN_INTERVAL, scheduler.interval());
+
+        scheduler.increaseInterval();
+        assertEquals(MIN_INTERVAL + AdaptiveScheduler.INTERVAL_STEP, scheduler.interval());
+
+        scheduler.interval(Long.MAX_VALUE);
+        assertEquals(MAX_INTERVAL, scheduler.interval());
+    }
+
+    /**
+     *
+     */
+    @Test
+    void trigger_doesNotOverlapCollections() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        CountDownLatch collected = new CountDownLatch(2);
+
+        AdaptiveScheduler scheduler = new AdaptiveScheduler(exec, () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+
+            try {
+                Thread.sleep(10);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            running.decrementAndGet();
+
+            collected.countDown();
+        }, MIN_INTERVAL);
+
+        for (int i = 0; i < 5; i++)
+            scheduler.trigger();
+
+        assertTrue(collected.await(10, TimeUnit.SECONDS));
+        assertEquals(1, maxRunning.get());
+
+        scheduler.stop();
+
+        assertTrue(scheduler.termination().isDone());
+    }
+
+    /**
+     *
+     */
+    @Test
+    void failedCollection_completesTermination() {
+        AdaptiveScheduler scheduler = new AdaptiveScheduler(exec, () -> {
+            throw new IllegalStateException("Test");
+        }, MIN_INTERVAL);
+
+        scheduler.trigger();
+
+        assertTrue(scheduler.termination().handle((res, err) -> err != null).join());
+    }
+}
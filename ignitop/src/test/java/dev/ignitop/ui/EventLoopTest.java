@@ -0,0 +1,121 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ */
+class EventLoopTest {
+    /**
+     *
+     */
+    @Test
+    void run_handlesEventsOfManyThreads_inLoopThread() throws Exception {
+        EventLoop loop = new EventLoop();
+
+        int threads = 4;
+        int evtsPerThread = 1000;
+
+        Set<Thread> handlers = ConcurrentHashMap.newKeySet();
+        List<Integer> handled = new ArrayList<>();
+
+        CountDownLatch posted = new CountDownLatch(threads);
+
+        ExecutorService exec = Executors.newFixedThreadPool(threads);
+
+        try {
+            for (int t = 0; t < threads; t++) {
+                exec.execute(() -> {
+                    for (int i = 0; i < evtsPerThread; i++) {
+                        int evt = i;
+
+                        loop.execute(() -> {
+                            assertTrue(loop.inLoop());
+
+                            handlers.add(Thread.currentThread());
+
+                            // Not synchronized list is safe, as events are handled by a single thread.
+                            handled.add(evt);
+                        });
+                    }
+
+                    posted.countDown();
+                });
+            }
+
+            assertTrue(posted.await(10, TimeUnit.SECONDS));
+
+            loop.stop();
+            loop.run();
+        }
+        finally {
+            exec.shutdownNow();
+        }
+
+        assertEquals(Set.of(Thread.currentThread()), handlers);
+        assertEquals(threads * evtsPerThread, handled.size());
+        assertFalse(loop.inLoop(), "Loop thread should be reset after stop");
+    }
+
+    /**
+     *
+     */
+    @Test
+    void stop_handlesAlreadyPostedEvents() throws Exception {
+        EventLoop loop = new EventLoop();
+
+        List<String> handled = new ArrayList<>();
+
+        loop.execute(() -> handled.add("first"));
+        loop.stop();
+        loop.execute(() -> handled.add("after stop"));
+
+        loop.run();
+
+        assertEquals(List.of("first"), handled);
+        assertEquals(1, loop.pending());
+    }
+
+    /**
+     *
+     */
+    @Test
+    void run_failedEvent_stopsLoop() {
+        EventLoop loop = new EventLoop();
+
+        loop.execute(() -> {
+            throw new IllegalStateException("Test");
+        });
+
+        assertThrows(IllegalStateException.class, loop::run);
+    }
+}
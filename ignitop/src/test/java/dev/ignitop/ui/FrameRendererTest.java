@@ -0,0 +1,220 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ui;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import dev.ignitop.ui.component.impl.Table;
+import org.junit.jupiter.api.Test;
+
+import static dev.ignitop.ui.FrameRenderer.ERASE_LINE_TAIL;
+import static dev.ignitop.ui.FrameRenderer.ERASE_SCREEN;
+import static dev.ignitop.ui.FrameRenderer.ERASE_SCREEN_TAIL;
+import static dev.ignitop.util.TestUtils.renderToString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ */
+class FrameRendererTest {
+    /** Rows count of a benchmark table. */
+    private static final int ROWS_CNT = 500;
+
+    /**
+     *
+     */
+    @Test
+    void render_firstFrame_isFullyPainted() {
+        String out = render(new FrameRenderer(), List.of("a", "b"));
+
+        assertTrue(out.startsWith(ERASE_SCREEN), "Screen should be erased before the first frame");
+        assertTrue(out.contains("a") && out.contains("b"), "All lines should be painted");
+    }
+
+    /**
+     *
+     */
+    @Test
+    void render_sameFrame_writesNothing() {
+        FrameRenderer renderer = new FrameRenderer();
+
+        render(renderer, List.of("a", "b"));
+
+        assertEquals("", render(renderer, List.of("a", "b")));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void render_changedLine_isRepaintedAtItsPosition() {
+        FrameRenderer renderer = new FrameRenderer();
+
+        render(renderer, List.of("a", "b", "c"));
+
+        String out = render(renderer, List.of("a", "x", "c"));
+
+        assertEquals("\033[2;1Hx" + FrameRenderer.ERASE_LINE_TAIL, out);
+    }
+
+    /**
+     *
+     */
+    @Test
+    void render_shorterFrame_erasesTail() {
+        FrameRenderer renderer = new FrameRenderer();
+
+        render(renderer, List.of("a", "b", "c"));
+
+        assertEquals("\033[2;1H" + ERASE_SCREEN_TAIL, render(renderer, List.of("a")));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void render_afterInvalidate_isFullyPainted() {
+        FrameRenderer renderer = new FrameRenderer();
+
+        render(renderer, List.of("a"));
+
+        renderer.invalidate();
+
+        assertTrue(render(renderer, List.of("a")).startsWith(ERASE_SCREEN));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void render_frameTallerThanHeight_isTrimmed() {
+        FrameRenderer renderer = new FrameRenderer();
+
+        assertEquals(ERASE_SCREEN + "\033[1;1Ha" + ERASE_LINE_TAIL + "\033[2;1Hb" + ERASE_LINE_TAIL,
+            render(renderer, List.of("a", "b", "c"), 2));
+
+        assertEquals("", render(renderer, List.of("a", "b", "x"), 2), "Lines below the screen should not be written");
+
+        // Lines, which were trimmed before, are painted when the terminal grows.
+        renderer.invalidate();
+
+        assertTrue(render(renderer, List.of("a", "b", "x"), 3).contains("\033[3;1Hx"));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void render_frame_isWrittenWithSingleWrite() {
+        FrameRenderer renderer = new FrameRenderer();
+
+        List<Integer> writes = new ArrayList<>();
+
+        PrintStream out = new PrintStream(new OutputStream() {
+            /** {@inheritDoc} */
+            @Override public void write(int b) {
+                writes.add(1);
+            }
+
+            /** {@inheritDoc} */
+            @Override public void write(byte[] b, int off, int len) {
+                writes.add(len);
+            }
+        });
+
+        List<Object[]> rows = IntStream.range(0, ROWS_CNT)
+            .mapToObj(i -> new Object[] {"node" + i, "host" + i, 10.5 + i, 0.3})
+            .collect(Collectors.toList());
+
+        renderer.render(frame(rows, 0), 0, out);
+
+        assertEquals(1, writes.size(), "Frame should be written at once");
+
+        renderer.render(frame(rows, 0), 0, out);
+
+        assertEquals(1, writes.size(), "Unchanged frame should not be written");
+    }
+
+    /**
+     * Bytes written per refresh of a 500-rows table, when a single row and a status line change, are compared with
+     * bytes of a full repaint.
+     */
+    @Test
+    void render_largeTable_writesOnlyChangedRows() {
+        FrameRenderer renderer = new FrameRenderer();
+
+        List<Object[]> rows = IntStream.range(0, ROWS_CNT)
+            .mapToObj(i -> new Object[] {"node" + i, "host" + i, 10.5 + i, 0.3})
+            .collect(Collectors.toList());
+
+        int full = render(renderer, frame(rows, 0)).length();
+
+        rows.set(ROWS_CNT / 2, new Object[] {"node" + ROWS_CNT / 2, "host", 99.9, 0.7});
+
+        int diff = render(renderer, frame(rows, 1)).length();
+
+        assertFalse(diff == 0, "Changed lines should be painted");
+        assertTrue(diff * 100 < full, "Differential frame should be much smaller than the full one: " + diff +
+            " vs " + full);
+    }
+
+    /**
+     * @param rows Table rows.
+     * @param age Age of the frame.
+     */
+    private static List<String> frame(List<Object[]> rows, int age) {
+        List<String> frame = new ArrayList<>(renderToString(
+            new Table(List.of("ConsID", "HostNames", "CPU%", "LoadAvg"), rows), 200).lines()
+            .collect(Collectors.toList()));
+
+        frame.add("Updated " + age + "s ago");
+
+        return frame;
+    }
+
+    /**
+     * @param renderer Renderer.
+     * @param frame Frame.
+     * @return Written output.
+     */
+    private static String render(FrameRenderer renderer, List<String> frame) {
+        return render(renderer, frame, 0);
+    }
+
+    /**
+     * @param renderer Renderer.
+     * @param frame Frame.
+     * @param height Terminal height.
+     * @return Written output.
+     */
+    private static String render(FrameRenderer renderer, List<String> frame, int height) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+        PrintStream out = new PrintStream(baos);
+
+        renderer.render(frame, height, out);
+
+        return baos.toString();
+    }
+}
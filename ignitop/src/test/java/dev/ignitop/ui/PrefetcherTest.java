@@ -0,0 +1,95 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ui;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import dev.ignitop.ui.updater.ScreenUpdater;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ *
+ */
+class PrefetcherTest {
+    /**
+     *
+     */
+    @Test
+    void nextDelay_keepsLoadWithinBudget() {
+        // 1 second of prefetch is followed by 9 seconds of rest with 10% budget.
+        assertEquals(9000, Prefetcher.nextDelay(1000, 10, 5000));
+        assertEquals(1000, Prefetcher.nextDelay(1000, 50, 0));
+
+        // Fast collection is not repeated more often than the minimum delay.
+        assertEquals(5000, Prefetcher.nextDelay(10, 10, 5000));
+        assertEquals(5000, Prefetcher.nextDelay(10_000, 100, 5000));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void create_withInvalidBudget_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new Prefetcher(null, null, List.of(), -1, () -> 0));
+        assertThrows(IllegalArgumentException.class, () -> new Prefetcher(null, null, List.of(), 101, () -> 0));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void nextScreen_isInactiveScreen_withOldestSnapshot() {
+        TerminalProvider terminalProvider = mock(TerminalProvider.class);
+        when(terminalProvider.out()).thenReturn(new PrintStream(new ByteArrayOutputStream()));
+
+        TerminalUi ui = new TerminalUi(terminalProvider);
+
+        ScreenUpdater active = mock(ScreenUpdater.class);
+        ScreenUpdater fresh = mock(ScreenUpdater.class);
+        ScreenUpdater old = mock(ScreenUpdater.class);
+
+        when(active.components()).thenReturn(List.of());
+        when(fresh.components()).thenReturn(List.of());
+
+        ui.updater(active);
+        ui.collect(active);
+        ui.collect(fresh);
+
+        Prefetcher prefetcher = new Prefetcher(mock(ScheduledExecutorService.class), ui, List.of(active, fresh, old),
+            Prefetcher.DEFAULT_BUDGET, () -> 0);
+
+        assertEquals(old, prefetcher.nextScreen(System.currentTimeMillis()), "Never collected screen is the oldest");
+
+        when(old.components()).thenReturn(List.of());
+
+        ui.collect(old);
+
+        assertEquals(fresh, prefetcher.nextScreen(System.currentTimeMillis() + 1),
+            "Screen with the oldest snapshot is expected");
+
+        assertNull(new Prefetcher(mock(ScheduledExecutorService.class), ui, List.of(active), Prefetcher.DEFAULT_BUDGET,
+            () -> 0).nextScreen(System.currentTimeMillis()), "Active screen should not be prefetched");
+    }
+}
@@ -16,7 +16,17 @@
 
 package dev.ignitop.ui;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayDeque;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import dev.ignitop.ui.component.impl.Label;
 import dev.ignitop.ui.component.impl.Table;
 import dev.ignitop.ui.updater.ScreenUpdater;
@@ -24,10 +34,21 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InOrder;
 
+import static dev.ignitop.util.TestUtils.renderToString;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 /**
@@ -55,6 +76,7 @@ class TerminalUiTest {
     @BeforeEach
     public void setUp() {
         mockTerminalProvider = mock(TerminalProvider.class);
+        when(mockTerminalProvider.out()).thenReturn(new PrintStream(new ByteArrayOutputStream()));
 
         mockSreenUpdater = mock(ScreenUpdater.class);
     }
@@ -83,6 +105,326 @@ class TerminalUiTest {
         checkWithTerminalWidth(LABEL_WIDTH - 2, LABEL_WIDTH - 2);
     }
 
+    /**
+     *
+     */
+    @Test
+    public void updater_cancelsPreviousUpdater() {
+        ScreenUpdater nextUpdater = mock(ScreenUpdater.class);
+
+        TerminalUi ui = new TerminalUi(mockTerminalProvider);
+
+        ui.updater(mockSreenUpdater);
+        ui.updater(nextUpdater);
+
+        verify(mockSreenUpdater).cancel();
+        verify(nextUpdater, never()).cancel();
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void collect_cancelledCollection_isNotPublished() {
+        when(mockSreenUpdater.components()).thenThrow(new CancellationException());
+
+        TerminalUi ui = new TerminalUi(mockTerminalProvider);
+
+        ui.updater(mockSreenUpdater);
+        ui.collect();
+
+        assertNull(ui.snapshot());
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void collect_ofScreenBeingPrefetched_isNotDuplicated() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        AtomicInteger collections = new AtomicInteger();
+
+        Label lbl = mock(Label.class);
+
+        ScreenUpdater prefetched = () -> {
+            collections.incrementAndGet();
+
+            started.countDown();
+
+            try {
+                finish.await();
+            }
+            catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+
+            return List.of(lbl);
+        };
+
+        TerminalUi ui = new TerminalUi(mockTerminalProvider);
+
+        ui.updater(mockSreenUpdater);
+
+        Thread prefetch = new Thread(() -> ui.collect(prefetched));
+
+        prefetch.start();
+
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        // Switch to the screen, which is being prefetched, and collect it out of schedule.
+        ui.updater(prefetched);
+        ui.collect();
+
+        finish.countDown();
+        prefetch.join();
+
+        assertEquals(1, collections.get(), "Screen should not be collected concurrently");
+        assertNotNull(ui.snapshot(), "Prefetched snapshot should be published");
+        verify(lbl).render(anyInt(), any());
+
+        ui.collect();
+
+        assertEquals(2, collections.get(), "Screen should be collected after completion of prefetch");
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void refresh_doesNotCollect() {
+        TerminalUi ui = new TerminalUi(mockTerminalProvider);
+
+        ui.updater(mockSreenUpdater);
+        ui.refresh();
+
+        verify(mockSreenUpdater, never()).components();
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void resize_redrawsLatestSnapshot_withoutCollection() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        when(mockTerminalProvider.out()).thenReturn(new PrintStream(out));
+
+        when(mockSreenUpdater.components()).thenReturn(List.of(new Table(List.of("Header"), List.of())));
+        when(mockTerminalProvider.width()).thenReturn(80);
+
+        TerminalUi ui = new TerminalUi(mockTerminalProvider);
+
+        ui.updater(mockSreenUpdater);
+        ui.collect();
+
+        out.reset();
+
+        when(mockTerminalProvider.width()).thenReturn(40);
+
+        ui.resize();
+
+        assertTrue(out.toString().startsWith(FrameRenderer.ERASE_SCREEN), "Frame should be fully repainted");
+        assertTrue(out.toString().contains("Header"), "Latest snapshot should be redrawn");
+
+        verify(mockSreenUpdater, times(1)).components();
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void collect_inactiveScreen_isCachedAndRenderedOnSwitch() {
+        Label lbl = mock(Label.class);
+
+        ScreenUpdater inactive = mock(ScreenUpdater.class);
+        when(inactive.components()).thenReturn(List.of(lbl));
+
+        TerminalUi ui = new TerminalUi(mockTerminalProvider);
+
+        ui.updater(mockSreenUpdater);
+        ui.collect(inactive);
+
+        verify(lbl, never()).render(anyInt(), any());
+        assertNull(ui.snapshot());
+
+        ui.updater(inactive);
+
+        verify(lbl).render(anyInt(), any());
+        verify(inactive, never()).cancel();
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void updater_withOutdatedCachedSnapshot_waitsForCollection() {
+        Label lbl = mock(Label.class);
+
+        ScreenUpdater inactive = mock(ScreenUpdater.class);
+        when(inactive.components()).thenReturn(List.of(lbl));
+
+        TerminalUi ui = new TerminalUi(mockTerminalProvider);
+
+        ui.maxSnapshotAge(-1);
+
+        ui.updater(mockSreenUpdater);
+        ui.collect(inactive);
+        ui.updater(inactive);
+
+        verify(lbl, never()).render(anyInt(), any());
+        assertNull(ui.snapshot());
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void requestRefresh_isCoalesced_andPerformedByRenderExecutor() {
+        Queue<Runnable> renderQueue = new ArrayDeque<>();
+
+        Label lbl = mock(Label.class);
+        when(mockSreenUpdater.components()).thenReturn(List.of(lbl));
+
+        TerminalUi ui = new TerminalUi(mockTerminalProvider, renderQueue::add);
+
+        ui.updater(mockSreenUpdater);
+
+        // Collection thread does not render.
+        ui.collect();
+        ui.requestRefresh();
+        ui.requestRefresh();
+
+        verify(lbl, never()).render(anyInt(), any());
+        assertEquals(1, renderQueue.size(), "Refresh requests should be coalesced");
+
+        renderQueue.poll().run();
+
+        verify(lbl).render(anyInt(), any());
+
+        ui.requestRefresh();
+
+        assertEquals(1, renderQueue.size(), "Refresh should be requested again after a performed one");
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void refresh_snapshotOfPreviousScreen_isNotRendered() {
+        Label lbl = mock(Label.class);
+        when(mockSreenUpdater.components()).thenReturn(List.of(lbl));
+
+        TerminalUi ui = new TerminalUi(mockTerminalProvider);
+
+        ui.updater(mockSreenUpdater);
+        ui.collect();
+
+        verify(lbl).render(anyInt(), any());
+
+        ui.updater(mock(ScreenUpdater.class));
+        ui.refresh();
+
+        verifyNoMoreInteractions(lbl);
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void scroll_largestTable_byPages() {
+        List<Object[]> rows = IntStream.range(0, 100)
+            .mapToObj(i -> new Object[] {"Row" + i})
+            .collect(Collectors.toList());
+
+        Table table = new Table(List.of("Header"), rows);
+
+        when(mockSreenUpdater.components()).thenReturn(List.of(new Table(List.of("Small"), List.of()), table));
+        when(mockTerminalProvider.width()).thenReturn(80);
+        when(mockTerminalProvider.height()).thenReturn(12);
+
+        TerminalUi ui = new TerminalUi(mockTerminalProvider);
+
+        ui.updater(mockSreenUpdater);
+        ui.collect();
+
+        assertEquals(0, table.firstRow());
+
+        // Small table (2 lines), header and total lines of the scrollable table (2) and status lines (2).
+        ui.scrollPages(1);
+        assertEquals(6, table.firstRow());
+
+        ui.scrollPages(-1);
+        assertEquals(0, table.firstRow());
+
+        ui.scrollTo(Integer.MAX_VALUE);
+        assertEquals(94, table.firstRow());
+
+        ui.scrollTo(0);
+        assertEquals(0, table.firstRow());
+
+        ui.scrollTo(50);
+        ui.updater(mockSreenUpdater);
+        assertEquals(0, table.firstRow(), "Scroll should be reset on screen switch");
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void refresh_twoLargeTables_splitHeightAndScrollTogether() {
+        Table baseline = table(200);
+        Table clients = table(500);
+
+        when(mockSreenUpdater.components()).thenReturn(List.of(baseline, clients));
+        when(mockTerminalProvider.width()).thenReturn(80);
+        when(mockTerminalProvider.height()).thenReturn(30);
+
+        TerminalUi ui = new TerminalUi(mockTerminalProvider);
+
+        ui.updater(mockSreenUpdater);
+        ui.collect();
+
+        // Header and total lines of both tables (4) and status lines (2).
+        assertEquals(30, renderToString(baseline, 80).lines().count() + renderToString(clients, 80).lines().count() +
+            2, "Frame should fill the terminal height");
+        assertEquals(renderToString(baseline, 80).lines().count(), renderToString(clients, 80).lines().count(),
+            "Height should be split equally");
+
+        ui.scrollPages(1);
+        assertEquals(12, baseline.firstRow());
+        assertEquals(12, clients.firstRow());
+
+        ui.scrollTo(Integer.MAX_VALUE);
+        assertEquals(188, baseline.firstRow());
+        assertEquals(488, clients.firstRow());
+
+        // Shorter table stays at its end until the scroll row gets back into its rows.
+        ui.scrollPages(-1);
+        assertEquals(188, baseline.firstRow());
+        assertEquals(476, clients.firstRow());
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void shares_ofSmallTables_areGivenToLargerOnes() {
+        assertArrayEquals(new int[] {3, 9, 8}, TerminalUi.shares(List.of(table(3), table(100), table(50)), 20));
+        assertArrayEquals(new int[] {0, 1}, TerminalUi.shares(List.of(table(5), table(5)), 1));
+        assertArrayEquals(new int[] {0, 10}, TerminalUi.shares(List.of(table(0), table(100)), 10));
+    }
+
+    /**
+     * @param rowsCnt Amount of rows.
+     */
+    private static Table table(int rowsCnt) {
+        List<Object[]> rows = IntStream.range(0, rowsCnt)
+            .mapToObj(i -> new Object[] {"Row" + i})
+            .collect(Collectors.toList());
+
+        return new Table(List.of("Header"), rows);
+    }
+
     /**
      * @param terminalWidth TerminalProvider width.
      * @param expectedWidth Expected width user to render components.
@@ -103,7 +445,7 @@ class TerminalUiTest {
 
         when(mockTerminalProvider.width()).thenReturn(terminalWidth);
 
-        ui.refresh();
+        ui.collect();
 
         InOrder inOrder = inOrder(wideTable, narrowTable, lbl);
 
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ui.component.impl;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static dev.ignitop.util.TestUtils.renderToString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ */
+class SparklineTest {
+    /**
+     *
+     */
+    @Test
+    void of_quantizesValues_toLevels() {
+        double[] vals = {0, 12.5, 50, 99.9, 100, 150, -10, Double.NaN, 1000};
+
+        Sparkline sparkline = Sparkline.of(vals, vals.length - 1, 0, 100);
+
+        assertEquals(vals.length - 1, sparkline.length());
+        assertEquals("\u2581\u2582\u2585\u2588\u2588\u2588\u2581 ", sparkline.toString());
+    }
+
+    /**
+     *
+     */
+    @Test
+    void of_withoutValues_isEmpty() {
+        assertEquals("", Sparkline.of(new double[4], 0, 0, 100).toString());
+    }
+
+    /**
+     *
+     */
+    @Test
+    void of_invalidScale_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> Sparkline.of(new double[1], 1, 100, 100));
+        assertThrows(IllegalArgumentException.class, () -> Sparkline.of(new double[1], 1, 0, Double.NaN));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void table_printsSparklineCells() {
+        Sparkline sparkline = Sparkline.of(new double[] {0, 50, 100}, 3, 0, 100);
+
+        Table table = new Table(List.of("Trend", "Value"), List.<Object[]>of(new Object[] {sparkline, "val"}));
+
+        String rendered = renderToString(table, 80);
+
+        assertTrue(rendered.contains(sparkline + " "), "Sparkline is not printed: " + rendered);
+        assertTrue(rendered.contains("val"), "Unexpected table: " + rendered);
+    }
+}
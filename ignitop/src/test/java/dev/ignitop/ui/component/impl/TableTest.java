@@ -16,9 +16,14 @@
 
 package dev.ignitop.ui.component.impl;
 
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.junit.jupiter.api.Test;
@@ -30,6 +35,7 @@ import static org.fusesource.jansi.Ansi.ansi;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 /**
  *
@@ -213,6 +219,127 @@ class TableTest {
         assertEquals("0" + DEC_SEP + "9", cells[2]);
     }
 
+    /**
+     *
+     */
+    @Test
+    void render_repeatedly_withDifferentWidths() {
+        Table table = new Table(List.of(WIDE_HEADER, NARROW_HEADER), ROWS);
+
+        String expTable = renderToString(new Table(List.of(WIDE_HEADER, NARROW_HEADER), ROWS), 80);
+
+        renderToString(table, 80);
+        renderToString(table, 20);
+
+        assertEquals(expTable, renderToString(table, 80), "Rendering should not depend on previous renders");
+    }
+
+    /**
+     *
+     */
+    @Test
+    void render_rows_doNotAllocate() {
+        ThreadMXBean threadMxBean = ManagementFactory.getThreadMXBean();
+
+        assumeTrue(threadMxBean instanceof com.sun.management.ThreadMXBean, "Allocation counter is not supported");
+
+        com.sun.management.ThreadMXBean mxBean = (com.sun.management.ThreadMXBean)threadMxBean;
+
+        assumeTrue(mxBean.isThreadAllocatedMemorySupported() && mxBean.isThreadAllocatedMemoryEnabled(),
+            "Allocation counter is not supported");
+
+        int rowsCnt = 10_000;
+
+        List<Object[]> rows = IntStream.range(0, rowsCnt)
+            .mapToObj(i -> new Object[] {"node" + i, List.of("host" + i), 10.5 + i, 0.25, (long)i})
+            .collect(Collectors.toList());
+
+        Table table = new Table(List.of("ConsID", "HostNames", "CPU%", "LoadAvg", "Order"), rows);
+
+        PrintStream out = new PrintStream(OutputStream.nullOutputStream());
+
+        // Warm up.
+        for (int i = 0; i < 10; i++)
+            table.render(80, out);
+
+        long threadId = Thread.currentThread().getId();
+
+        long before = mxBean.getThreadAllocatedBytes(threadId);
+
+        table.render(80, out);
+
+        long allocated = mxBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(allocated / rowsCnt < 8, "Unexpected allocation per row: " + (double)allocated / rowsCnt);
+    }
+
+    /**
+     *
+     */
+    @Test
+    void render_withViewport_rendersOnlyVisibleRows() {
+        Table table = new Table(List.of(WIDE_HEADER, NARROW_HEADER), ROWS);
+
+        table.viewport(10, 5);
+
+        List<String> lines = renderToString(table, table.contentWidth()).lines().collect(Collectors.toList());
+
+        // Header + rows + total items line.
+        assertEquals(7, lines.size());
+        assertTrue(lines.get(1).startsWith("Content [10,1]"), "Unexpected first row: " + lines.get(1));
+        assertTrue(lines.get(5).startsWith("Content [14,1]"), "Unexpected last row: " + lines.get(5));
+        assertEquals("Total items: " + ROWS_COUNT + " (shown 11-15)", lines.get(6));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void viewport_isClampedToRows() {
+        Table table = new Table(List.of(WIDE_HEADER, NARROW_HEADER), ROWS);
+
+        table.viewport(Integer.MAX_VALUE, 10);
+        assertEquals(ROWS_COUNT - 10, table.firstRow());
+
+        table.viewport(-5, 10);
+        assertEquals(0, table.firstRow());
+
+        table.viewport(5, ROWS_COUNT * 2);
+        assertEquals(0, table.firstRow());
+    }
+
+    /**
+     *
+     */
+    @Test
+    void render_withViewport_formatsVisibleRowsLazily() {
+        AtomicInteger formatted = new AtomicInteger();
+
+        Object cell = new Object() {
+            /** {@inheritDoc} */
+            @Override public String toString() {
+                formatted.incrementAndGet();
+
+                return "Cell";
+            }
+        };
+
+        List<Object[]> rows = IntStream.range(0, 1000)
+            .mapToObj(i -> new Object[] {cell})
+            .collect(Collectors.toList());
+
+        Table table = new Table(List.of(NARROW_HEADER), rows);
+
+        int measured = formatted.get();
+
+        table.viewport(0, 10);
+
+        renderToString(table, table.contentWidth());
+        renderToString(table, table.contentWidth());
+
+        assertEquals(10, formatted.get() - measured, "Only visible rows should be formatted, and only once");
+    }
+
     /**
      *
      */
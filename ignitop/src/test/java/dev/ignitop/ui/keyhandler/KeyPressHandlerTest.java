@@ -0,0 +1,132 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.ui.keyhandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static dev.ignitop.ui.keyhandler.KeyPressHandler.END;
+import static dev.ignitop.ui.keyhandler.KeyPressHandler.HOME;
+import static dev.ignitop.ui.keyhandler.KeyPressHandler.PAGE_DOWN;
+import static dev.ignitop.ui.keyhandler.KeyPressHandler.PAGE_UP;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ *
+ */
+class KeyPressHandlerTest {
+    /**
+     *
+     */
+    @Test
+    void handle_escapeSequences_andCharacters() {
+        List<String> actions = new ArrayList<>();
+
+        KeyPressHandler hnd = handler(actions);
+
+        press(hnd, "t\033[5~\033[6~\033OH\033[4~s");
+
+        assertEquals(List.of("t", "pgup", "pgdn", "home", "end", "s"), actions);
+    }
+
+    /**
+     *
+     */
+    @Test
+    void handle_unsupportedSequence_isSkipped() {
+        List<String> actions = new ArrayList<>();
+
+        KeyPressHandler hnd = handler(actions);
+
+        press(hnd, "\033[2~t\033[Zs");
+
+        assertEquals(List.of("t", "s"), actions);
+    }
+
+    /**
+     *
+     */
+    @Test
+    void handle_bareEscapeFollowedByKey_handlesKey() {
+        List<String> actions = new ArrayList<>();
+
+        press(handler(actions), "\033t\033\033[5~\033s");
+
+        assertEquals(List.of("t", "pgup", "s"), actions);
+    }
+
+    /**
+     *
+     */
+    @Test
+    void handle_unsupportedKey_writesNothing() {
+        List<String> actions = new ArrayList<>();
+
+        PrintStream out = System.out;
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+
+        System.setOut(new PrintStream(buf));
+
+        try {
+            press(handler(actions), "xt");
+        }
+        finally {
+            System.setOut(out);
+        }
+
+        assertEquals(List.of("t"), actions);
+        assertEquals(0, buf.size(), "Output outside of a frame is not repainted");
+    }
+
+    /**
+     *
+     */
+    @Test
+    void addKeyHandler_notEscapeSequence_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new KeyPressHandler().addKeyHandler(List.of("[5~"), () -> {}));
+    }
+
+    /**
+     * @param actions Actions log.
+     */
+    private static KeyPressHandler handler(List<String> actions) {
+        KeyPressHandler hnd = new KeyPressHandler();
+
+        hnd.addKeyHandler('t', () -> actions.add("t"));
+        hnd.addKeyHandler('s', () -> actions.add("s"));
+        hnd.addKeyHandler(PAGE_UP, () -> actions.add("pgup"));
+        hnd.addKeyHandler(PAGE_DOWN, () -> actions.add("pgdn"));
+        hnd.addKeyHandler(HOME, () -> actions.add("home"));
+        hnd.addKeyHandler(END, () -> actions.add("end"));
+
+        return hnd;
+    }
+
+    /**
+     * @param hnd Handler.
+     * @param keys Pressed keys.
+     */
+    private static void press(KeyPressHandler hnd, String keys) {
+        for (char key : keys.toCharArray())
+            hnd.handle(key);
+    }
+}
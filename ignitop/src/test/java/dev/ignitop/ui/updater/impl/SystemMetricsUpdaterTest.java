@@ -22,9 +22,11 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import dev.ignitop.ignite.IgniteHelper;
+import dev.ignitop.ignite.history.MetricHistory;
 import dev.ignitop.ignite.system.SystemMetricsInformation;
 import dev.ignitop.ui.component.TerminalComponent;
 import org.junit.jupiter.api.BeforeEach;
@@ -72,6 +74,67 @@ class SystemMetricsUpdaterTest {
         doTest(3, 4);
     }
 
+    /**
+     *
+     */
+    @Test
+    void components_withTimedOutNodes_marksStaleRows() {
+        List<SystemMetricsInformation> infos = List.of(
+            systemInformation(0, 2),
+            systemInformation(1, 2).asStale(),
+            SystemMetricsInformation.unknown("node2", List.of("host20")));
+
+        when(igniteHelper.systemMetricsAsync()).thenReturn(CompletableFuture.completedFuture(infos));
+
+        List<TerminalComponent> components = new ArrayList<>(new SystemMetricsUpdater(igniteHelper).components());
+
+        assertEquals(5, components.size(), "Timed out nodes label expected");
+
+        List<List<String>> renderedCells = renderToString(components.get(2), 400).lines()
+            .map(s -> Arrays.asList(s.split(" +")))
+            .collect(Collectors.toList());
+
+        assertEquals("node0", renderedCells.get(1).get(0));
+        assertEquals("node1" + SystemMetricsUpdater.STALE_MARK, renderedCells.get(2).get(0));
+        assertEquals("node2" + SystemMetricsUpdater.STALE_MARK, renderedCells.get(3).get(0));
+        assertEquals(renderedCells.get(1).size() - 1, renderedCells.get(3).size(),
+            "Unknown node should have cells for all columns");
+
+        assertTrue(renderToString(components.get(4), 400).contains("Timed out nodes: "), "Unexpected label");
+        assertTrue(renderToString(components.get(4), 400).contains("2"), "Unexpected timed out nodes count");
+    }
+
+    /**
+     *
+     */
+    @Test
+    void components_withTrends_addsSparklineColumns() {
+        MetricHistory history = new MetricHistory();
+
+        for (int i = 0; i < 3; i++) {
+            history.append("node0", MetricHistory.CPU_LOAD, i, i * 50);
+            history.append("node0", MetricHistory.HEAP_USAGE, i, 100);
+        }
+
+        when(igniteHelper.systemMetricsAsync())
+            .thenReturn(CompletableFuture.completedFuture(List.of(systemInformation(0, 1))));
+
+        List<TerminalComponent> components = new ArrayList<>(
+            new SystemMetricsUpdater(igniteHelper, history, 5).components());
+
+        List<List<String>> renderedCells = renderToString(components.get(2), 400).lines()
+            .map(s -> Arrays.asList(s.split(" +")))
+            .collect(Collectors.toList());
+
+        assertTrue(renderedCells.get(0).containsAll(List.of("CPU%", "CPU%" + SystemMetricsUpdater.TREND_SUFFIX,
+            "LoadAvg", "GC_CPU%" + SystemMetricsUpdater.TREND_SUFFIX, "Heap%" + SystemMetricsUpdater.TREND_SUFFIX,
+            "DataReg%:test0" + SystemMetricsUpdater.TREND_SUFFIX)), "Unexpected header: " + renderedCells.get(0));
+
+        // Collected value is appended to the history before rendering of trends.
+        assertEquals("\u2581\u2585\u2588\u2585", renderedCells.get(1).get(4));
+        assertEquals("\u2588\u2588\u2588\u2582", renderedCells.get(1).get(9));
+    }
+
     /**
      * @param nodesCnt Nodes count.
      * @param drCnt Data regions count.
@@ -83,7 +146,7 @@ class SystemMetricsUpdaterTest {
 
         List<List<String>> expTable = expectedTable(nodesCnt, drCnt);
 
-        when(igniteHelper.systemMetrics()).thenReturn(infos);
+        when(igniteHelper.systemMetricsAsync()).thenReturn(CompletableFuture.completedFuture(infos));
 
         Iterator<TerminalComponent> compIter = new SystemMetricsUpdater(igniteHelper).components()
             .iterator();
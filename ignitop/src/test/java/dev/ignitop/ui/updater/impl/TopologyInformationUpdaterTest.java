@@ -21,6 +21,7 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -120,7 +121,7 @@ class TopologyInformationUpdaterTest {
         TopologyInformation topInfo = topologyInformation(onlineCnt, offlineCnt, nonBaselineCnt,
             clientsCnt, topVer, clusterState, rebalanced);
 
-        when(igniteHelper.topologyInformation()).thenReturn(topInfo);
+        when(igniteHelper.topologyInformationAsync()).thenReturn(CompletableFuture.completedFuture(topInfo));
 
         TopologyInformationUpdater topInfoUpdater = new TopologyInformationUpdater(igniteHelper);
 
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Id, which counts calls of its {@link #toString()}, {@link #equals(Object)} and {@link #hashCode()}, so that
+ * complexity of code, which looks ids up, can be checked by an amount of operations instead of a duration.
+ */
+public class CountingId {
+    /** Id. */
+    private final String id;
+
+    /** Counter of operations. */
+    private final AtomicLong ops;
+
+    /**
+     * @param id Id.
+     * @param ops Counter of operations, which is shared by ids of a test.
+     */
+    public CountingId(String id, AtomicLong ops) {
+        this.id = id;
+        this.ops = ops;
+    }
+
+    /** {@inheritDoc} */
+    @Override public boolean equals(Object o) {
+        ops.incrementAndGet();
+
+        if (this == o)
+            return true;
+
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        return id.equals(((CountingId)o).id);
+    }
+
+    /** {@inheritDoc} */
+    @Override public int hashCode() {
+        ops.incrementAndGet();
+
+        return id.hashCode();
+    }
+
+    /** {@inheritDoc} */
+    @Override public String toString() {
+        ops.incrementAndGet();
+
+        return id;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2023 Ilya Shishkov (https://github.com/shishkovilja)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.ignitop.util;
+
+import java.util.Locale;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ *
+ */
+class DecimalFormatterTest {
+    /**
+     *
+     */
+    @Test
+    void format_isEqualTo_stringFormat() {
+        for (int i = -100_000; i <= 100_000; i++) {
+            check(i / 100d);
+            check(i / 1000d);
+            check(i / 20d);
+        }
+
+        Random rnd = new Random(0);
+
+        for (int i = 0; i < 100_000; i++)
+            check((rnd.nextDouble() - 0.5) * Math.pow(10, rnd.nextInt(16)));
+    }
+
+    /**
+     *
+     */
+    @Test
+    void format_nearTies_isEqualTo_stringFormat() {
+        Random rnd = new Random(0);
+
+        for (int exp = 0; exp <= 9; exp++) {
+            for (int i = 0; i < 10_000; i++) {
+                long intPart = (long)(rnd.nextDouble() * Math.pow(10, exp));
+                int digit = rnd.nextInt(10);
+
+                for (String tail : new String[] {"5", "4999999", "5000001", "49999999999", "50000000001"}) {
+                    check(Double.parseDouble(intPart + "." + digit + tail));
+                    check(-Double.parseDouble(intPart + "." + digit + tail));
+                }
+            }
+        }
+
+        check(123456789.05);
+        check(266445456.54999998);
+        check(999999999.95);
+    }
+
+    /**
+     *
+     */
+    @Test
+    void format_specialValues() {
+        for (double val : new double[] {0d, -0d, -0.04, 0.05, 0.25, 0.35, 9.95, 99.96, Double.NaN,
+            Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.MAX_VALUE, Double.MIN_VALUE, 1e9, -1e9})
+            check(val);
+    }
+
+    /**
+     *
+     */
+    @Test
+    void format_usesDefaultLocaleSeparator() {
+        Locale dflt = Locale.getDefault(Locale.Category.FORMAT);
+
+        try {
+            Locale.setDefault(Locale.Category.FORMAT, Locale.GERMANY);
+
+            assertEquals("1234,3", DecimalFormatter.format(1234.25));
+
+            Locale.setDefault(Locale.Category.FORMAT, Locale.US);
+
+            assertEquals("1234.3", DecimalFormatter.format(1234.25));
+        }
+        finally {
+            Locale.setDefault(Locale.Category.FORMAT, dflt);
+        }
+    }
+
+    /**
+     * @param val Value.
+     */
+    private static void check(double val) {
+        String exp = String.format("%.1f", val);
+
+        assertEquals(exp, DecimalFormatter.format(val), "Unexpected format of " + val);
+        assertEquals(exp.length(), DecimalFormatter.length(val), "Unexpected length of " + val);
+    }
+}